@@ -11,9 +11,12 @@ import org.bouncycastle.cms.CMSTypedData;
 import org.bouncycastle.cms.SignerInfoGenerator;
 import org.bouncycastle.cms.SignerInformation;
 
+import java.io.BufferedOutputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
 import java.util.Collection;
 import java.util.List;
 
@@ -31,6 +34,8 @@ import static net.ripe.rpki.commons.crypto.cms.CMSUtils.getSafeOutputStream;
  */
 public class RPKISignedDataGenerator extends CMSSignedDataGenerator
 {
+    private static final int CHANNEL_BUFFER_SIZE = 8192;
+
     public RPKISignedDataGenerator() {
     }
 
@@ -41,13 +46,43 @@ public class RPKISignedDataGenerator extends CMSSignedDataGenerator
      * @param content the content to be signed.
      * @param encapsulate true if the content should be encapsulated in the signature, false otherwise.
      */
-    @SuppressWarnings("unchecked")
     @Override
     public CMSSignedData generate(
         // FIXME Avoid accessing more than once to support CMSProcessableInputStream
         CMSTypedData content,
         boolean encapsulate)
         throws CMSException
+    {
+        return new CMSSignedData(content, generateContentInfo(content, encapsulate));
+    }
+
+    /**
+     * Generate a CMS Signed Data object with encapsulated content and write its DER encoding to the output stream,
+     * without creating a CMSSignedData or a byte array holding the complete encoding.
+     *
+     * @param content the content to be signed.
+     * @param out the stream to write to, it is not closed.
+     */
+    public void generate(CMSTypedData content, OutputStream out) throws CMSException, IOException
+    {
+        generateContentInfo(content, true).encodeTo(out, ASN1Encoding.DER);
+    }
+
+    /**
+     * Generate a CMS Signed Data object with encapsulated content and write its DER encoding to the channel.
+     *
+     * @param content the content to be signed.
+     * @param channel the channel to write to, it is not closed.
+     */
+    public void generate(CMSTypedData content, WritableByteChannel channel) throws CMSException, IOException
+    {
+        OutputStream out = new BufferedOutputStream(Channels.newOutputStream(channel), CHANNEL_BUFFER_SIZE);
+        generate(content, out);
+        out.flush();
+    }
+
+    @SuppressWarnings("unchecked")
+    private RPKIContentInfo generateContentInfo(CMSTypedData content, boolean encapsulate) throws CMSException
     {
         ASN1EncodableVector  digestAlgs = new ASN1EncodableVector();
         ASN1EncodableVector  signerInfos = new ASN1EncodableVector();
@@ -74,7 +109,23 @@ public class RPKISignedDataGenerator extends CMSSignedDataGenerator
 
         ASN1OctetString octs = null;
 
-        if (content.getContent() != null)
+        Object contentBytes = content.getContent();
+        if (encapsulate && contentBytes instanceof byte[])
+        {
+            // Sign and encapsulate the content array directly instead of copying it through a buffer.
+            OutputStream cOut = getSafeOutputStream(attachSignersToOutputStream((Collection<SignerInfoGenerator>)signerGens, null));
+            try
+            {
+                cOut.write((byte[]) contentBytes);
+                cOut.close();
+            }
+            catch (IOException e)
+            {
+                throw new CMSException("data processing exception: " + e.getMessage(), e);
+            }
+            octs = new DEROctetString((byte[]) contentBytes);
+        }
+        else if (contentBytes != null)
         {
             ByteArrayOutputStream bOut = null;
 
@@ -142,9 +193,7 @@ public class RPKISignedDataGenerator extends CMSSignedDataGenerator
                 certrevlist,
                 new DERSet(signerInfos));
 
-        RPKIContentInfo contentInfo = new RPKIContentInfo(CMSObjectIdentifiers.signedData, sd);
-
-        return new CMSSignedData(content, contentInfo);
+        return new RPKIContentInfo(CMSObjectIdentifiers.signedData, sd);
     }
 
 }
@@ -0,0 +1,206 @@
+package net.ripe.rpki.commons.crypto.cms;
+
+import net.ripe.rpki.commons.crypto.ValidityPeriod;
+import net.ripe.rpki.commons.crypto.util.BouncyCastleUtil;
+import net.ripe.rpki.commons.crypto.util.CachingContentSignerFactory;
+import net.ripe.rpki.commons.crypto.util.ContentSignerFactory;
+import net.ripe.rpki.commons.crypto.util.KeyPairFactory;
+import net.ripe.rpki.commons.crypto.x509cert.RpkiSignedObjectEeCertificateBuilder;
+import net.ripe.rpki.commons.crypto.x509cert.X509CertificateBuilderHelper;
+import net.ripe.rpki.commons.crypto.x509cert.X509ResourceCertificate;
+import org.apache.commons.lang3.Validate;
+import org.bouncycastle.util.encoders.Hex;
+
+import javax.security.auth.x500.X500Principal;
+import java.net.URI;
+import java.security.KeyPair;
+import java.security.PublicKey;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Issues a batch of signed objects (ROAs, manifests, ...) for a single CA in one call.
+ *
+ * The issuing CA, its key pair, the CRL and publication URIs and the validity period are configured once and shared
+ * by every object in the batch. Each object still gets its own one-time-use EE certificate and key pair, which are
+ * generated and signed in parallel on the configured executor. Use a {@link net.ripe.rpki.commons.crypto.util.KeyPairPool}
+ * as key pair generator to avoid blocking on EE key generation.
+ *
+ * All EE certificates of a batch are signed with the issuer key through one {@link ContentSignerFactory}, so the
+ * signature provider is looked up and the issuer key initialised once per batch instead of once per object.
+ */
+public class RpkiSignedObjectBatchIssuer {
+
+    private X509ResourceCertificate issuerCertificate;
+    private KeyPair issuerKeyPair;
+    private URI issuerCertificatePublicationUri;
+    private URI crlUri;
+    private URI publicationDirectory;
+    private ValidityPeriod validityPeriod;
+    private KeyPairFactory.Generator keyPairGenerator = KeyPairFactory.rsa();
+    private String signatureProvider = X509CertificateBuilderHelper.DEFAULT_SIGNATURE_PROVIDER;
+    private Executor executor = ForkJoinPool.commonPool();
+    private ContentSignerFactory contentSignerFactory;
+
+    public RpkiSignedObjectBatchIssuer withIssuerCertificate(X509ResourceCertificate issuerCertificate) {
+        this.issuerCertificate = issuerCertificate;
+        return this;
+    }
+
+    public RpkiSignedObjectBatchIssuer withIssuerKeyPair(KeyPair issuerKeyPair) {
+        this.issuerKeyPair = issuerKeyPair;
+        return this;
+    }
+
+    /**
+     * The location the issuer certificate is published at, used for the authority information access of the EE
+     * certificates.
+     */
+    public RpkiSignedObjectBatchIssuer withIssuerCertificatePublicationUri(URI issuerCertificatePublicationUri) {
+        this.issuerCertificatePublicationUri = issuerCertificatePublicationUri;
+        return this;
+    }
+
+    public RpkiSignedObjectBatchIssuer withCrlUri(URI crlUri) {
+        this.crlUri = crlUri;
+        return this;
+    }
+
+    /**
+     * The directory the objects are published in. The object file names are resolved against this directory to
+     * get the signed object location of the EE certificates.
+     */
+    public RpkiSignedObjectBatchIssuer withPublicationDirectory(URI publicationDirectory) {
+        this.publicationDirectory = publicationDirectory;
+        return this;
+    }
+
+    /**
+     * The validity period of the EE certificates. Manifests use this for their this and next update times.
+     */
+    public RpkiSignedObjectBatchIssuer withValidityPeriod(ValidityPeriod validityPeriod) {
+        this.validityPeriod = validityPeriod;
+        return this;
+    }
+
+    /**
+     * Default: {@link KeyPairFactory#rsa()}
+     */
+    public RpkiSignedObjectBatchIssuer withKeyPairGenerator(KeyPairFactory.Generator keyPairGenerator) {
+        this.keyPairGenerator = keyPairGenerator;
+        return this;
+    }
+
+    /**
+     * Default: SunRsaSign
+     */
+    public RpkiSignedObjectBatchIssuer withSignatureProvider(String signatureProvider) {
+        this.signatureProvider = signatureProvider;
+        return this;
+    }
+
+    /**
+     * Signs the EE certificates with the issuer key. Default: a new {@link CachingContentSignerFactory} for every
+     * batch, which does not keep the issuer key after the batch is issued.
+     */
+    public RpkiSignedObjectBatchIssuer withContentSignerFactory(ContentSignerFactory contentSignerFactory) {
+        this.contentSignerFactory = contentSignerFactory;
+        return this;
+    }
+
+    /**
+     * Default: {@link ForkJoinPool#commonPool()}
+     */
+    public RpkiSignedObjectBatchIssuer withExecutor(Executor executor) {
+        this.executor = executor;
+        return this;
+    }
+
+    /**
+     * Issues all specified objects. When issuing any of the objects fails the whole batch fails.
+     *
+     * @return the issued objects, in the order of the specifications.
+     */
+    public SignedObjectBatch issue(List<SignedObjectSpecification> specifications) {
+        validateFields();
+        validateSpecifications(specifications);
+
+        ContentSignerFactory issuerSignerFactory = contentSignerFactory != null ? contentSignerFactory : new CachingContentSignerFactory(1);
+        List<CompletableFuture<RpkiSignedObject>> futures = new ArrayList<>(specifications.size());
+        for (SignedObjectSpecification specification : specifications) {
+            futures.add(CompletableFuture.supplyAsync(() -> issue(specification, issuerSignerFactory), executor));
+        }
+
+        List<String> fileNames = new ArrayList<>(specifications.size());
+        List<RpkiSignedObject> objects = new ArrayList<>(specifications.size());
+        try {
+            for (int i = 0; i < specifications.size(); ++i) {
+                fileNames.add(specifications.get(i).getFileName());
+                objects.add(futures.get(i).join());
+            }
+        } catch (CompletionException e) {
+            futures.forEach(future -> future.cancel(false));
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new RpkiSignedObjectBuilderException(e.getCause());
+        }
+        return new SignedObjectBatch(fileNames, objects);
+    }
+
+    private RpkiSignedObject issue(SignedObjectSpecification specification, ContentSignerFactory issuerSignerFactory) {
+        KeyPair eeKeyPair = keyPairGenerator.generate();
+
+        RpkiSignedObjectEeCertificateBuilder builder = new RpkiSignedObjectEeCertificateBuilder();
+        builder.withPublicKey(eeKeyPair.getPublic());
+        builder.withSigningKeyPair(issuerKeyPair);
+        builder.withSerial(specification.getEeCertificateSerial());
+        builder.withResources(specification.getResources());
+        builder.withInheritedResourceTypes(specification.getInheritedResourceTypes());
+        builder.withSubjectDN(deriveSubject(eeKeyPair.getPublic()));
+        builder.withIssuerDN(issuerCertificate.getSubject());
+        builder.withValidityPeriod(validityPeriod);
+        builder.withCrlUri(crlUri);
+        builder.withParentResourceCertificatePublicationUri(issuerCertificatePublicationUri);
+        builder.withCorrespondingCmsPublicationPoint(publicationDirectory.resolve(specification.getFileName()));
+        builder.withSignatureProvider(signatureProvider);
+        builder.withContentSignerFactory(issuerSignerFactory);
+        X509ResourceCertificate eeCertificate = builder.build();
+
+        return specification.getFactory().build(eeCertificate, eeKeyPair.getPrivate(), signatureProvider);
+    }
+
+    private static X500Principal deriveSubject(PublicKey publicKey) {
+        byte[] keyIdentifier = BouncyCastleUtil.createSubjectKeyIdentifier(publicKey).getKeyIdentifier();
+        return new X500Principal("CN=" + Hex.toHexString(keyIdentifier));
+    }
+
+    private void validateFields() {
+        requireNonNull(issuerCertificate, "Issuer Certificate is required");
+        requireNonNull(issuerKeyPair, "Issuer Key Pair is required");
+        requireNonNull(issuerCertificatePublicationUri, "Issuer Certificate Publication URI is required");
+        requireNonNull(crlUri, "CRL URI is required");
+        requireNonNull(publicationDirectory, "Publication Directory is required");
+        Validate.isTrue(publicationDirectory.getPath().endsWith("/"), "Publication Directory must end with a slash");
+        requireNonNull(validityPeriod, "ValidityPeriod is required");
+        requireNonNull(keyPairGenerator, "Key Pair Generator is required");
+        requireNonNull(signatureProvider, "SignatureProvider is required");
+        requireNonNull(executor, "Executor is required");
+        Validate.isTrue(issuerKeyPair.getPublic().equals(issuerCertificate.getPublicKey()), "Issuer Key Pair does not match the Issuer Certificate");
+    }
+
+    private static void validateSpecifications(List<SignedObjectSpecification> specifications) {
+        Set<String> fileNames = new HashSet<>();
+        for (SignedObjectSpecification specification : specifications) {
+            Validate.isTrue(fileNames.add(specification.getFileName()), "Duplicate file name in batch: %s", specification.getFileName());
+        }
+    }
+}
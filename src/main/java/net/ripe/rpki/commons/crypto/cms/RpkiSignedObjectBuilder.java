@@ -12,7 +12,6 @@ import org.bouncycastle.asn1.cms.Time;
 import org.bouncycastle.cert.jcajce.JcaCertStore;
 import org.bouncycastle.cms.CMSException;
 import org.bouncycastle.cms.CMSProcessableByteArray;
-import org.bouncycastle.cms.CMSSignedData;
 import org.bouncycastle.cms.DefaultSignedAttributeTableGenerator;
 import org.bouncycastle.cms.SignerInfoGenerator;
 import org.bouncycastle.cms.jcajce.JcaSignerInfoGeneratorBuilder;
@@ -21,7 +20,9 @@ import org.bouncycastle.operator.DigestCalculatorProvider;
 import org.bouncycastle.operator.OperatorCreationException;
 import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.security.InvalidAlgorithmParameterException;
 import java.security.NoSuchAlgorithmException;
 import java.security.NoSuchProviderException;
@@ -38,27 +39,40 @@ import static java.util.Objects.requireNonNull;
 
 public abstract class RpkiSignedObjectBuilder {
 
+    // Signer info, signed attributes and the EE certificate
+    private static final int ESTIMATED_CMS_OVERHEAD = 2048;
+
     protected byte[] generateCms(X509Certificate signingCertificate, PrivateKey privateKey, String signatureProvider, ASN1ObjectIdentifier contentTypeOid, byte[] content) {
-        byte[] result;
+        ByteArrayOutputStream out = new ByteArrayOutputStream(content.length + ESTIMATED_CMS_OVERHEAD);
         try {
-            result = doGenerate(signingCertificate, privateKey, signatureProvider, contentTypeOid, content);
-        } catch (NoSuchAlgorithmException | NoSuchProviderException | CMSException | IOException |
+            writeCms(signingCertificate, privateKey, signatureProvider, contentTypeOid, content, out);
+        } catch (IOException e) {
+            throw new RpkiSignedObjectBuilderException(e);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Writes the DER encoded CMS signed object to the output stream without materialising the complete encoding.
+     * The stream is not closed.
+     */
+    protected void writeCms(X509Certificate signingCertificate, PrivateKey privateKey, String signatureProvider, ASN1ObjectIdentifier contentTypeOid, byte[] content, OutputStream out) throws IOException {
+        try {
+            createGenerator(signingCertificate, privateKey, signatureProvider).generate(new CMSProcessableByteArray(contentTypeOid, content), out);
+        } catch (NoSuchAlgorithmException | NoSuchProviderException | CMSException |
             InvalidAlgorithmParameterException | CertStoreException | CertificateEncodingException | OperatorCreationException e) {
             throw new RpkiSignedObjectBuilderException(e);
         }
-        return result;
     }
 
-    private byte[] doGenerate(X509Certificate signingCertificate, PrivateKey privateKey, String signatureProvider, ASN1ObjectIdentifier contentTypeOid, byte[] content) throws InvalidAlgorithmParameterException, NoSuchAlgorithmException, CertStoreException, CMSException, NoSuchProviderException, IOException, CertificateEncodingException, OperatorCreationException {
+    private RPKISignedDataGenerator createGenerator(X509Certificate signingCertificate, PrivateKey privateKey, String signatureProvider) throws InvalidAlgorithmParameterException, NoSuchAlgorithmException, CertStoreException, CMSException, NoSuchProviderException, CertificateEncodingException, OperatorCreationException {
         byte[] subjectKeyIdentifier = X509CertificateUtil.getSubjectKeyIdentifier(signingCertificate);
         requireNonNull(subjectKeyIdentifier, "certificate must contain SubjectKeyIdentifier extension");
 
         RPKISignedDataGenerator generator = new RPKISignedDataGenerator();
         addSignerInfo(generator, privateKey, signatureProvider, signingCertificate);
         generator.addCertificates(new JcaCertStore(Collections.singleton(signingCertificate)));
-
-        CMSSignedData data = generator.generate(new CMSProcessableByteArray(contentTypeOid, content), true);
-        return data.getEncoded();
+        return generator;
     }
 
     private void addSignerInfo(RPKISignedDataGenerator generator, PrivateKey privateKey, String signatureProvider, X509Certificate signingCertificate) throws OperatorCreationException {
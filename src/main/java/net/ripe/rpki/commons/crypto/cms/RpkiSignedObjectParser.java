@@ -196,14 +196,9 @@ public abstract class RpkiSignedObjectParser {
     }
 
     private X509ResourceCertificate parseCertificate(Certificate certificate) {
-        try {
-            X509Certificate x509certificate = (X509Certificate) certificate;
-            X509ResourceCertificateParser parser = new X509ResourceCertificateParser();
-            parser.parse(validationResult, x509certificate.getEncoded());
-            return parser.isSuccess() ? parser.getCertificate() : null;
-        } catch (CertificateEncodingException e) {
-            throw new AbstractX509CertificateWrapperException("cannot parse already decoded X509 certificate: " + e, e);
-        }
+        X509ResourceCertificateParser parser = new X509ResourceCertificateParser();
+        parser.parse(validationResult, (X509Certificate) certificate);
+        return parser.isSuccess() ? parser.getCertificate() : null;
     }
 
     private Collection<? extends Certificate> extractCertificate(CMSSignedDataParser sp) {
@@ -0,0 +1,55 @@
+package net.ripe.rpki.commons.crypto.cms;
+
+import net.ripe.rpki.commons.crypto.cms.manifest.ManifestCms;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * The signed objects issued by the {@link RpkiSignedObjectBatchIssuer}, keyed by file name.
+ */
+public final class SignedObjectBatch {
+
+    private final Map<String, RpkiSignedObject> objects;
+
+    SignedObjectBatch(List<String> fileNames, List<RpkiSignedObject> objects) {
+        Map<String, RpkiSignedObject> result = new LinkedHashMap<>();
+        for (int i = 0; i < fileNames.size(); ++i) {
+            result.put(fileNames.get(i), objects.get(i));
+        }
+        this.objects = Collections.unmodifiableMap(result);
+    }
+
+    /**
+     * @return the issued objects by file name, in the order they were specified.
+     */
+    public Map<String, RpkiSignedObject> getObjects() {
+        return objects;
+    }
+
+    public RpkiSignedObject getObject(String fileName) {
+        return objects.get(fileName);
+    }
+
+    public byte[] getEncoded(String fileName) {
+        RpkiSignedObject object = objects.get(fileName);
+        return object == null ? null : object.getEncoded();
+    }
+
+    public int size() {
+        return objects.size();
+    }
+
+    /**
+     * @return the SHA-256 hashes of the encoded objects by file name, ready to be added to a manifest.
+     */
+    public SortedMap<String, byte[]> getManifestEntries() {
+        SortedMap<String, byte[]> result = new TreeMap<>();
+        objects.forEach((fileName, object) -> result.put(fileName, ManifestCms.hashContents(object.getEncoded())));
+        return result;
+    }
+}
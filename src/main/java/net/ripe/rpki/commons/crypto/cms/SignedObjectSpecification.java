@@ -0,0 +1,101 @@
+package net.ripe.rpki.commons.crypto.cms;
+
+import lombok.Getter;
+import net.ripe.ipresource.Asn;
+import net.ripe.ipresource.IpResourceSet;
+import net.ripe.ipresource.IpResourceType;
+import net.ripe.rpki.commons.crypto.cms.manifest.ManifestCmsBuilder;
+import net.ripe.rpki.commons.crypto.cms.roa.RoaCmsBuilder;
+import net.ripe.rpki.commons.crypto.cms.roa.RoaPrefix;
+import net.ripe.rpki.commons.crypto.x509cert.X509ResourceCertificate;
+import org.apache.commons.lang3.Validate;
+
+import java.math.BigInteger;
+import java.security.PrivateKey;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Specification of a single signed object to be issued by the {@link RpkiSignedObjectBatchIssuer}.
+ */
+@Getter
+public final class SignedObjectSpecification {
+
+    /**
+     * Creates the signed object once its one-time-use EE certificate has been issued.
+     */
+    public interface SignedObjectFactory {
+        RpkiSignedObject build(X509ResourceCertificate eeCertificate, PrivateKey eePrivateKey, String signatureProvider);
+    }
+
+    private final String fileName;
+    private final BigInteger eeCertificateSerial;
+    private final IpResourceSet resources;
+    private final EnumSet<IpResourceType> inheritedResourceTypes;
+    private final SignedObjectFactory factory;
+
+    /**
+     * @param fileName               the file name of the object in the publication directory.
+     * @param eeCertificateSerial    the serial number of the EE certificate.
+     * @param resources              the resources of the EE certificate.
+     * @param inheritedResourceTypes the resource types the EE certificate inherits.
+     * @param factory                creates the signed object using the EE certificate and key.
+     */
+    public SignedObjectSpecification(String fileName, BigInteger eeCertificateSerial, IpResourceSet resources, EnumSet<IpResourceType> inheritedResourceTypes, SignedObjectFactory factory) {
+        Validate.notBlank(fileName, "fileName is required");
+        this.fileName = fileName;
+        this.eeCertificateSerial = requireNonNull(eeCertificateSerial, "eeCertificateSerial is required");
+        this.resources = new IpResourceSet(requireNonNull(resources, "resources are required"));
+        this.inheritedResourceTypes = EnumSet.copyOf(requireNonNull(inheritedResourceTypes, "inheritedResourceTypes are required"));
+        this.factory = requireNonNull(factory, "factory is required");
+    }
+
+    public IpResourceSet getResources() {
+        return new IpResourceSet(resources);
+    }
+
+    public EnumSet<IpResourceType> getInheritedResourceTypes() {
+        return EnumSet.copyOf(inheritedResourceTypes);
+    }
+
+    /**
+     * A ROA, with an EE certificate holding exactly the resources of the prefixes.
+     */
+    public static SignedObjectSpecification roa(String fileName, BigInteger eeCertificateSerial, Asn asn, List<RoaPrefix> prefixes) {
+        IpResourceSet resources = new IpResourceSet();
+        for (RoaPrefix prefix : prefixes) {
+            resources.add(prefix.getPrefix());
+        }
+        List<RoaPrefix> roaPrefixes = new ArrayList<>(prefixes);
+        return new SignedObjectSpecification(fileName, eeCertificateSerial, resources, EnumSet.noneOf(IpResourceType.class),
+                (eeCertificate, eePrivateKey, signatureProvider) -> new RoaCmsBuilder()
+                        .withCertificate(eeCertificate)
+                        .withAsn(asn)
+                        .withPrefixes(roaPrefixes)
+                        .withSignatureProvider(signatureProvider)
+                        .build(eePrivateKey));
+    }
+
+    /**
+     * A manifest, with an EE certificate inheriting all resources. The manifest this and next update times are
+     * taken from the validity period of the EE certificate.
+     */
+    public static SignedObjectSpecification manifest(String fileName, BigInteger eeCertificateSerial, BigInteger manifestNumber, Map<String, byte[]> fileHashes) {
+        Map<String, byte[]> files = new TreeMap<>(fileHashes);
+        return new SignedObjectSpecification(fileName, eeCertificateSerial, new IpResourceSet(), EnumSet.allOf(IpResourceType.class),
+                (eeCertificate, eePrivateKey, signatureProvider) -> {
+                    ManifestCmsBuilder builder = new ManifestCmsBuilder()
+                            .withCertificate(eeCertificate)
+                            .withManifestNumber(manifestNumber)
+                            .withValidityPeriod(eeCertificate.getValidityPeriod())
+                            .withSignatureProvider(signatureProvider);
+                    files.forEach(builder::addFileHash);
+                    return builder.build(eePrivateKey);
+                });
+    }
+}
@@ -0,0 +1,151 @@
+package net.ripe.rpki.commons.crypto.cms.manifest;
+
+import net.ripe.rpki.commons.crypto.ValidityPeriod;
+import net.ripe.rpki.commons.crypto.cms.RpkiSignedObjectBuilder;
+import net.ripe.rpki.commons.crypto.util.Asn1Util;
+import net.ripe.rpki.commons.crypto.x509cert.X509CertificateBuilderHelper;
+import net.ripe.rpki.commons.crypto.x509cert.X509ResourceCertificate;
+import net.ripe.rpki.commons.validation.ValidationResult;
+import org.apache.commons.lang3.Validate;
+import org.bouncycastle.asn1.ASN1Encodable;
+import org.bouncycastle.asn1.ASN1GeneralizedTime;
+import org.bouncycastle.asn1.ASN1Integer;
+import org.bouncycastle.asn1.ASN1ObjectIdentifier;
+import org.bouncycastle.asn1.DERBitString;
+import org.bouncycastle.asn1.DERIA5String;
+import org.bouncycastle.asn1.DERSequence;
+
+import java.math.BigInteger;
+import java.security.PrivateKey;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Builds successive versions of a manifest starting from a previously issued manifest.
+ *
+ * Unlike {@link ManifestCmsBuilder}, the file list entries are kept in their DER encoded form. Only added or changed
+ * files are hashed and encoded, unchanged entries are copied into the new file list as is. The manifest number
+ * defaults to the number of the previous manifest plus one. A new EE certificate and validity period must be set for
+ * every new manifest.
+ *
+ * Every successful {@link #build(PrivateKey)} becomes the starting point for the next manifest, so a single builder can
+ * be kept per CA and reused for every republication.
+ */
+public class IncrementalManifestCmsBuilder extends RpkiSignedObjectBuilder {
+
+    private final NavigableMap<String, byte[]> hashes = new TreeMap<>();
+    private final NavigableMap<String, byte[]> encodedEntries = new TreeMap<>();
+
+    private BigInteger previousNumber;
+    private BigInteger number;
+    private X509ResourceCertificate certificate;
+    private ValidityPeriod validityPeriod;
+    private String signatureProvider = X509CertificateBuilderHelper.DEFAULT_SIGNATURE_PROVIDER;
+
+    public IncrementalManifestCmsBuilder(ManifestCms previous) {
+        requireNonNull(previous, "previous manifest is required");
+        Validate.isTrue(ManifestCms.FILE_HASH_ALGORITHM.equals(previous.getFileHashAlgorithm()), "unsupported file hash algorithm %s", previous.getFileHashAlgorithm());
+        this.previousNumber = previous.getNumber();
+        for (Map.Entry<String, byte[]> entry : previous.getHashes().entrySet()) {
+            putFileHash(entry.getKey(), entry.getValue());
+        }
+    }
+
+    public IncrementalManifestCmsBuilder withCertificate(X509ResourceCertificate signingCertificate) {
+        this.certificate = signingCertificate;
+        return this;
+    }
+
+    /**
+     * Default: the number of the previous manifest plus one.
+     */
+    public IncrementalManifestCmsBuilder withManifestNumber(BigInteger number) {
+        Validate.isTrue(number.compareTo(previousNumber) > 0, "manifest number must be greater than previous manifest number %s", previousNumber);
+        this.number = number;
+        return this;
+    }
+
+    public IncrementalManifestCmsBuilder withValidityPeriod(ValidityPeriod validityPeriod) {
+        this.validityPeriod = validityPeriod;
+        return this;
+    }
+
+    public IncrementalManifestCmsBuilder withSignatureProvider(String signatureProvider) {
+        this.signatureProvider = signatureProvider;
+        return this;
+    }
+
+    /**
+     * Adds a new file or replaces the contents of an existing file.
+     */
+    public IncrementalManifestCmsBuilder putFile(String fileName, byte[] contents) {
+        return putFileHash(fileName, ManifestCms.hashContents(contents));
+    }
+
+    /**
+     * Adds a new file or replaces the hash of an existing file. Nothing is re-encoded when the hash is unchanged.
+     */
+    public IncrementalManifestCmsBuilder putFileHash(String fileName, byte[] hash) {
+        Validate.isTrue(hash != null && hash.length == 32, "Hash must be 32 bytes");
+        byte[] previous = hashes.get(fileName);
+        if (previous == null || !Arrays.equals(previous, hash)) {
+            byte[] copy = hash.clone();
+            hashes.put(fileName, copy);
+            encodedEntries.put(fileName, Asn1Util.encode(encodeFileAndHash(fileName, copy)));
+        }
+        return this;
+    }
+
+    /**
+     * @return true if the manifest contained the file.
+     */
+    public boolean removeFile(String fileName) {
+        encodedEntries.remove(fileName);
+        return hashes.remove(fileName) != null;
+    }
+
+    public boolean containsFile(String fileName) {
+        return hashes.containsKey(fileName);
+    }
+
+    public int getNumberOfFiles() {
+        return hashes.size();
+    }
+
+    public ManifestCms build(PrivateKey privateKey) {
+        requireNonNull(certificate, "certificate is required");
+        requireNonNull(validityPeriod, "validityPeriod is required");
+        BigInteger manifestNumber = number != null ? number : previousNumber.add(BigInteger.ONE);
+
+        ManifestCmsParser parser = new ManifestCmsParser();
+        parser.parse(ValidationResult.withLocation("unknown.mft"), generateCms(certificate.getCertificate(), privateKey, signatureProvider, ManifestCms.CONTENT_TYPE, encodeManifest(manifestNumber)));
+        ManifestCms result = parser.getManifestCms();
+
+        previousNumber = manifestNumber;
+        number = null;
+        certificate = null;
+        return result;
+    }
+
+    private static ASN1Encodable encodeFileAndHash(String fileName, byte[] hash) {
+        ASN1Encodable[] seq = {new DERIA5String(fileName, true), new DERBitString(hash)};
+        return new DERSequence(seq);
+    }
+
+    /**
+     * Same encoding as {@link ManifestCmsBuilder#encodeManifest()}, with the file list assembled from the encoded
+     * entries.
+     */
+    private byte[] encodeManifest(BigInteger manifestNumber) {
+        return Asn1Util.encodeSequence(
+                Asn1Util.encode(new ASN1Integer(manifestNumber)),
+                Asn1Util.encode(new ASN1GeneralizedTime(validityPeriod.getNotValidBefore().toDate())),
+                Asn1Util.encode(new ASN1GeneralizedTime(validityPeriod.getNotValidAfter().toDate())),
+                Asn1Util.encode(new ASN1ObjectIdentifier(ManifestCms.FILE_HASH_ALGORITHM)),
+                Asn1Util.encodeSequence(encodedEntries.values()));
+    }
+}
@@ -1,5 +1,6 @@
 package net.ripe.rpki.commons.crypto.cms.manifest;
 
+import com.google.common.collect.Maps;
 import com.google.common.net.UrlEscapers;
 import net.ripe.rpki.commons.crypto.cms.RpkiSignedObject;
 import net.ripe.rpki.commons.crypto.cms.RpkiSignedObjectInfo;
@@ -15,19 +16,25 @@ import org.apache.commons.lang3.builder.ToStringBuilder;
 import org.apache.commons.lang3.builder.ToStringStyle;
 import org.bouncycastle.asn1.ASN1ObjectIdentifier;
 import org.bouncycastle.cms.CMSSignedDataGenerator;
-import org.bouncycastle.crypto.Digest;
 import org.bouncycastle.crypto.digests.SHA256Digest;
 import org.joda.time.DateTime;
 
+import java.io.IOException;
 import java.math.BigInteger;
 import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * A manifest of files published by a CA certificate.
@@ -36,7 +43,7 @@ import java.util.stream.Collectors;
  */
 public class ManifestCms extends RpkiSignedObject {
 
-    private static final long serialVersionUID = 1L;
+    private static final long serialVersionUID = 2L;
 
     public static final int DEFAULT_VERSION = 0;
 
@@ -53,14 +60,34 @@ public class ManifestCms extends RpkiSignedObject {
      */
     private static final Pattern FILE_NAME_PATTERN = Pattern.compile("[a-zA-Z0-9_-]+\\.[a-z]{3}");
 
-    private final Map<String, byte[]> hashes;
+    /**
+     * Number of files from which {@link #verifyFileBuffers(Map)} hashes the file contents in parallel.
+     */
+    private static final int PARALLEL_HASHING_THRESHOLD = 64;
+
+    /**
+     * Size of the chunks used to feed buffers without an accessible backing array to the digest.
+     */
+    private static final int HASHING_CHUNK_SIZE = 8192;
+
+    /**
+     * Maximum size of a single memory-mapped region, files larger than this are mapped in multiple regions.
+     */
+    private static final long MAPPED_REGION_SIZE = Integer.MAX_VALUE;
+
+    /**
+     * Digests are not thread-safe but can be reset and reused, so keep one per thread.
+     */
+    private static final ThreadLocal<SHA256Digest> SHA256_DIGEST = ThreadLocal.withInitial(SHA256Digest::new);
+
+    private final ManifestFileHashes hashes;
 
     private final ManifestCmsGeneralInfo manifestCmsGeneralInfo;
 
     ManifestCms(RpkiSignedObjectInfo cmsObjectData, ManifestCmsGeneralInfo manifestCmsGeneralInfo, Map<String, byte[]> hashes) {
         super(cmsObjectData);
         this.manifestCmsGeneralInfo = manifestCmsGeneralInfo;
-        this.hashes = hashes;
+        this.hashes = new ManifestFileHashes(hashes);
     }
 
     public int getVersion() {
@@ -88,11 +115,14 @@ public class ManifestCms extends RpkiSignedObject {
     }
 
     public boolean containsFile(String fileName) {
-        return hashes.containsKey(fileName);
+        return hashes.contains(fileName);
     }
 
+    /**
+     * @return an unmodifiable view of the manifest entries in file name order. The hashes are copied on access.
+     */
     public Map<String, byte[]> getHashes() {
-        return hashes;
+        return hashes.asMap();
     }
 
     public Map<String, byte[]> getFiles() {
@@ -104,22 +134,53 @@ public class ManifestCms extends RpkiSignedObject {
         //   * The file names are unique (implied by hashes being a Map),
         //   * The manifest and the set of files contain the same file names, and
         //   * For each file, the hash of the content matches the hash on the manifest.
-        if (hashes.keySet().equals(filesToMatch.keySet())) {
-            for (Entry<String, byte[]> entry : hashes.entrySet()) {
-                String fileName = entry.getKey();
-                byte[] contentToMatch = filesToMatch.get(fileName);
-                if (!verifyFileContents(fileName, contentToMatch)) {
-                    return false;
-                }
-            }
-            return true;
-        } else {
-            return false;
+        return getFileNames().equals(filesToMatch.keySet()) && verifyFiles(filesToMatch).isMatch();
+    }
+
+    /**
+     * Reconciles the entries of this manifest with the given files.
+     *
+     * @param filesToMatch the file contents, keyed by file name.
+     * @return the missing, extra and mismatched files.
+     * @see #verifyFileBuffers(Map)
+     */
+    public ManifestFileVerification verifyFiles(Map<String, byte[]> filesToMatch) {
+        return verifyFileBuffers(Maps.transformValues(filesToMatch, contents -> contents == null ? null : ByteBuffer.wrap(contents)));
+    }
+
+    /**
+     * Reconciles the entries of this manifest with the given files. The remaining bytes of each buffer are hashed,
+     * the buffer positions are not modified. Direct and memory-mapped buffers are hashed without copying their
+     * content to the heap as a whole.
+     *
+     * Large file sets are hashed in parallel on the common fork-join pool.
+     *
+     * @param filesToMatch the file contents, keyed by file name.
+     * @return the missing, extra and mismatched files.
+     */
+    public ManifestFileVerification verifyFileBuffers(Map<String, ByteBuffer> filesToMatch) {
+        SortedSet<String> missing = new TreeSet<>();
+        SortedSet<String> common = new TreeSet<>();
+        for (String fileName : getFileNames()) {
+            (filesToMatch.containsKey(fileName) ? common : missing).add(fileName);
         }
+        SortedSet<String> extra = filesToMatch.keySet().stream()
+                .filter(fileName -> !hashes.contains(fileName))
+                .collect(Collectors.toCollection(TreeSet::new));
+
+        Stream<String> toHash = common.size() >= PARALLEL_HASHING_THRESHOLD ? common.parallelStream() : common.stream();
+        SortedSet<String> mismatched = toHash
+                .filter(fileName -> {
+                    ByteBuffer contents = filesToMatch.get(fileName);
+                    return contents == null || !hashes.hashMatches(fileName, hashContents(contents));
+                })
+                .collect(Collectors.toCollection(TreeSet::new));
+
+        return new ManifestFileVerification(missing, extra, mismatched);
     }
 
     public Set<String> getFileNames() {
-        return hashes.keySet();
+        return hashes.asMap().keySet();
     }
 
     @Override
@@ -171,21 +232,90 @@ public class ManifestCms extends RpkiSignedObject {
      */
     @Deprecated
     public byte[] getHash(String fileName) {
-        return hashes.get(fileName);
+        return hashes.getHash(fileName);
     }
 
     public boolean verifyFileContents(String fileName, byte[] contents) {
         return getFileContentSpecification(fileName).isSatisfiedBy(contents);
     }
 
+    public boolean verifyFileContents(String fileName, ByteBuffer contents) {
+        return getFileContentSpecification(fileName).isSatisfiedBy(contents);
+    }
+
+    public boolean verifyFileContents(String fileName, FileChannel channel) throws IOException {
+        return getFileContentSpecification(fileName).isSatisfiedBy(channel);
+    }
+
+    public boolean verifyFileContents(String fileName, Path file) throws IOException {
+        return getFileContentSpecification(fileName).isSatisfiedBy(file);
+    }
+
     public FileContentSpecification getFileContentSpecification(String fileName) {
         Validate.isTrue(containsFile(fileName));
         return new FileContentSpecification(getHash(fileName));
     }
 
     public static byte[] hashContents(byte[] contents) {
-        final Digest digest = new SHA256Digest();
+        final SHA256Digest digest = SHA256_DIGEST.get();
         digest.update(contents, 0, contents.length);
+        return finish(digest);
+    }
+
+    /**
+     * Hashes the remaining bytes of the buffer, without modifying its position.
+     */
+    public static byte[] hashContents(ByteBuffer contents) {
+        final SHA256Digest digest = SHA256_DIGEST.get();
+        update(digest, contents);
+        return finish(digest);
+    }
+
+    /**
+     * Hashes the complete contents of the channel by memory-mapping it, so the file contents are not copied to the
+     * heap. The position of the channel is not modified.
+     */
+    public static byte[] hashContents(FileChannel channel) throws IOException {
+        final SHA256Digest digest = SHA256_DIGEST.get();
+        try {
+            final long size = channel.size();
+            for (long position = 0; position < size; position += MAPPED_REGION_SIZE) {
+                update(digest, channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(MAPPED_REGION_SIZE, size - position)));
+            }
+        } catch (IOException | RuntimeException e) {
+            digest.reset();
+            throw e;
+        }
+        return finish(digest);
+    }
+
+    /**
+     * Hashes the complete contents of the file.
+     *
+     * @see #hashContents(FileChannel)
+     */
+    public static byte[] hashContents(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return hashContents(channel);
+        }
+    }
+
+    private static void update(SHA256Digest digest, ByteBuffer contents) {
+        final ByteBuffer buffer = contents.duplicate();
+        if (buffer.hasArray()) {
+            digest.update(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+        } else {
+            final byte[] chunk = new byte[Math.min(buffer.remaining(), HASHING_CHUNK_SIZE)];
+            while (buffer.hasRemaining()) {
+                int length = Math.min(buffer.remaining(), chunk.length);
+                buffer.get(chunk, 0, length);
+                digest.update(chunk, 0, length);
+            }
+        }
+    }
+
+    private static byte[] finish(SHA256Digest digest) {
+        // doFinal resets the digest, so it can be reused by the next call on this thread
         final byte[] digestValue = new byte[digest.getDigestSize()];
         digest.doFinal(digestValue, 0);
         return digestValue;
@@ -207,6 +337,30 @@ public class ManifestCms extends RpkiSignedObject {
             return Arrays.equals(hash, hashContents(contents));
         }
 
+        /**
+         * @param contents the buffer to test, its remaining bytes are hashed without modifying its position.
+         * @return true if the hash of the contents matches.
+         */
+        public boolean isSatisfiedBy(ByteBuffer contents) {
+            return Arrays.equals(hash, hashContents(contents));
+        }
+
+        /**
+         * @param channel the channel to test, its contents are memory-mapped rather than read into the heap.
+         * @return true if the hash of the contents matches.
+         */
+        public boolean isSatisfiedBy(FileChannel channel) throws IOException {
+            return Arrays.equals(hash, hashContents(channel));
+        }
+
+        /**
+         * @param file the file to test, its contents are memory-mapped rather than read into the heap.
+         * @return true if the hash of the contents matches.
+         */
+        public boolean isSatisfiedBy(Path file) throws IOException {
+            return Arrays.equals(hash, hashContents(file));
+        }
+
         @Override
         public int hashCode() {
             final int prime = 31;
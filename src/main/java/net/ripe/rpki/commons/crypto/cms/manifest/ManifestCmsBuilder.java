@@ -6,6 +6,7 @@ import net.ripe.rpki.commons.crypto.util.Asn1Util;
 import net.ripe.rpki.commons.crypto.x509cert.X509CertificateBuilderHelper;
 import net.ripe.rpki.commons.crypto.x509cert.X509ResourceCertificate;
 import net.ripe.rpki.commons.validation.ValidationResult;
+import org.apache.commons.lang3.Validate;
 import org.bouncycastle.asn1.ASN1Encodable;
 import org.bouncycastle.asn1.ASN1EncodableVector;
 import org.bouncycastle.asn1.ASN1GeneralizedTime;
@@ -16,6 +17,8 @@ import org.bouncycastle.asn1.DERIA5String;
 import org.bouncycastle.asn1.DERSequence;
 import org.joda.time.DateTime;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.math.BigInteger;
 import java.security.PrivateKey;
 import java.util.Map;
@@ -79,12 +82,31 @@ public class ManifestCmsBuilder extends RpkiSignedObjectBuilder {
     }
 
     public ManifestCms build(PrivateKey privateKey) {
+        validateFields(privateKey);
         String location = "unknown.mft";
         ManifestCmsParser parser = new ManifestCmsParser();
         parser.parse(ValidationResult.withLocation(location), generateCms(certificate.getCertificate(), privateKey, signatureProvider, ManifestCms.CONTENT_TYPE, encodeManifest()));
         return parser.getManifestCms();
     }
 
+    /**
+     * Writes the DER encoded manifest to the output stream, without parsing it back into a {@link ManifestCms}.
+     * The stream is not closed.
+     */
+    public void writeTo(PrivateKey privateKey, OutputStream out) throws IOException {
+        validateFields(privateKey);
+        Validate.notNull(out, "output stream is required");
+        writeCms(certificate.getCertificate(), privateKey, signatureProvider, ManifestCms.CONTENT_TYPE, encodeManifest(), out);
+    }
+
+    private void validateFields(PrivateKey privateKey) {
+        Validate.notNull(certificate, "certificate is required");
+        Validate.notNull(privateKey, "private key is required");
+        Validate.notNull(number, "manifest number is required");
+        Validate.notNull(thisUpdateTime, "this update time is required");
+        Validate.notNull(nextUpdateTime, "next update time is required");
+    }
+
     public void addFile(String fileName, byte[] contents) {
         byte[] digestValue = ManifestCms.hashContents(contents);
         files.put(fileName, digestValue);
@@ -0,0 +1,195 @@
+package net.ripe.rpki.commons.crypto.cms.manifest;
+
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Compact, immutable storage of the file name to hash entries of a manifest.
+ *
+ * The file names are kept sorted in a single table of interned strings and all hashes are stored back-to-back in a
+ * single array, so no map nodes or separate hash arrays are retained per entry. Entries are found using binary search
+ * on the file names.
+ */
+final class ManifestFileHashes implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String[] fileNames;
+
+    private final byte[] hashes;
+
+    /**
+     * The length of every hash, or -1 when the hashes differ in length and {@link #offsets} is used instead.
+     */
+    private final int hashLength;
+
+    /**
+     * Start of the hash of entry <code>i</code> at <code>offsets[i]</code> and its end at <code>offsets[i + 1]</code>.
+     * Only present for (malformed) manifests where the hashes differ in length.
+     */
+    private final int[] offsets;
+
+    private transient Map<String, byte[]> view;
+
+    ManifestFileHashes(Map<String, byte[]> files) {
+        TreeMap<String, byte[]> sorted = new TreeMap<>(files);
+        int size = sorted.size();
+        int totalLength = 0;
+        int commonLength = size == 0 ? 0 : sorted.firstEntry().getValue().length;
+        for (byte[] hash : sorted.values()) {
+            totalLength += hash.length;
+            if (hash.length != commonLength) {
+                commonLength = -1;
+            }
+        }
+
+        this.fileNames = new String[size];
+        this.hashes = new byte[totalLength];
+        this.hashLength = commonLength;
+        this.offsets = commonLength < 0 ? new int[size + 1] : null;
+
+        int i = 0;
+        int offset = 0;
+        for (Map.Entry<String, byte[]> entry : sorted.entrySet()) {
+            byte[] hash = entry.getValue();
+            fileNames[i] = entry.getKey().intern();
+            System.arraycopy(hash, 0, hashes, offset, hash.length);
+            if (offsets != null) {
+                offsets[i] = offset;
+            }
+            offset += hash.length;
+            i++;
+        }
+        if (offsets != null) {
+            offsets[size] = offset;
+        }
+    }
+
+    int size() {
+        return fileNames.length;
+    }
+
+    boolean contains(Object fileName) {
+        return indexOf(fileName) >= 0;
+    }
+
+    /**
+     * @return a copy of the hash for the file, or null when the file is not on the manifest.
+     */
+    byte[] getHash(Object fileName) {
+        int index = indexOf(fileName);
+        return index < 0 ? null : hashAt(index);
+    }
+
+    /**
+     * @return true when the file is on the manifest with the given hash, without copying the stored hash.
+     */
+    boolean hashMatches(String fileName, byte[] hash) {
+        int index = indexOf(fileName);
+        return index >= 0 && Arrays.equals(hashes, start(index), end(index), hash, 0, hash.length);
+    }
+
+    /**
+     * @return an unmodifiable map view of the entries, iterating in file name order. Hashes are copied on access.
+     */
+    Map<String, byte[]> asMap() {
+        Map<String, byte[]> result = view;
+        if (result == null) {
+            result = view = new HashesView();
+        }
+        return result;
+    }
+
+    private int indexOf(Object fileName) {
+        return fileName instanceof String ? Math.max(-1, Arrays.binarySearch(fileNames, fileName)) : -1;
+    }
+
+    private int start(int index) {
+        return offsets == null ? index * hashLength : offsets[index];
+    }
+
+    private int end(int index) {
+        return offsets == null ? (index + 1) * hashLength : offsets[index + 1];
+    }
+
+    private byte[] hashAt(int index) {
+        return Arrays.copyOfRange(hashes, start(index), end(index));
+    }
+
+    private final class HashesView extends AbstractMap<String, byte[]> {
+
+        @Override
+        public int size() {
+            return fileNames.length;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return contains(key);
+        }
+
+        @Override
+        public byte[] get(Object key) {
+            return getHash(key);
+        }
+
+        @Override
+        public Set<String> keySet() {
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<String> iterator() {
+                    return Arrays.asList(fileNames).iterator();
+                }
+
+                @Override
+                public int size() {
+                    return fileNames.length;
+                }
+
+                @Override
+                public boolean contains(Object o) {
+                    return ManifestFileHashes.this.contains(o);
+                }
+            };
+        }
+
+        @Override
+        public Set<Entry<String, byte[]>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<Entry<String, byte[]>> iterator() {
+                    return new Iterator<>() {
+                        private int index = 0;
+
+                        @Override
+                        public boolean hasNext() {
+                            return index < fileNames.length;
+                        }
+
+                        @Override
+                        public Entry<String, byte[]> next() {
+                            if (!hasNext()) {
+                                throw new NoSuchElementException();
+                            }
+                            Entry<String, byte[]> entry = new SimpleImmutableEntry<>(fileNames[index], hashAt(index));
+                            index++;
+                            return entry;
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return fileNames.length;
+                }
+            };
+        }
+    }
+}
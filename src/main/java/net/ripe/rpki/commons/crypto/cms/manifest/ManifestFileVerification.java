@@ -0,0 +1,45 @@
+package net.ripe.rpki.commons.crypto.cms.manifest;
+
+import lombok.Value;
+
+import java.util.Collections;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+/**
+ * Outcome of reconciling the entries of a {@link ManifestCms} with a set of files.
+ *
+ * Use {@link ManifestCms#verifyFiles(java.util.Map)} or {@link ManifestCms#verifyFileBuffers(java.util.Map)} to
+ * construct this object.
+ */
+@Value
+public class ManifestFileVerification {
+
+    /**
+     * File names listed on the manifest that are not present in the verified files.
+     */
+    SortedSet<String> missingFiles;
+
+    /**
+     * File names present in the verified files that are not listed on the manifest.
+     */
+    SortedSet<String> extraFiles;
+
+    /**
+     * File names present in both, but where the hash of the content does not match the hash on the manifest.
+     */
+    SortedSet<String> mismatchedFiles;
+
+    ManifestFileVerification(SortedSet<String> missingFiles, SortedSet<String> extraFiles, SortedSet<String> mismatchedFiles) {
+        this.missingFiles = Collections.unmodifiableSortedSet(new TreeSet<>(missingFiles));
+        this.extraFiles = Collections.unmodifiableSortedSet(new TreeSet<>(extraFiles));
+        this.mismatchedFiles = Collections.unmodifiableSortedSet(new TreeSet<>(mismatchedFiles));
+    }
+
+    /**
+     * @return true when the verified files contain exactly the files on the manifest, all with matching content.
+     */
+    public boolean isMatch() {
+        return missingFiles.isEmpty() && extraFiles.isEmpty() && mismatchedFiles.isEmpty();
+    }
+}
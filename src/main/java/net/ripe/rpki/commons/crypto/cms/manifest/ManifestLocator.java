@@ -0,0 +1,12 @@
+package net.ripe.rpki.commons.crypto.cms.manifest;
+
+import net.ripe.rpki.commons.validation.ValidationResult;
+import net.ripe.rpki.commons.validation.objectvalidators.CertificateRepositoryObjectValidationContext;
+
+import java.net.URI;
+
+
+public interface ManifestLocator {
+
+    ManifestCms getManifest(URI uri, CertificateRepositoryObjectValidationContext context, ValidationResult result);
+}
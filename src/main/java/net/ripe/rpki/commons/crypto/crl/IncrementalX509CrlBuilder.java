@@ -0,0 +1,188 @@
+package net.ripe.rpki.commons.crypto.crl;
+
+import net.ripe.rpki.commons.crypto.ValidityPeriod;
+import net.ripe.rpki.commons.crypto.util.Asn1Util;
+import net.ripe.rpki.commons.crypto.util.CachingContentSignerFactory;
+import net.ripe.rpki.commons.crypto.util.ContentSignerFactory;
+import net.ripe.rpki.commons.crypto.x509cert.X509CertificateBuilderHelper;
+import org.apache.commons.lang3.Validate;
+import org.bouncycastle.asn1.ASN1EncodableVector;
+import org.bouncycastle.asn1.ASN1Encoding;
+import org.bouncycastle.asn1.ASN1Integer;
+import org.bouncycastle.asn1.DERBitString;
+import org.bouncycastle.asn1.DERSequence;
+import org.bouncycastle.asn1.DERTaggedObject;
+import org.bouncycastle.asn1.x509.CRLNumber;
+import org.bouncycastle.asn1.x509.CertificateList;
+import org.bouncycastle.asn1.x509.Extension;
+import org.bouncycastle.asn1.x509.Extensions;
+import org.bouncycastle.asn1.x509.TBSCertList;
+import org.bouncycastle.asn1.x509.Time;
+import org.bouncycastle.operator.ContentSigner;
+import org.bouncycastle.operator.OperatorCreationException;
+import org.joda.time.DateTime;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigInteger;
+import java.security.PrivateKey;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Builds successive versions of a CRL starting from a previously issued CRL.
+ *
+ * Unlike {@link X509CrlBuilder}, the revoked certificate entries are kept in their DER encoded form. Adding or
+ * removing an entry only encodes or drops that entry, and building a new CRL copies the encoded entries into the
+ * TBSCertList and signs it. The issuer and authority key identifier are taken from the previous CRL. The CRL number
+ * and validity period must be set for every new CRL.
+ *
+ * Every successful {@link #build(PrivateKey)} becomes the starting point for the next CRL, so a single builder can be
+ * kept per CA and reused for every republication.
+ */
+public class IncrementalX509CrlBuilder {
+
+    private static final ASN1Integer VERSION_2 = new ASN1Integer(X509CrlBuilder.CRL_VERSION_2 - 1);
+
+    private final byte[] encodedIssuer;
+    private final Extension authorityKeyIdentifier;
+    private final NavigableMap<BigInteger, byte[]> encodedEntries = new TreeMap<>();
+
+    private BigInteger previousNumber;
+    private BigInteger crlNumber;
+    private ValidityPeriod validityPeriod;
+    private String signatureProvider = X509CertificateBuilderHelper.DEFAULT_SIGNATURE_PROVIDER;
+    private ContentSignerFactory contentSignerFactory = ContentSignerFactory.jca();
+
+    public IncrementalX509CrlBuilder(X509Crl previous) {
+        requireNonNull(previous, "previous CRL is required");
+        TBSCertList tbsCertList = CertificateList.getInstance(previous.getEncoded()).getTBSCertList();
+        Extensions extensions = tbsCertList.getExtensions();
+        Validate.isTrue(extensions != null && extensions.getExtension(Extension.cRLNumber) != null, "previous CRL has no CRL number");
+        Validate.isTrue(extensions.getExtension(Extension.authorityKeyIdentifier) != null, "previous CRL has no authority key identifier");
+        try {
+            this.encodedIssuer = tbsCertList.getIssuer().getEncoded(ASN1Encoding.DER);
+            this.authorityKeyIdentifier = extensions.getExtension(Extension.authorityKeyIdentifier);
+            this.previousNumber = CRLNumber.getInstance(extensions.getExtension(Extension.cRLNumber).getParsedValue()).getCRLNumber();
+            for (Enumeration<?> e = tbsCertList.getRevokedCertificateEnumeration(); e.hasMoreElements(); ) {
+                TBSCertList.CRLEntry entry = (TBSCertList.CRLEntry) e.nextElement();
+                encodedEntries.put(entry.getUserCertificate().getValue(), entry.getEncoded(ASN1Encoding.DER));
+            }
+        } catch (IOException e) {
+            throw new X509CrlBuilderException(e);
+        }
+    }
+
+    public IncrementalX509CrlBuilder withSignatureProvider(String signatureProvider) {
+        this.signatureProvider = signatureProvider;
+        return this;
+    }
+
+    /**
+     * Default: {@link ContentSignerFactory#jca()}. Use a {@link CachingContentSignerFactory} to reuse initialised
+     * signatures when signing repeatedly with the same key.
+     */
+    public IncrementalX509CrlBuilder withContentSignerFactory(ContentSignerFactory contentSignerFactory) {
+        this.contentSignerFactory = contentSignerFactory;
+        return this;
+    }
+
+    public IncrementalX509CrlBuilder withValidityPeriod(ValidityPeriod validityPeriod) {
+        this.validityPeriod = validityPeriod;
+        return this;
+    }
+
+    /**
+     * CRL number must be greater than the number of the previous CRL and be representable in 20 octets
+     * https://tools.ietf.org/html/rfc5280#section-5.2.3
+     */
+    public IncrementalX509CrlBuilder withNumber(BigInteger number) {
+        if (number.signum() <= 0 || number.abs().bitLength() > 20 * 8) {
+            throw new IllegalArgumentException(number + " CRL number must be positive and be representable by 20 octets or less.");
+        }
+        Validate.isTrue(number.compareTo(previousNumber) > 0, "CRL number must be greater than previous CRL number %s", previousNumber);
+        this.crlNumber = number;
+        return this;
+    }
+
+    public IncrementalX509CrlBuilder addEntry(BigInteger serial, DateTime revocationTime) {
+        Validate.isTrue(!encodedEntries.containsKey(serial), "duplicate CRL entry");
+        try {
+            ASN1EncodableVector entry = new ASN1EncodableVector(2);
+            entry.add(new ASN1Integer(serial));
+            entry.add(new Time(revocationTime.toDate()));
+            encodedEntries.put(serial, new DERSequence(entry).getEncoded(ASN1Encoding.DER));
+        } catch (IOException e) {
+            throw new X509CrlBuilderException(e);
+        }
+        return this;
+    }
+
+    /**
+     * Removes the entry, typically because the revoked certificate has expired.
+     *
+     * @return true if the CRL contained an entry for the serial.
+     */
+    public boolean removeEntry(BigInteger serial) {
+        return encodedEntries.remove(serial) != null;
+    }
+
+    public IncrementalX509CrlBuilder removeEntries(Collection<BigInteger> serials) {
+        serials.forEach(this::removeEntry);
+        return this;
+    }
+
+    public boolean containsEntry(BigInteger serial) {
+        return encodedEntries.containsKey(serial);
+    }
+
+    public int getNumberOfEntries() {
+        return encodedEntries.size();
+    }
+
+    public X509Crl build(PrivateKey key) {
+        requireNonNull(crlNumber, "crlNumber is null");
+        requireNonNull(validityPeriod, "validityPeriod is null");
+        try {
+            ContentSigner signer = contentSignerFactory.getContentSigner(X509CertificateBuilderHelper.DEFAULT_SIGNATURE_ALGORITHM, signatureProvider, key);
+            byte[] tbsCertList = encodeTbsCertList(signer);
+            try (OutputStream out = signer.getOutputStream()) {
+                out.write(tbsCertList);
+            }
+            byte[] signatureAlgorithm = signer.getAlgorithmIdentifier().getEncoded(ASN1Encoding.DER);
+            byte[] signature = new DERBitString(signer.getSignature()).getEncoded(ASN1Encoding.DER);
+
+            X509Crl result = new X509Crl(Asn1Util.encodeSequence(tbsCertList, signatureAlgorithm, signature));
+            previousNumber = crlNumber;
+            crlNumber = null;
+            return result;
+        } catch (OperatorCreationException | IOException e) {
+            throw new X509CrlBuilderException(e);
+        }
+    }
+
+    private byte[] encodeTbsCertList(ContentSigner signer) throws IOException {
+        ASN1EncodableVector extensions = new ASN1EncodableVector(2);
+        extensions.add(authorityKeyIdentifier);
+        extensions.add(new Extension(Extension.cRLNumber, false, new CRLNumber(crlNumber).getEncoded(ASN1Encoding.DER)));
+
+        List<byte[]> fields = new ArrayList<>(7);
+        fields.add(VERSION_2.getEncoded(ASN1Encoding.DER));
+        fields.add(signer.getAlgorithmIdentifier().getEncoded(ASN1Encoding.DER));
+        fields.add(encodedIssuer);
+        fields.add(new Time(validityPeriod.getNotValidBefore().toDate()).getEncoded(ASN1Encoding.DER));
+        fields.add(new Time(validityPeriod.getNotValidAfter().toDate()).getEncoded(ASN1Encoding.DER));
+        // revokedCertificates is omitted when empty, just like X509v2CRLBuilder does
+        if (!encodedEntries.isEmpty()) {
+            fields.add(Asn1Util.encodeSequence(encodedEntries.values()));
+        }
+        fields.add(new DERTaggedObject(true, 0, new DERSequence(extensions)).getEncoded(ASN1Encoding.DER));
+        return Asn1Util.encodeSequence(fields);
+    }
+}
@@ -3,6 +3,8 @@ package net.ripe.rpki.commons.crypto.crl;
 import lombok.EqualsAndHashCode;
 import lombok.Value;
 import net.ripe.rpki.commons.crypto.CertificateRepositoryObject;
+import net.ripe.rpki.commons.crypto.util.CertificateFactoryUtil;
+import net.ripe.rpki.commons.crypto.util.JcaInstanceCache;
 import net.ripe.rpki.commons.crypto.x509cert.X509CertificateUtil;
 import net.ripe.rpki.commons.util.UTC;
 import net.ripe.rpki.commons.validation.ValidationOptions;
@@ -15,7 +17,6 @@ import org.bouncycastle.cert.jcajce.JcaX509ExtensionUtils;
 import org.joda.time.DateTime;
 
 import javax.security.auth.x500.X500Principal;
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.Serializable;
 import java.math.BigInteger;
@@ -26,8 +27,6 @@ import java.security.NoSuchProviderException;
 import java.security.PublicKey;
 import java.security.SignatureException;
 import java.security.cert.CRLException;
-import java.security.cert.CertificateException;
-import java.security.cert.CertificateFactory;
 import java.security.cert.X509CRL;
 import java.security.cert.X509CRLEntry;
 import java.security.cert.X509Certificate;
@@ -92,14 +91,9 @@ public class X509Crl implements CertificateRepositoryObject {
             return null;
         }
         try {
-            try (final ByteArrayInputStream in = new ByteArrayInputStream(encoded)) {
-                final CertificateFactory factory = CertificateFactory.getInstance("X.509");
-                return (X509CRL) factory.generateCRL(in);
-            } catch (final CertificateException | CRLException e) {
-                throw new IllegalArgumentException(e);
-            }
-        } catch (final IOException e) {
-            throw new RuntimeException("Error managing CRL I/O stream", e);
+            return CertificateFactoryUtil.decodeCrl(encoded);
+        } catch (final CRLException e) {
+            throw new IllegalArgumentException(e);
         }
     }
 
@@ -224,7 +218,12 @@ public class X509Crl implements CertificateRepositoryObject {
 
     public void verify(PublicKey publicKey) throws SignatureException {
         try {
-            getCrl().verify(publicKey, DEFAULT_SIGNATURE_PROVIDER);
+            X509CRL crl = getCrl();
+            if (crl.getSigAlgParams() != null) {
+                crl.verify(publicKey, DEFAULT_SIGNATURE_PROVIDER);
+            } else {
+                JcaInstanceCache.verify(crl.getSigAlgName(), DEFAULT_SIGNATURE_PROVIDER, publicKey, crl.getTBSCertList(), crl.getSignature());
+            }
         } catch (InvalidKeyException | CRLException | NoSuchAlgorithmException | NoSuchProviderException e) {
             throw new IllegalArgumentException(e);
         }
@@ -5,6 +5,8 @@ import net.ripe.rpki.commons.crypto.ValidityPeriod;
 import net.ripe.rpki.commons.crypto.cms.manifest.ManifestCmsBuilder;
 import net.ripe.rpki.commons.crypto.crl.X509Crl.Entry;
 import net.ripe.rpki.commons.crypto.util.BouncyCastleUtil;
+import net.ripe.rpki.commons.crypto.util.CachingContentSignerFactory;
+import net.ripe.rpki.commons.crypto.util.ContentSignerFactory;
 import net.ripe.rpki.commons.crypto.x509cert.X509CertificateBuilderHelper;
 import org.apache.commons.lang3.Validate;
 import org.bouncycastle.asn1.x500.X500Name;
@@ -15,7 +17,6 @@ import org.bouncycastle.cert.CertIOException;
 import org.bouncycastle.cert.X509v2CRLBuilder;
 import org.bouncycastle.operator.ContentSigner;
 import org.bouncycastle.operator.OperatorCreationException;
-import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
 import org.joda.time.DateTime;
 
 import javax.security.auth.x500.X500Principal;
@@ -41,6 +42,7 @@ public class X509CrlBuilder {
     private AuthorityKeyIdentifier authorityKeyIdentifier;
     private CRLNumber crlNumber;
     private String signatureProvider = X509CertificateBuilderHelper.DEFAULT_SIGNATURE_PROVIDER;
+    private ContentSignerFactory contentSignerFactory = ContentSignerFactory.jca();
 
     private SortedMap<BigInteger, X509Crl.Entry> entries = new TreeMap<BigInteger, X509Crl.Entry>();
 
@@ -50,6 +52,15 @@ public class X509CrlBuilder {
         return this;
     }
 
+    /**
+     * Default: {@link ContentSignerFactory#jca()}. Use a {@link CachingContentSignerFactory} to reuse initialised
+     * signatures when signing repeatedly with the same key.
+     */
+    public X509CrlBuilder withContentSignerFactory(ContentSignerFactory contentSignerFactory) {
+        this.contentSignerFactory = contentSignerFactory;
+        return this;
+    }
+
     public X509CrlBuilder withIssuerDN(X500Principal issuerDN) {
         this.issuerDN = issuerDN;
         return this;
@@ -118,7 +129,7 @@ public class X509CrlBuilder {
         validateCrlFields();
         try {
             X509v2CRLBuilder generator = createCrlGenerator();
-            ContentSigner signer = new JcaContentSignerBuilder(X509CertificateBuilderHelper.DEFAULT_SIGNATURE_ALGORITHM).setProvider(signatureProvider).build(key);
+            ContentSigner signer = contentSignerFactory.getContentSigner(X509CertificateBuilderHelper.DEFAULT_SIGNATURE_ALGORITHM, signatureProvider, key);
             return new X509Crl(generator.build(signer).getEncoded());
         } catch (OperatorCreationException e) {
             throw new X509CrlBuilderException(e);
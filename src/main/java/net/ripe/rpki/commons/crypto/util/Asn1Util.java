@@ -32,6 +32,37 @@ public final class Asn1Util {
         }
     }
 
+    /**
+     * Encodes a DER SEQUENCE of elements that are already DER encoded, without decoding or re-encoding them.
+     */
+    public static byte[] encodeSequence(Iterable<byte[]> encodedElements) {
+        int contentLength = 0;
+        for (byte[] element : encodedElements) {
+            contentLength += element.length;
+        }
+        int lengthOctets = contentLength < 0x80 ? 0 : (Integer.SIZE - Integer.numberOfLeadingZeros(contentLength) + 7) / 8;
+        byte[] result = new byte[2 + lengthOctets + contentLength];
+        int position = 0;
+        result[position++] = BERTags.SEQUENCE | BERTags.CONSTRUCTED;
+        if (lengthOctets == 0) {
+            result[position++] = (byte) contentLength;
+        } else {
+            result[position++] = (byte) (0x80 | lengthOctets);
+            for (int i = lengthOctets - 1; i >= 0; --i) {
+                result[position++] = (byte) (contentLength >>> (8 * i));
+            }
+        }
+        for (byte[] element : encodedElements) {
+            System.arraycopy(element, 0, result, position, element.length);
+            position += element.length;
+        }
+        return result;
+    }
+
+    public static byte[] encodeSequence(byte[]... encodedElements) {
+        return encodeSequence(Arrays.asList(encodedElements));
+    }
+
     public static DERBitString resourceToBitString(UniqueIpResource resource, int bitCount) {
         int resourceTypeByteSize = resource.getType().getBitSize() / Byte.SIZE;
 
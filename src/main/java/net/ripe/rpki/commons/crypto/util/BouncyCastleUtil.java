@@ -6,9 +6,6 @@ import org.bouncycastle.asn1.x509.SubjectKeyIdentifier;
 import org.bouncycastle.asn1.x509.SubjectPublicKeyInfo;
 import org.bouncycastle.cert.X509CRLHolder;
 import org.bouncycastle.cert.X509CertificateHolder;
-import org.bouncycastle.cert.jcajce.JcaX509CRLConverter;
-import org.bouncycastle.cert.jcajce.JcaX509CertificateConverter;
-import org.bouncycastle.cert.jcajce.JcaX509ExtensionUtils;
 import org.bouncycastle.cms.CMSException;
 import org.bouncycastle.cms.CMSSignedDataParser;
 import org.bouncycastle.operator.DigestCalculatorProvider;
@@ -18,10 +15,11 @@ import org.bouncycastle.util.Selector;
 import org.bouncycastle.util.StoreException;
 
 import javax.security.auth.x500.X500Principal;
-import java.security.NoSuchAlgorithmException;
+import java.io.IOException;
 import java.security.PublicKey;
 import java.security.cert.CRLException;
 import java.security.cert.CertificateException;
+import java.security.cert.CertificateParsingException;
 import java.security.cert.X509CRL;
 import java.security.cert.X509Certificate;
 import java.util.ArrayList;
@@ -59,26 +57,12 @@ public final class BouncyCastleUtil {
         }
     }
 
-    /**
-     * NOTE: JcaX509ExtensionUtils is not tread safe.
-     * We always need to get a new instance of it.
-     *
-     * @return a new instance of JcaX509ExtensionUtils
-     */
-    private static JcaX509ExtensionUtils newJcaX509ExtensionUtils() {
-        try {
-            return new JcaX509ExtensionUtils();
-        } catch (NoSuchAlgorithmException e) {
-            throw new RuntimeException(e);
-        }
-    }
-
     public static AuthorityKeyIdentifier createAuthorityKeyIdentifier(PublicKey publicKey) {
-        return newJcaX509ExtensionUtils().createAuthorityKeyIdentifier(publicKey);
+        return new AuthorityKeyIdentifier(KeyPairUtil.getKeyIdentifier(publicKey));
     }
 
     public static SubjectKeyIdentifier createSubjectKeyIdentifier(PublicKey publicKey) {
-        return newJcaX509ExtensionUtils().createSubjectKeyIdentifier(publicKey);
+        return new SubjectKeyIdentifier(KeyPairUtil.getKeyIdentifier(publicKey));
     }
 
     public static X500Name principalToName(X500Principal dn) {
@@ -90,7 +74,11 @@ public final class BouncyCastleUtil {
     }
 
     public static X509Certificate holderToCertificate(X509CertificateHolder holder) throws CertificateException {
-        return new JcaX509CertificateConverter().getCertificate(holder);
+        try {
+            return CertificateFactoryUtil.decodeCertificate(holder.getEncoded());
+        } catch (IOException e) {
+            throw new CertificateParsingException("cannot encode certificate: " + e.getMessage(), e);
+        }
     }
 
     public static List<? extends X509Certificate> extractCertificates(CMSSignedDataParser signedDataParser) throws StoreException, CMSException, CertificateException {
@@ -104,7 +92,11 @@ public final class BouncyCastleUtil {
     }
 
     public static X509CRL holderToCrl(X509CRLHolder holder) throws CRLException {
-        return new JcaX509CRLConverter().getCRL(holder);
+        try {
+            return CertificateFactoryUtil.decodeCrl(holder.getEncoded());
+        } catch (IOException e) {
+            throw new CRLException("cannot encode CRL: " + e.getMessage(), e);
+        }
     }
 
     public static List<? extends X509CRL> extractCrls(CMSSignedDataParser signedDataParser) throws StoreException, CMSException, CRLException {
@@ -0,0 +1,171 @@
+package net.ripe.rpki.commons.crypto.util;
+
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import lombok.Value;
+import org.apache.commons.lang3.Validate;
+import org.bouncycastle.asn1.x509.AlgorithmIdentifier;
+import org.bouncycastle.jcajce.io.OutputStreamFactory;
+import org.bouncycastle.operator.ContentSigner;
+import org.bouncycastle.operator.DefaultSignatureAlgorithmIdentifierFinder;
+import org.bouncycastle.operator.OperatorCreationException;
+import org.bouncycastle.operator.RuntimeOperatorException;
+
+import java.io.OutputStream;
+import java.security.GeneralSecurityException;
+import java.security.PrivateKey;
+import java.security.Signature;
+import java.security.SignatureException;
+import java.time.Duration;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Caches initialised {@link Signature} instances per (algorithm, provider, private key), so signing with the same key
+ * repeatedly does not have to look up the provider and initialise the key for every signature.
+ *
+ * Every key keeps a pool of signatures. A signer borrows a signature from the pool when signing starts and returns it
+ * once the signature is complete, so concurrent signers never share a signature. Signatures of signers that fail
+ * half-way are dropped rather than returned to the pool.
+ *
+ * The cache holds on to the private keys of its entries. It is bounded in size and entries expire when unused for a
+ * while, but use {@link ContentSignerFactory#jca()} if keys must not be kept in memory at all.
+ */
+public class CachingContentSignerFactory implements ContentSignerFactory {
+
+    public static final long DEFAULT_MAXIMUM_SIZE = 1000;
+
+    public static final Duration DEFAULT_EXPIRE_AFTER_ACCESS = Duration.ofMinutes(10);
+
+    private static final CachingContentSignerFactory SHARED = new CachingContentSignerFactory(DEFAULT_MAXIMUM_SIZE);
+
+    private final Cache<SignerKey, SignaturePool> cache;
+
+    /**
+     * @param maximumSize the maximum number of (algorithm, provider, private key) combinations to keep.
+     */
+    public CachingContentSignerFactory(long maximumSize) {
+        Validate.isTrue(maximumSize > 0, "maximumSize must be positive");
+        this.cache = CacheBuilder.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterAccess(DEFAULT_EXPIRE_AFTER_ACCESS)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * @return a factory shared by all callers that opt in to caching, for example with
+     * {@code X509ResourceCertificateBuilder#withContentSignerFactory}.
+     */
+    public static CachingContentSignerFactory shared() {
+        return SHARED;
+    }
+
+    @Override
+    public ContentSigner getContentSigner(String signatureAlgorithm, String signatureProvider, PrivateKey privateKey) throws OperatorCreationException {
+        SignerKey key = new SignerKey(signatureAlgorithm, signatureProvider, privateKey);
+        try {
+            return cache.get(key, () -> new SignaturePool(key)).newContentSigner();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof OperatorCreationException) {
+                throw (OperatorCreationException) e.getCause();
+            }
+            throw new OperatorCreationException("cannot create signer: " + e.getCause().getMessage(), e.getCause());
+        } catch (UncheckedExecutionException e) {
+            Throwables.throwIfUnchecked(e.getCause());
+            throw e;
+        }
+    }
+
+    public long size() {
+        return cache.size();
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    public void clear() {
+        cache.invalidateAll();
+    }
+
+    @Value
+    private static class SignerKey {
+        String signatureAlgorithm;
+        String signatureProvider;
+        PrivateKey privateKey;
+    }
+
+    private static final class SignaturePool {
+        private final SignerKey key;
+        private final AlgorithmIdentifier algorithmIdentifier;
+        private final Queue<Signature> idle = new ConcurrentLinkedQueue<>();
+
+        private SignaturePool(SignerKey key) throws OperatorCreationException {
+            this.key = key;
+            // Throws IllegalArgumentException on an unknown algorithm, just like JcaContentSignerBuilder.
+            this.algorithmIdentifier = new DefaultSignatureAlgorithmIdentifierFinder().find(key.getSignatureAlgorithm());
+            // Fail fast on an unknown provider or unusable key.
+            idle.add(createSignature());
+        }
+
+        private Signature createSignature() throws OperatorCreationException {
+            try {
+                Signature signature = key.getSignatureProvider() == null
+                        ? Signature.getInstance(key.getSignatureAlgorithm())
+                        : Signature.getInstance(key.getSignatureAlgorithm(), key.getSignatureProvider());
+                signature.initSign(key.getPrivateKey());
+                return signature;
+            } catch (GeneralSecurityException e) {
+                throw new OperatorCreationException("cannot create signer: " + e.getMessage(), e);
+            }
+        }
+
+        private Signature borrow() throws OperatorCreationException {
+            Signature signature = idle.poll();
+            return signature != null ? signature : createSignature();
+        }
+
+        private ContentSigner newContentSigner() {
+            return new ContentSigner() {
+                private Signature signature;
+
+                @Override
+                public AlgorithmIdentifier getAlgorithmIdentifier() {
+                    return algorithmIdentifier;
+                }
+
+                @Override
+                public OutputStream getOutputStream() {
+                    if (signature == null) {
+                        try {
+                            signature = borrow();
+                        } catch (OperatorCreationException e) {
+                            throw new RuntimeOperatorException(e.getMessage(), e);
+                        }
+                    }
+                    return OutputStreamFactory.createStream(signature);
+                }
+
+                @Override
+                public byte[] getSignature() {
+                    Validate.validState(signature != null, "nothing to sign");
+                    try {
+                        // Signature.sign() resets the signature for reuse with the same key.
+                        byte[] result = signature.sign();
+                        idle.add(signature);
+                        return result;
+                    } catch (SignatureException e) {
+                        throw new RuntimeOperatorException("exception obtaining signature: " + e.getMessage(), e);
+                    } finally {
+                        signature = null;
+                    }
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package net.ripe.rpki.commons.crypto.util;
+
+import java.io.ByteArrayInputStream;
+import java.security.cert.CRLException;
+import java.security.cert.CertificateException;
+import java.security.cert.CertificateFactory;
+import java.security.cert.X509CRL;
+import java.security.cert.X509Certificate;
+
+/**
+ * Decodes DER encoded X.509 certificates and CRLs.
+ *
+ * Looking up a {@link CertificateFactory} scans the installed security providers, so instead of looking one up for
+ * every certificate or CRL the factory is taken from the {@link JcaInstanceCache} of the current thread.
+ */
+public final class CertificateFactoryUtil {
+
+    private CertificateFactoryUtil() {
+        //Utility classes should not have a public or default constructor.
+    }
+
+    public static X509Certificate decodeCertificate(byte[] encoded) throws CertificateException {
+        return (X509Certificate) x509Factory().generateCertificate(new ByteArrayInputStream(encoded));
+    }
+
+    public static X509CRL decodeCrl(byte[] encoded) throws CRLException {
+        return (X509CRL) x509Factory().generateCRL(new ByteArrayInputStream(encoded));
+    }
+
+    private static CertificateFactory x509Factory() {
+        try {
+            return JcaInstanceCache.getCertificateFactory("X.509");
+        } catch (CertificateException e) {
+            throw new IllegalStateException("System does not support X.509 certificates", e);
+        }
+    }
+}
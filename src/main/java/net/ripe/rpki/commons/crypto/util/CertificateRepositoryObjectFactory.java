@@ -13,6 +13,7 @@ import net.ripe.rpki.commons.crypto.cms.roa.RoaCms;
 import net.ripe.rpki.commons.crypto.cms.roa.RoaCmsParser;
 import net.ripe.rpki.commons.crypto.crl.X509Crl;
 import net.ripe.rpki.commons.crypto.x509cert.X509ResourceCertificate;
+import net.ripe.rpki.commons.crypto.x509cert.X509ResourceCertificateInternPool;
 import net.ripe.rpki.commons.crypto.x509cert.X509ResourceCertificateParser;
 import net.ripe.rpki.commons.util.RepositoryObjectType;
 import net.ripe.rpki.commons.validation.ValidationChecks;
@@ -33,8 +34,19 @@ public final class CertificateRepositoryObjectFactory {
      * @return a parsed {@link CertificateRepositoryObject} or {@code null} in case the encoded object has a valid location
      * but its contents can not be parsed.
      */
-    @SuppressWarnings("fallthrough")
     public static CertificateRepositoryObject createCertificateRepositoryObject(byte[] encoded, ValidationResult validationResult) {
+        return createCertificateRepositoryObject(encoded, validationResult, null);
+    }
+
+    /**
+     * @param encoded the DER encoded object.
+     * @param certificatePool pool used to re-use previously parsed certificates, or {@code null} to always parse.
+     *
+     * @return a parsed {@link CertificateRepositoryObject} or {@code null} in case the encoded object has a valid location
+     * but its contents can not be parsed.
+     */
+    @SuppressWarnings("fallthrough")
+    public static CertificateRepositoryObject createCertificateRepositoryObject(byte[] encoded, ValidationResult validationResult, X509ResourceCertificateInternPool certificatePool) {
 
         RepositoryObjectType objectType = RepositoryObjectType.parse(validationResult.getCurrentLocation().getName());
 
@@ -46,7 +58,9 @@ public final class CertificateRepositoryObjectFactory {
             case Roa:
                 return parseRoa(encoded, validationResult);
             case Certificate:
-                return parseX509Certificate(encoded, validationResult);
+                return certificatePool == null
+                        ? parseX509Certificate(encoded, validationResult)
+                        : certificatePool.parseCertificate(validationResult, encoded);
             case Crl:
                 return parseCrl(encoded, validationResult);
             case Gbr:
@@ -0,0 +1,30 @@
+package net.ripe.rpki.commons.crypto.util;
+
+import org.bouncycastle.operator.ContentSigner;
+import org.bouncycastle.operator.OperatorCreationException;
+import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
+
+import java.security.PrivateKey;
+
+/**
+ * Supplies the {@link ContentSigner} used to sign certificates, CRLs and CMS objects.
+ *
+ * The returned signer is only used by the calling thread, for a single signature. Implementations must be safe for
+ * concurrent use. Besides caching JCA signers ({@link CachingContentSignerFactory}) this is the hook to plug in
+ * signers backed by an HSM or PKCS#11 token, for example to batch signing requests.
+ */
+@FunctionalInterface
+public interface ContentSignerFactory {
+
+    ContentSigner getContentSigner(String signatureAlgorithm, String signatureProvider, PrivateKey privateKey) throws OperatorCreationException;
+
+    /**
+     * @return a factory that creates a new JCA signer for every signature, without any caching. This is the default of
+     * all builders.
+     */
+    static ContentSignerFactory jca() {
+        return (signatureAlgorithm, signatureProvider, privateKey) -> new JcaContentSignerBuilder(signatureAlgorithm)
+                .setProvider(signatureProvider)
+                .build(privateKey);
+    }
+}
@@ -0,0 +1,173 @@
+package net.ripe.rpki.commons.crypto.util;
+
+import lombok.Value;
+
+import java.security.InvalidAlgorithmParameterException;
+import java.security.InvalidKeyException;
+import java.security.KeyFactory;
+import java.security.KeyPairGenerator;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.NoSuchProviderException;
+import java.security.Provider;
+import java.security.PublicKey;
+import java.security.Security;
+import java.security.Signature;
+import java.security.SignatureException;
+import java.security.cert.CertificateException;
+import java.security.cert.CertificateFactory;
+import java.security.spec.AlgorithmParameterSpec;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Central cache of JCA engine instances.
+ *
+ * Looking up a {@link Signature}, {@link KeyFactory}, {@link MessageDigest} etc. by algorithm and provider name scans
+ * the installed security providers under a lock, which shows up as contention when validating on many cores. Providers
+ * are resolved by name once, and engine instances are kept per thread, so they are never shared between threads.
+ *
+ * The instances returned are owned by the calling thread and must be used completely before the next call for the
+ * same algorithm and provider on that thread. Do not hand them to other threads or keep them around. Providers
+ * installed or removed after their first lookup are not picked up.
+ *
+ * Each thread keeps at most {@value #MAX_INSTANCES_PER_THREAD} instances, the least recently used one is dropped
+ * first. Threads that outlive the code using this cache (pooled or container threads) should call {@link #clear()}
+ * when done, so the instances do not keep their providers and class loaders reachable.
+ */
+public final class JcaInstanceCache {
+
+    private static final ConcurrentMap<String, Provider> PROVIDERS = new ConcurrentHashMap<>();
+
+    static final int MAX_INSTANCES_PER_THREAD = 64;
+
+    private static final ThreadLocal<Map<InstanceKey, Object>> INSTANCES = ThreadLocal.withInitial(() ->
+            new LinkedHashMap<InstanceKey, Object>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<InstanceKey, Object> eldest) {
+                    return size() > MAX_INSTANCES_PER_THREAD;
+                }
+            });
+
+    private JcaInstanceCache() {
+        //Utility classes should not have a public or default constructor.
+    }
+
+    /**
+     * Drops the instances cached for the calling thread.
+     */
+    public static void clear() {
+        INSTANCES.remove();
+    }
+
+    public static Provider getProvider(String name) throws NoSuchProviderException {
+        Provider provider = PROVIDERS.get(name);
+        if (provider == null) {
+            provider = Security.getProvider(name);
+            if (provider == null) {
+                throw new NoSuchProviderException("no such provider: " + name);
+            }
+            PROVIDERS.putIfAbsent(name, provider);
+        }
+        return provider;
+    }
+
+    /**
+     * @param provider the provider name, or null for the preferred provider of the algorithm.
+     */
+    public static Signature getSignature(String algorithm, String provider) throws NoSuchAlgorithmException, NoSuchProviderException {
+        InstanceKey key = new InstanceKey(Signature.class, algorithm, provider);
+        Signature signature = (Signature) INSTANCES.get().get(key);
+        if (signature == null) {
+            signature = provider == null ? Signature.getInstance(algorithm) : Signature.getInstance(algorithm, getProvider(provider));
+            INSTANCES.get().put(key, signature);
+        }
+        return signature;
+    }
+
+    public static KeyFactory getKeyFactory(String algorithm) throws NoSuchAlgorithmException {
+        InstanceKey key = new InstanceKey(KeyFactory.class, algorithm, null);
+        KeyFactory keyFactory = (KeyFactory) INSTANCES.get().get(key);
+        if (keyFactory == null) {
+            keyFactory = KeyFactory.getInstance(algorithm);
+            INSTANCES.get().put(key, keyFactory);
+        }
+        return keyFactory;
+    }
+
+    /**
+     * @return a reset message digest.
+     */
+    public static MessageDigest getMessageDigest(String algorithm) throws NoSuchAlgorithmException {
+        InstanceKey key = new InstanceKey(MessageDigest.class, algorithm, null);
+        MessageDigest digest = (MessageDigest) INSTANCES.get().get(key);
+        if (digest == null) {
+            digest = MessageDigest.getInstance(algorithm);
+            INSTANCES.get().put(key, digest);
+        } else {
+            digest.reset();
+        }
+        return digest;
+    }
+
+    public static CertificateFactory getCertificateFactory(String type) throws CertificateException {
+        InstanceKey key = new InstanceKey(CertificateFactory.class, type, null);
+        CertificateFactory factory = (CertificateFactory) INSTANCES.get().get(key);
+        if (factory == null) {
+            factory = CertificateFactory.getInstance(type);
+            INSTANCES.get().put(key, factory);
+        }
+        return factory;
+    }
+
+    /**
+     * @param provider the provider name, or null for the preferred provider of the algorithm.
+     * @return a key pair generator initialised with the parameters. The parameters are part of the cache key, so keep
+     * them constant (for example in a static field) to benefit from caching.
+     */
+    public static KeyPairGenerator getKeyPairGenerator(String algorithm, String provider, AlgorithmParameterSpec parameters) throws NoSuchAlgorithmException, NoSuchProviderException, InvalidAlgorithmParameterException {
+        InstanceKey key = new InstanceKey(KeyPairGenerator.class, algorithm, provider, parameters);
+        KeyPairGenerator generator = (KeyPairGenerator) INSTANCES.get().get(key);
+        if (generator == null) {
+            generator = provider == null ? KeyPairGenerator.getInstance(algorithm) : KeyPairGenerator.getInstance(algorithm, getProvider(provider));
+            generator.initialize(parameters);
+            INSTANCES.get().put(key, generator);
+        }
+        return generator;
+    }
+
+    /**
+     * Verifies a signature using a cached {@link Signature} instance.
+     *
+     * @throws SignatureException when the signature does not match, just like {@link java.security.cert.Certificate#verify}.
+     */
+    public static void verify(String algorithm, String provider, PublicKey publicKey, byte[] data, byte[] signatureBytes) throws NoSuchAlgorithmException, NoSuchProviderException, InvalidKeyException, SignatureException {
+        Signature signature = getSignature(algorithm, provider);
+        signature.initVerify(publicKey);
+        signature.update(data);
+        if (!signature.verify(signatureBytes)) {
+            throw new SignatureException("Signature does not match.");
+        }
+    }
+
+    @Value
+    private static class InstanceKey {
+        Class<?> type;
+        String algorithm;
+        String provider;
+        Object parameters;
+
+        InstanceKey(Class<?> type, String algorithm, String provider) {
+            this(type, algorithm, provider, null);
+        }
+
+        InstanceKey(Class<?> type, String algorithm, String provider, Object parameters) {
+            this.type = type;
+            this.algorithm = algorithm;
+            this.provider = provider;
+            this.parameters = parameters;
+        }
+    }
+}
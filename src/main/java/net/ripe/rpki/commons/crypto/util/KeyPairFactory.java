@@ -1,6 +1,11 @@
 package net.ripe.rpki.commons.crypto.util;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import lombok.Value;
+
 import java.math.BigInteger;
+import java.nio.ByteBuffer;
 import java.security.*;
 import java.security.spec.*;
 
@@ -21,9 +26,27 @@ public class KeyPairFactory {
 
     static final int RPKI_RSA_KEY_PAIR_SIZE = 2048;
 
+    private static final AlgorithmParameterSpec RSA_KEY_GEN_PARAMETERS = new RSAKeyGenParameterSpec(RPKI_RSA_KEY_PAIR_SIZE, RSA_PUBLIC_EXPONENT);
+
     public static final String ECDSA_ALGORITHM = "EC";
     public static final String ECDSA_CURVE = "secp256r1";
 
+    private static final AlgorithmParameterSpec EC_KEY_GEN_PARAMETERS = new ECGenParameterSpec(ECDSA_CURVE);
+
+    /**
+     * Maximum number of decoded public keys kept by {@link #decodePublicKey(byte[])} and
+     * {@link #decodePublicKeyEC(byte[])}.
+     */
+    public static final int DECODED_PUBLIC_KEY_CACHE_SIZE = 10_000;
+
+    /**
+     * Public keys are immutable, so decoded keys can be shared. Child and TA requests keep presenting the same keys,
+     * which makes decoding them again pure overhead.
+     */
+    private static final Cache<DecodedPublicKeyKey, PublicKey> DECODED_PUBLIC_KEYS = CacheBuilder.newBuilder()
+            .maximumSize(DECODED_PUBLIC_KEY_CACHE_SIZE)
+            .build();
+
     protected final String provider;
 
     protected KeyPairFactory(String provider) {
@@ -36,11 +59,11 @@ public class KeyPairFactory {
     }
 
     public KeyPair generateRsa() {
-        return getRsaGenerator(provider).generateKeyPair();
+        return generate(RSA_ALGORITHM, provider, RSA_KEY_GEN_PARAMETERS);
     }
 
     public KeyPair generateEc() {
-        return getEcGenerator(provider).generateKeyPair();
+        return generate(ECDSA_ALGORITHM, provider, EC_KEY_GEN_PARAMETERS);
     }
 
     public interface Generator {
@@ -48,17 +71,28 @@ public class KeyPairFactory {
     }
 
     public static Generator rsa() {
-        return () -> getRsaGenerator(DEFAULT_RSA_KEYPAIR_GENERATOR_PROVIDER).generateKeyPair();
+        return () -> generate(RSA_ALGORITHM, DEFAULT_RSA_KEYPAIR_GENERATOR_PROVIDER, RSA_KEY_GEN_PARAMETERS);
     }
 
     public static Generator bgpSec() {
-        return () -> getEcGenerator(DEFAULT_EC_KEYPAIR_GENERATOR_PROVIDER).generateKeyPair();
+        return () -> generate(ECDSA_ALGORITHM, DEFAULT_EC_KEYPAIR_GENERATOR_PROVIDER, EC_KEY_GEN_PARAMETERS);
+    }
+
+    /**
+     * Generates a key pair using the initialised generator cached for the current thread.
+     */
+    private static KeyPair generate(String algorithm, String provider, AlgorithmParameterSpec parameters) {
+        try {
+            return JcaInstanceCache.getKeyPairGenerator(algorithm, provider, parameters).generateKeyPair();
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
     }
 
     public static KeyPairGenerator getEcGenerator(String provider) {
         try {
-            var gen = KeyPairGenerator.getInstance(ECDSA_ALGORITHM, provider);
-            gen.initialize(new ECGenParameterSpec(ECDSA_CURVE), new SecureRandom());
+            var gen = KeyPairGenerator.getInstance(ECDSA_ALGORITHM, JcaInstanceCache.getProvider(provider));
+            gen.initialize(EC_KEY_GEN_PARAMETERS, new SecureRandom());
             return gen;
         } catch (Exception e) {
             throw new RuntimeException(e);
@@ -67,8 +101,8 @@ public class KeyPairFactory {
 
     public static KeyPairGenerator getRsaGenerator(String provider) {
         try {
-            var gen = KeyPairGenerator.getInstance(RSA_ALGORITHM, provider);
-            gen.initialize(new RSAKeyGenParameterSpec(RPKI_RSA_KEY_PAIR_SIZE, RSA_PUBLIC_EXPONENT));
+            var gen = KeyPairGenerator.getInstance(RSA_ALGORITHM, JcaInstanceCache.getProvider(provider));
+            gen.initialize(RSA_KEY_GEN_PARAMETERS);
             return gen;
         } catch (Exception e) {
             throw new RuntimeException(e);
@@ -76,11 +110,15 @@ public class KeyPairFactory {
     }
 
     public static PublicKey decodePublicKey(byte[] encoded) {
-        return decodeX509PublicKey(RSA_ALGORITHM, encoded);
+        return decodeCachedX509PublicKey(RSA_ALGORITHM, encoded);
+    }
+
+    public static PublicKey decodePublicKey(EncodedPublicKey encodedPublicKey) {
+        return decodePublicKey(encodedPublicKey.getEncoded());
     }
 
     public static PublicKey decodePublicKeyEC(byte[] encoded) {
-        return decodeX509PublicKey(ECDSA_ALGORITHM, encoded);
+        return decodeCachedX509PublicKey(ECDSA_ALGORITHM, encoded);
     }
 
     public static PrivateKey decodePrivateKey(byte[] encoded) {
@@ -91,9 +129,20 @@ public class KeyPairFactory {
         return decodePKCS8PrivateKey(ECDSA_ALGORITHM, encoded);
     }
 
+    private static PublicKey decodeCachedX509PublicKey(String algorithm, byte[] encoded) {
+        DecodedPublicKeyKey key = new DecodedPublicKeyKey(algorithm, ByteBuffer.wrap(encoded.clone()));
+        PublicKey result = DECODED_PUBLIC_KEYS.getIfPresent(key);
+        if (result == null) {
+            // Decode outside of the cache loader, so failures are thrown as is and not cached
+            result = decodeX509PublicKey(algorithm, encoded);
+            DECODED_PUBLIC_KEYS.put(key, result);
+        }
+        return result;
+    }
+
     private static PublicKey decodeX509PublicKey(String algorithm, byte[] encoded) {
         try {
-            return KeyFactory.getInstance(algorithm).generatePublic(new X509EncodedKeySpec(encoded));
+            return JcaInstanceCache.getKeyFactory(algorithm).generatePublic(new X509EncodedKeySpec(encoded));
         } catch (InvalidKeySpecException | NoSuchAlgorithmException e) {
             throw new KeyPairFactoryException(e);
         }
@@ -101,7 +150,7 @@ public class KeyPairFactory {
 
     private static PrivateKey decodePKCS8PrivateKey(String algorithm, byte[] encoded) {
         try {
-            return KeyFactory.getInstance(algorithm).generatePrivate(new PKCS8EncodedKeySpec(encoded));
+            return JcaInstanceCache.getKeyFactory(algorithm).generatePrivate(new PKCS8EncodedKeySpec(encoded));
         } catch (InvalidKeySpecException | NoSuchAlgorithmException e) {
             throw new KeyPairFactoryException(e);
         }
@@ -110,4 +159,10 @@ public class KeyPairFactory {
     public static KeyPairFactory withProvider(String provider) {
         return new KeyPairFactory(provider);
     }
+
+    @Value
+    private static class DecodedPublicKeyKey {
+        String algorithm;
+        ByteBuffer encoded;
+    }
 }
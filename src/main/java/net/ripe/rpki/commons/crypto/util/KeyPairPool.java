@@ -0,0 +1,138 @@
+package net.ripe.rpki.commons.crypto.util;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.Validate;
+
+import java.security.KeyPair;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A bounded pool of pre-generated key pairs, filled in the background by a configurable number of threads.
+ *
+ * Every signed object needs a new one-time-use EE key pair. Taking these from the pool avoids blocking on key
+ * generation when issuing many objects at once. When the pool is depleted, key pairs are generated on demand in the
+ * calling thread, just like the wrapped {@link KeyPairFactory.Generator} does.
+ *
+ * Close the pool to stop the background threads.
+ */
+@Slf4j
+public class KeyPairPool implements KeyPairFactory.Generator, AutoCloseable {
+
+    private final KeyPairFactory.Generator generator;
+
+    private final BlockingQueue<KeyPair> pool;
+
+    private final ExecutorService refillExecutor;
+
+    private final LongAdder takenFromPool = new LongAdder();
+
+    private final LongAdder generatedOnDemand = new LongAdder();
+
+    private final LongAdder generatedInBackground = new LongAdder();
+
+    /**
+     * @param generator     the generator used to fill the pool, and to generate key pairs when the pool is depleted.
+     * @param size          the maximum number of key pairs kept in the pool.
+     * @param refillThreads the number of background threads generating key pairs for the pool.
+     */
+    public KeyPairPool(KeyPairFactory.Generator generator, int size, int refillThreads) {
+        Validate.notNull(generator, "generator is required");
+        Validate.isTrue(size > 0, "size must be positive");
+        Validate.isTrue(refillThreads > 0, "refillThreads must be positive");
+        this.generator = generator;
+        this.pool = new ArrayBlockingQueue<>(size);
+        this.refillExecutor = Executors.newFixedThreadPool(refillThreads, new ThreadFactoryBuilder()
+                .setNameFormat("key-pair-pool-%d")
+                .setDaemon(true)
+                .build());
+        for (int i = 0; i < refillThreads; ++i) {
+            refillExecutor.execute(this::refill);
+        }
+    }
+
+    public static KeyPairPool rsa(int size, int refillThreads) {
+        return new KeyPairPool(KeyPairFactory.rsa(), size, refillThreads);
+    }
+
+    /**
+     * @return a pre-generated key pair, or a newly generated key pair when the pool is depleted.
+     */
+    @Override
+    public KeyPair generate() {
+        KeyPair keyPair = pool.poll();
+        if (keyPair != null) {
+            takenFromPool.increment();
+            return keyPair;
+        }
+        generatedOnDemand.increment();
+        return generator.generate();
+    }
+
+    /**
+     * @return the number of key pairs currently available in the pool.
+     */
+    public int getAvailable() {
+        return pool.size();
+    }
+
+    /**
+     * @return the number of key pairs handed out from the pool.
+     */
+    public long getTakenFromPool() {
+        return takenFromPool.sum();
+    }
+
+    /**
+     * @return the number of key pairs generated in the calling thread because the pool was depleted.
+     */
+    public long getGeneratedOnDemand() {
+        return generatedOnDemand.sum();
+    }
+
+    /**
+     * @return the number of key pairs generated by the background threads.
+     */
+    public long getGeneratedInBackground() {
+        return generatedInBackground.sum();
+    }
+
+    public boolean isClosed() {
+        return refillExecutor.isShutdown();
+    }
+
+    /**
+     * Stops the background threads. Key pairs still in the pool are handed out, after which key pairs are generated
+     * on demand.
+     */
+    @Override
+    public void close() {
+        refillExecutor.shutdownNow();
+    }
+
+    /**
+     * Waits until the background threads have stopped after {@link #close()}.
+     */
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return refillExecutor.awaitTermination(timeout, unit);
+    }
+
+    private void refill() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                KeyPair keyPair = generator.generate();
+                generatedInBackground.increment();
+                pool.put(keyPair);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            log.error("Key pair pool refill thread stopped, pool will fall back to on demand generation", e);
+        }
+    }
+}
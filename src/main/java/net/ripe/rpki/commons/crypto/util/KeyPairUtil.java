@@ -1,7 +1,7 @@
 package net.ripe.rpki.commons.crypto.util;
 
 import org.apache.commons.lang3.StringUtils;
-import org.bouncycastle.cert.jcajce.JcaX509ExtensionUtils;
+import org.bouncycastle.asn1.x509.SubjectPublicKeyInfo;
 import org.bouncycastle.util.encoders.Hex;
 
 import java.security.NoSuchAlgorithmException;
@@ -37,9 +37,14 @@ public final class KeyPairUtil {
         return Hex.toHexString(keyHashData);
     }
 
+    /**
+     * Calculates the key identifier like JcaX509ExtensionUtils does (RFC 5280 section 4.2.1.2, method 1), using the
+     * SHA-1 digest from the {@link JcaInstanceCache} of the current thread.
+     */
     public static byte[] getKeyIdentifier(PublicKey key) {
         try {
-            return new JcaX509ExtensionUtils().createSubjectKeyIdentifier(key).getKeyIdentifier();
+            byte[] publicKeyData = SubjectPublicKeyInfo.getInstance(key.getEncoded()).getPublicKeyData().getBytes();
+            return JcaInstanceCache.getMessageDigest("SHA-1").digest(publicKeyData);
         } catch (NoSuchAlgorithmException e) {
             throw new IllegalArgumentException("Could not get SubjectKeyIdentifierStructure from key", e);
         }
@@ -3,6 +3,8 @@ package net.ripe.rpki.commons.crypto.x509cert;
 import net.ripe.ipresource.IpResourceSet;
 import net.ripe.ipresource.IpResourceType;
 import net.ripe.rpki.commons.crypto.ValidityPeriod;
+import net.ripe.rpki.commons.crypto.util.CachingContentSignerFactory;
+import net.ripe.rpki.commons.crypto.util.ContentSignerFactory;
 import org.apache.commons.lang3.Validate;
 
 import javax.security.auth.x500.X500Principal;
@@ -29,6 +31,7 @@ public abstract class GenericRpkiCertificateBuilder {
     private URI parentResourceCertificatePublicationUri;
 
     private String signatureProvider = "SunRsaSign";
+    private ContentSignerFactory contentSignerFactory = ContentSignerFactory.jca();
 
     public void withPublicKey(PublicKey publicKey) {
         this.publicKey = publicKey;
@@ -88,6 +91,14 @@ public abstract class GenericRpkiCertificateBuilder {
         this.signatureProvider = signatureProvider;
     }
 
+    /**
+     * Default: {@link ContentSignerFactory#jca()}. Use a {@link CachingContentSignerFactory} to reuse initialised
+     * signatures when signing repeatedly with the same key.
+     */
+    public void withContentSignerFactory(ContentSignerFactory contentSignerFactory) {
+        this.contentSignerFactory = contentSignerFactory;
+    }
+
     protected X509ResourceCertificateBuilder createGenericRpkiCertificateBuilder(int keyUsage) {
 
         X509ResourceCertificateBuilder builder = new X509ResourceCertificateBuilder();
@@ -116,6 +127,7 @@ public abstract class GenericRpkiCertificateBuilder {
         }
 
         builder.withSignatureProvider(signatureProvider);
+        builder.withContentSignerFactory(contentSignerFactory);
         builder.withKeyUsage(keyUsage);
 
         return builder;
@@ -137,6 +149,7 @@ public abstract class GenericRpkiCertificateBuilder {
         }
 
         requireNonNull(signatureProvider, "SignatureProvider is required");
+        requireNonNull(contentSignerFactory, "ContentSignerFactory is required");
     }
 
 
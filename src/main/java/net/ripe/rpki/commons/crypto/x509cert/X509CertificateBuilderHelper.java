@@ -7,6 +7,8 @@ import net.ripe.rpki.commons.crypto.ValidityPeriod;
 import net.ripe.rpki.commons.crypto.rfc3779.ResourceExtensionEncoder;
 import net.ripe.rpki.commons.crypto.rfc8209.RouterExtensionEncoder;
 import net.ripe.rpki.commons.crypto.util.BouncyCastleUtil;
+import net.ripe.rpki.commons.crypto.util.CachingContentSignerFactory;
+import net.ripe.rpki.commons.crypto.util.ContentSignerFactory;
 import net.ripe.rpki.commons.crypto.util.KeyPairFactory;
 import org.apache.commons.lang3.Validate;
 import org.bouncycastle.asn1.ASN1Encodable;
@@ -14,11 +16,9 @@ import org.bouncycastle.asn1.DERSequence;
 import org.bouncycastle.asn1.x509.*;
 import org.bouncycastle.cert.CertIOException;
 import org.bouncycastle.cert.X509v3CertificateBuilder;
-import org.bouncycastle.cert.jcajce.JcaX509CertificateConverter;
 import org.bouncycastle.cert.jcajce.JcaX509ExtensionUtils;
 import org.bouncycastle.operator.ContentSigner;
 import org.bouncycastle.operator.OperatorCreationException;
-import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
 
 import javax.security.auth.x500.X500Principal;
 import java.math.BigInteger;
@@ -70,6 +70,8 @@ public final class X509CertificateBuilderHelper {
 
     private String signatureAlgorithm = DEFAULT_SIGNATURE_ALGORITHM;
 
+    private ContentSignerFactory contentSignerFactory = ContentSignerFactory.jca();
+
     private BigInteger serial;
 
     private X500Principal subjectDN;
@@ -108,6 +110,15 @@ public final class X509CertificateBuilderHelper {
         return this;
     }
 
+    /**
+     * Default: {@link ContentSignerFactory#jca()}. Use a {@link CachingContentSignerFactory} to reuse initialised
+     * signatures when signing repeatedly with the same key.
+     */
+    public X509CertificateBuilderHelper withContentSignerFactory(ContentSignerFactory contentSignerFactory) {
+        this.contentSignerFactory = contentSignerFactory;
+        return this;
+    }
+
     public X509CertificateBuilderHelper withSerial(BigInteger serial) {
         this.serial = serial;
         return this;
@@ -232,10 +243,8 @@ public final class X509CertificateBuilderHelper {
     public X509Certificate generateCertificate() {
         X509v3CertificateBuilder certificateGenerator = createCertificateGenerator();
         try {
-            ContentSigner signer = new JcaContentSignerBuilder(signatureAlgorithm)
-                    .setProvider(signatureProvider)
-                    .build(signingKeyPair.getPrivate());
-            return new JcaX509CertificateConverter().getCertificate(certificateGenerator.build(signer));
+            ContentSigner signer = contentSignerFactory.getContentSigner(signatureAlgorithm, signatureProvider, signingKeyPair.getPrivate());
+            return BouncyCastleUtil.holderToCertificate(certificateGenerator.build(signer));
         } catch (IllegalStateException | OperatorCreationException | CertificateException e) {
             throw new X509ResourceCertificateBuilderException(e);
         }
@@ -2,6 +2,7 @@ package net.ripe.rpki.commons.crypto.x509cert;
 
 import net.ripe.rpki.commons.crypto.rfc3779.ResourceExtensionEncoder;
 import net.ripe.rpki.commons.crypto.rfc8209.RouterExtensionEncoder;
+import net.ripe.rpki.commons.crypto.util.CertificateFactoryUtil;
 import net.ripe.rpki.commons.validation.ValidationResult;
 import org.apache.commons.lang3.ArrayUtils;
 import org.bouncycastle.asn1.ASN1ObjectIdentifier;
@@ -15,12 +16,8 @@ import org.bouncycastle.asn1.x9.X9ObjectIdentifiers;
 import org.bouncycastle.math.ec.ECCurve;
 import org.bouncycastle.math.ec.ECPoint;
 
-import java.io.ByteArrayInputStream;
-import java.io.IOException;
-import java.io.InputStream;
 import java.security.PublicKey;
 import java.security.cert.CertificateException;
-import java.security.cert.CertificateFactory;
 import java.security.cert.CertificateParsingException;
 import java.security.cert.X509Certificate;
 import java.security.interfaces.ECPublicKey;
@@ -52,6 +49,15 @@ public abstract class X509CertificateParser<T extends AbstractX509CertificateWra
         validateX509Certificate(validationResult, parsedEncodedCertificate);
     }
 
+    /**
+     * Validate an already decoded certificate, such as a certificate extracted from a CMS object, without encoding
+     * and decoding it again.
+     */
+    public void parse(ValidationResult validationResult, X509Certificate certificate) {
+        validationResult.rejectIfNull(certificate, CERTIFICATE_PARSED);
+        validateX509Certificate(validationResult, certificate);
+    }
+
     public void validateX509Certificate(ValidationResult validationResult, X509Certificate certificate) {
         this.certificate = certificate;
         this.result = validationResult;
@@ -170,10 +176,9 @@ public abstract class X509CertificateParser<T extends AbstractX509CertificateWra
     }
 
     public static X509Certificate parseX509Certificate(byte[] encoded) {
-        try (InputStream input = new ByteArrayInputStream(encoded)) {
-            final CertificateFactory factory = CertificateFactory.getInstance("X.509");
-            return (X509Certificate) factory.generateCertificate(input);
-        } catch (final CertificateException | IOException e) {
+        try {
+            return CertificateFactoryUtil.decodeCertificate(encoded);
+        } catch (final CertificateException e) {
             return null;
         }
     }
@@ -6,6 +6,7 @@ import net.ripe.rpki.commons.crypto.rfc3779.ResourceExtensionEncoder;
 import net.ripe.rpki.commons.crypto.rfc3779.ResourceExtensionParser;
 import net.ripe.rpki.commons.crypto.rfc8209.RouterExtensionEncoder;
 import net.ripe.rpki.commons.crypto.util.Asn1Util;
+import net.ripe.rpki.commons.crypto.util.JcaInstanceCache;
 import net.ripe.rpki.commons.validation.ValidationResult;
 import org.bouncycastle.asn1.ASN1ObjectIdentifier;
 import org.bouncycastle.asn1.ASN1Sequence;
@@ -294,7 +295,11 @@ public final class X509CertificateUtil {
 
     public static void verify(X509Certificate certificate, PublicKey publicKey) throws InvalidKeyException, SignatureException {
         try {
-            certificate.verify(publicKey, DEFAULT_SIGNATURE_PROVIDER);
+            if (certificate.getSigAlgParams() != null) {
+                certificate.verify(publicKey, DEFAULT_SIGNATURE_PROVIDER);
+            } else {
+                JcaInstanceCache.verify(certificate.getSigAlgName(), DEFAULT_SIGNATURE_PROVIDER, publicKey, certificate.getTBSCertificate(), certificate.getSignature());
+            }
         } catch (CertificateException | NoSuchAlgorithmException | NoSuchProviderException e) {
             throw new IllegalArgumentException(e);
         }
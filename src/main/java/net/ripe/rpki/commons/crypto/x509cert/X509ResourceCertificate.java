@@ -37,6 +37,14 @@ public class X509ResourceCertificate extends AbstractX509CertificateWrapper impl
         resourceExtension = parser.parse(certificate);
     }
 
+    /**
+     * Wraps an already decoded certificate with its already parsed resource extension.
+     */
+    X509ResourceCertificate(X509Certificate certificate, ResourceExtension resourceExtension) {
+        super(certificate);
+        this.resourceExtension = resourceExtension;
+    }
+
     public ImmutableResourceSet resources() {
         return resourceExtension.getResources();
     }
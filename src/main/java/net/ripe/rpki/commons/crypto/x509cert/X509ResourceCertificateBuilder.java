@@ -3,6 +3,7 @@ package net.ripe.rpki.commons.crypto.x509cert;
 import net.ripe.ipresource.IpResourceSet;
 import net.ripe.ipresource.IpResourceType;
 import net.ripe.rpki.commons.crypto.ValidityPeriod;
+import net.ripe.rpki.commons.crypto.util.ContentSignerFactory;
 import org.apache.commons.lang3.Validate;
 
 import javax.security.auth.x500.X500Principal;
@@ -38,6 +39,11 @@ public class X509ResourceCertificateBuilder {
         return this;
     }
 
+    public X509ResourceCertificateBuilder withContentSignerFactory(ContentSignerFactory contentSignerFactory) {
+        builderHelper.withContentSignerFactory(contentSignerFactory);
+        return this;
+    }
+
     public X509ResourceCertificateBuilder withSerial(BigInteger serial) {
         builderHelper.withSerial(serial);
         return this;
@@ -0,0 +1,161 @@
+package net.ripe.rpki.commons.crypto.x509cert;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
+import lombok.Value;
+import net.ripe.rpki.commons.crypto.rfc3779.ResourceExtension;
+import net.ripe.rpki.commons.validation.ValidationCheck;
+import net.ripe.rpki.commons.validation.ValidationResult;
+import net.ripe.rpki.commons.validation.ValidationStatus;
+import org.apache.commons.lang3.Validate;
+
+import java.security.cert.X509Certificate;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Opt-in pool of parsed resource certificates, keyed by the SHA-256 hash of their DER encoding.
+ *
+ * Parsing a certificate that is already in the pool re-uses the previously decoded certificate and resource
+ * extension, and replays the warnings and passed checks of the original parse into the validation result. Only
+ * certificates that parsed without failures are pooled. Certificates are parsed like
+ * {@link X509ResourceCertificateParser#parseCertificate(ValidationResult, byte[])} does.
+ *
+ * Every call returns a new {@link X509ResourceCertificate} instance around the pooled, immutable, parts. State that
+ * is recorded by {@link X509ResourceCertificate#validate}, like the revocation status, is therefore never shared
+ * between users of the pool.
+ *
+ * This class is thread-safe.
+ */
+public class X509ResourceCertificateInternPool {
+
+    public enum References {
+        /**
+         * Certificates are only evicted when the maximum size is reached.
+         */
+        STRONG,
+        /**
+         * Certificates may also be evicted in response to memory demand.
+         */
+        SOFT,
+        /**
+         * Certificates are evicted as soon as they are no longer used outside of this pool.
+         */
+        WEAK
+    }
+
+    @Value
+    private static class Decoded {
+        ResourceExtension resourceExtension;
+        boolean router;
+        /**
+         * Checks recorded while parsing the certificate, <code>null</code> when it was interned without parsing.
+         */
+        List<ValidationCheck> parseChecks;
+
+        X509ResourceCertificate wrap(X509Certificate certificate) {
+            return router
+                    ? new X509RouterCertificate(certificate, resourceExtension)
+                    : new X509ResourceCertificate(certificate, resourceExtension);
+        }
+    }
+
+    private final Cache<HashCode, X509Certificate> certificates;
+
+    /**
+     * Decoded parts of each pooled certificate, removed together with the certificate.
+     */
+    private final Cache<X509Certificate, Decoded> decoded;
+
+    public X509ResourceCertificateInternPool(long maximumSize, References references) {
+        Validate.isTrue(maximumSize >= 0, "maximumSize must not be negative");
+        CacheBuilder<Object, Object> builder = CacheBuilder.newBuilder().maximumSize(maximumSize).recordStats();
+        switch (references) {
+            case SOFT:
+                builder.softValues();
+                break;
+            case WEAK:
+                builder.weakValues();
+                break;
+            case STRONG:
+                break;
+        }
+        this.certificates = builder.build();
+        this.decoded = CacheBuilder.newBuilder().weakKeys().build();
+    }
+
+    /**
+     * Parse a certificate and return a parsed certificate of the correct (router or resource certificate) type,
+     * re-using the pooled decoded certificate when a certificate with the same encoding was parsed before.
+     *
+     * @see X509ResourceCertificateParser#parseCertificate(ValidationResult, byte[])
+     */
+    public X509ResourceCertificate parseCertificate(ValidationResult result, byte[] encoded) {
+        HashCode key = Hashing.sha256().hashBytes(encoded);
+        X509Certificate pooled = certificates.getIfPresent(key);
+        Decoded parts = pooled == null ? null : decoded.getIfPresent(pooled);
+        if (parts != null && parts.getParseChecks() != null) {
+            replay(result, parts.getParseChecks());
+            return parts.wrap(pooled);
+        }
+
+        ValidationResult temp = ValidationResult.withLocation(result.getCurrentLocation());
+        X509ResourceCertificate certificate = X509ResourceCertificateParser.parseCertificate(temp, encoded);
+        result.addAll(temp);
+        if (certificate == null || temp.hasFailures()) {
+            return certificate;
+        }
+
+        List<ValidationCheck> checks = temp.getAllValidationChecksForCurrentLocation().stream()
+                .filter(check -> check.getStatus() != ValidationStatus.ERROR)
+                .collect(Collectors.toUnmodifiableList());
+        X509Certificate interned = certificates.asMap().putIfAbsent(key, certificate.getCertificate());
+        if (interned == null) {
+            interned = certificate.getCertificate();
+        }
+        Decoded value = new Decoded(certificate.getResourceExtension(), certificate instanceof X509RouterCertificate, checks);
+        decoded.put(interned, value);
+        return interned == certificate.getCertificate() ? certificate : value.wrap(interned);
+    }
+
+    /**
+     * @return a certificate sharing the pooled decoded certificate with the same encoding, adding the certificate to
+     * the pool if it was not pooled yet.
+     */
+    public X509ResourceCertificate intern(X509ResourceCertificate certificate) {
+        HashCode key = Hashing.sha256().hashBytes(certificate.getEncoded());
+        X509Certificate interned = certificates.asMap().putIfAbsent(key, certificate.getCertificate());
+        if (interned == null) {
+            decoded.asMap().putIfAbsent(certificate.getCertificate(), new Decoded(certificate.getResourceExtension(), certificate instanceof X509RouterCertificate, null));
+            return certificate;
+        }
+        Decoded parts = decoded.getIfPresent(interned);
+        return parts == null ? certificate : parts.wrap(interned);
+    }
+
+    public long size() {
+        return certificates.size();
+    }
+
+    public CacheStats stats() {
+        return certificates.stats();
+    }
+
+    public void clear() {
+        certificates.invalidateAll();
+        decoded.invalidateAll();
+    }
+
+    private static void replay(ValidationResult result, List<ValidationCheck> checks) {
+        for (ValidationCheck check : checks) {
+            if (check.getStatus() == ValidationStatus.WARNING) {
+                result.warn(check.getKey(), check.getParams());
+            } else {
+                result.pass(check.getKey(), check.getParams());
+            }
+        }
+    }
+}
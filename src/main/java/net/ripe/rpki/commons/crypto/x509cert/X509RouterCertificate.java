@@ -2,6 +2,7 @@ package net.ripe.rpki.commons.crypto.x509cert;
 
 import net.ripe.rpki.commons.crypto.crl.CrlLocator;
 import net.ripe.rpki.commons.crypto.crl.X509Crl;
+import net.ripe.rpki.commons.crypto.rfc3779.ResourceExtension;
 import net.ripe.rpki.commons.validation.ValidationLocation;
 import net.ripe.rpki.commons.validation.ValidationOptions;
 import net.ripe.rpki.commons.validation.ValidationResult;
@@ -18,6 +19,10 @@ public class X509RouterCertificate extends X509ResourceCertificate implements X5
         super(certificate);
     }
 
+    X509RouterCertificate(X509Certificate certificate, ResourceExtension resourceExtension) {
+        super(certificate, resourceExtension);
+    }
+
     @Override
     public URI getCrlUri() {
         return findFirstRsyncCrlDistributionPoint();
@@ -40,7 +45,7 @@ public class X509RouterCertificate extends X509ResourceCertificate implements X5
             return;
         }
 
-        X509RouterCertificateValidator validator = new X509RouterCertificateValidator(options, result, context.getRouterCertificate(), crl);
+        X509RouterCertificateValidator validator = new X509RouterCertificateValidator(options, result, context.getCertificate(), crl);
         validator.validate(location, this);
 
         revoked = hasErrorInRevocationCheck(result.getFailures(new ValidationLocation(location)));
@@ -53,7 +58,7 @@ public class X509RouterCertificate extends X509ResourceCertificate implements X5
             return;
         }
 
-        X509RouterCertificateValidator validator = new X509RouterCertificateValidator(options, result, context.getRouterCertificate(), crl);
+        X509RouterCertificateValidator validator = new X509RouterCertificateValidator(options, result, context.getCertificate(), crl);
         validator.validate(location, this);
 
         revoked = hasErrorInRevocationCheck(result.getFailures(new ValidationLocation(location)));
@@ -4,6 +4,7 @@ import net.ripe.ipresource.Asn;
 import net.ripe.ipresource.IpResourceSet;
 import net.ripe.ipresource.IpResourceType;
 import net.ripe.rpki.commons.crypto.ValidityPeriod;
+import net.ripe.rpki.commons.crypto.util.ContentSignerFactory;
 import org.apache.commons.lang3.Validate;
 import org.bouncycastle.asn1.x509.PolicyInformation;
 
@@ -33,6 +34,11 @@ public class X509RouterCertificateBuilder {
         return this;
     }
 
+    public X509RouterCertificateBuilder withContentSignerFactory(ContentSignerFactory contentSignerFactory) {
+        builderHelper.withContentSignerFactory(contentSignerFactory);
+        return this;
+    }
+
     public X509RouterCertificateBuilder withSerial(BigInteger serial) {
         builderHelper.withSerial(serial);
         return this;
@@ -2,6 +2,7 @@ package net.ripe.rpki.commons.provisioning.cms;
 
 import net.ripe.rpki.commons.crypto.cms.RPKISignedDataGenerator;
 import net.ripe.rpki.commons.crypto.util.BouncyCastleUtil;
+import net.ripe.rpki.commons.crypto.util.ContentSignerFactory;
 import net.ripe.rpki.commons.crypto.x509cert.X509CertificateBuilderHelper;
 import net.ripe.rpki.commons.crypto.x509cert.X509CertificateUtil;
 import net.ripe.rpki.commons.provisioning.payload.AbstractProvisioningPayload;
@@ -20,17 +21,17 @@ import org.bouncycastle.cert.jcajce.JcaCRLStore;
 import org.bouncycastle.cert.jcajce.JcaCertStore;
 import org.bouncycastle.cms.CMSException;
 import org.bouncycastle.cms.CMSProcessableByteArray;
-import org.bouncycastle.cms.CMSSignedData;
 import org.bouncycastle.cms.DefaultSignedAttributeTableGenerator;
 import org.bouncycastle.cms.jcajce.JcaSignerInfoGeneratorBuilder;
 import org.bouncycastle.operator.ContentSigner;
 import org.bouncycastle.operator.DigestCalculatorProvider;
 import org.bouncycastle.operator.OperatorCreationException;
-import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
 import org.joda.time.DateTimeUtils;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.nio.charset.Charset;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.security.PrivateKey;
 import java.security.cert.CRLException;
 import java.security.cert.CertificateEncodingException;
@@ -58,6 +59,8 @@ public class ProvisioningCmsObjectBuilder {
 
     private String signatureProvider = X509CertificateBuilderHelper.DEFAULT_SIGNATURE_PROVIDER;
 
+    private ContentSignerFactory contentSignerFactory = ContentSignerFactory.jca();
+
     private String payloadContent;
 
     public ProvisioningCmsObjectBuilder withCmsCertificate(X509Certificate cmsCertificate) {
@@ -75,6 +78,15 @@ public class ProvisioningCmsObjectBuilder {
         return this;
     }
 
+    /**
+     * Default: {@link ContentSignerFactory#jca()}. The CMS object is signed with a one-time EE key, so there is
+     * nothing a caching factory could reuse.
+     */
+    public ProvisioningCmsObjectBuilder withContentSignerFactory(ContentSignerFactory contentSignerFactory) {
+        this.contentSignerFactory = contentSignerFactory;
+        return this;
+    }
+
     public ProvisioningCmsObjectBuilder withPayloadContent(AbstractProvisioningPayload payload) {
         this.payloadContent = PayloadParser.serialize(payload);
         return this;
@@ -110,18 +122,39 @@ public class ProvisioningCmsObjectBuilder {
         }
     }
 
+    /**
+     * Writes the DER encoded CMS object to the output stream, without parsing and validating it like
+     * {@link #build(PrivateKey)} does. The stream is not closed.
+     */
+    public void writeTo(PrivateKey privateKey, OutputStream out) throws IOException {
+        Validate.notEmpty(payloadContent, "Payload content is required");
+
+        requireNonNull(cmsCertificate, "cms certificate is required");
+        requireNonNull(crl, "crl is required");
+
+        try {
+            doGenerate(privateKey, out);
+        } catch (CMSException | OperatorCreationException | CRLException | CertificateEncodingException e) {
+            throw new ProvisioningCmsObjectBuilderException(e);
+        }
+    }
+
     private byte[] doGenerate(PrivateKey privateKey) throws CMSException, IOException, CertificateEncodingException, CRLException, OperatorCreationException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        doGenerate(privateKey, out);
+        return out.toByteArray();
+    }
+
+    private void doGenerate(PrivateKey privateKey, OutputStream out) throws CMSException, IOException, CertificateEncodingException, CRLException, OperatorCreationException {
         RPKISignedDataGenerator generator = new RPKISignedDataGenerator();
         addCertificateAndCrl(generator);
         addSignerInfo(generator, privateKey);
 
-        CMSSignedData data = generator.generate(new CMSProcessableByteArray(CONTENT_TYPE, payloadContent.getBytes(Charset.forName("UTF-8"))), true);
-
-        return data.getEncoded();
+        generator.generate(new CMSProcessableByteArray(CONTENT_TYPE, payloadContent.getBytes(StandardCharsets.UTF_8)), out);
     }
 
     private void addSignerInfo(RPKISignedDataGenerator generator, PrivateKey privateKey) throws OperatorCreationException {
-        final ContentSigner signer = new JcaContentSignerBuilder(X509CertificateBuilderHelper.DEFAULT_SIGNATURE_ALGORITHM).setProvider(signatureProvider).build(privateKey);
+        final ContentSigner signer = contentSignerFactory.getContentSigner(X509CertificateBuilderHelper.DEFAULT_SIGNATURE_ALGORITHM, signatureProvider, privateKey);
         final DigestCalculatorProvider digestProvider = BouncyCastleUtil.DIGEST_CALCULATOR_PROVIDER;
         final byte[] ski = X509CertificateUtil.getSubjectKeyIdentifier(cmsCertificate);
         generator.addSignerInfoGenerator(
@@ -5,7 +5,6 @@ import lombok.AccessLevel;
 import lombok.Setter;
 import net.ripe.rpki.commons.crypto.cms.SigningInformationUtil;
 import net.ripe.rpki.commons.crypto.util.BouncyCastleUtil;
-import net.ripe.rpki.commons.crypto.x509cert.AbstractX509CertificateWrapperException;
 import net.ripe.rpki.commons.crypto.x509cert.X509CertificateUtil;
 import net.ripe.rpki.commons.provisioning.payload.AbstractProvisioningPayload;
 import net.ripe.rpki.commons.provisioning.payload.PayloadParser;
@@ -45,7 +44,6 @@ import java.nio.charset.StandardCharsets;
 import java.security.cert.CRL;
 import java.security.cert.CRLException;
 import java.security.cert.Certificate;
-import java.security.cert.CertificateEncodingException;
 import java.security.cert.CertificateException;
 import java.security.cert.X509CRL;
 import java.security.cert.X509Certificate;
@@ -220,11 +218,7 @@ public class ProvisioningCmsObjectParser {
 
     private X509Certificate parseCmsCertificate(X509Certificate certificate) {
         ProvisioningCmsCertificateParser parser = new ProvisioningCmsCertificateParser();
-        try {
-            parser.parse(ValidationResult.withLocation(location), certificate.getEncoded());
-        } catch (CertificateEncodingException e) {
-            throw new AbstractX509CertificateWrapperException(e);
-        }
+        parser.parse(ValidationResult.withLocation(location), certificate);
         return parser.getCertificate().getCertificate();
     }
 
@@ -0,0 +1,151 @@
+package net.ripe.rpki.commons.provisioning.cms;
+
+import lombok.Value;
+import net.ripe.rpki.commons.provisioning.x509.ProvisioningIdentityCertificate;
+import net.ripe.rpki.commons.validation.ValidationOptions;
+import net.ripe.rpki.commons.validation.ValidationResult;
+import org.joda.time.DateTime;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Processes incoming up-down (RFC 6492) messages in parallel.
+ *
+ * Every message goes through the same steps as when using {@link ProvisioningCmsObjectParser} and
+ * {@link ProvisioningCmsObjectValidator} by hand: the CMS object and its payload are parsed, the CMS object is
+ * validated against the identity certificate of the child, and a valid request is passed to the
+ * {@link RequestHandler} to build the response. These steps run on the configured executor.
+ *
+ * Messages from different children are processed concurrently. Messages from the same child are processed one at a
+ * time in submission order, so the signing time of a message is always checked against the signing time recorded
+ * for the previous message of that child, and the request handler never sees requests of one child out of order.
+ *
+ * @param <R> the type of response built by the request handler.
+ */
+public class ProvisioningMessagePipeline<R> {
+
+    /**
+     * Provides the state of a child that is needed to validate its messages.
+     */
+    public interface ChildResolver {
+        /**
+         * @return the identity certificate of the child, or null when the child is unknown.
+         */
+        ProvisioningIdentityCertificate getIdentityCertificate(String childId);
+
+        /**
+         * @return the signing time of the last valid message of the child, if any.
+         */
+        Optional<DateTime> getLastSigningTime(String childId);
+    }
+
+    /**
+     * Builds the response for a valid request. Record the signing time of the request here, it is used to validate
+     * the next message of the same child.
+     */
+    @FunctionalInterface
+    public interface RequestHandler<R> {
+        R handle(String childId, ProvisioningCmsObject request);
+    }
+
+    @Value
+    public static class IncomingMessage {
+        String childId;
+        byte[] encoded;
+    }
+
+    private final ChildResolver childResolver;
+    private final RequestHandler<R> requestHandler;
+    private ValidationOptions validationOptions = ValidationOptions.strictValidation();
+    private Executor executor = ForkJoinPool.commonPool();
+
+    /**
+     * The last message submitted per child that is still being processed. Completed messages are removed, so this
+     * only holds children with messages in flight.
+     */
+    private final ConcurrentMap<String, CompletableFuture<ProvisioningMessageResult<R>>> lastSubmitted = new ConcurrentHashMap<>();
+
+    public ProvisioningMessagePipeline(ChildResolver childResolver, RequestHandler<R> requestHandler) {
+        this.childResolver = requireNonNull(childResolver, "childResolver is required");
+        this.requestHandler = requireNonNull(requestHandler, "requestHandler is required");
+    }
+
+    /**
+     * Default: {@link ValidationOptions#strictValidation()}
+     */
+    public ProvisioningMessagePipeline<R> withValidationOptions(ValidationOptions validationOptions) {
+        this.validationOptions = validationOptions;
+        return this;
+    }
+
+    /**
+     * Default: {@link ForkJoinPool#commonPool()}
+     */
+    public ProvisioningMessagePipeline<R> withExecutor(Executor executor) {
+        this.executor = executor;
+        return this;
+    }
+
+    /**
+     * Submits a message for processing. The returned future completes exceptionally when the child is unknown or the
+     * request handler fails, this does not affect later messages of the same child.
+     */
+    public CompletableFuture<ProvisioningMessageResult<R>> submit(String childId, byte[] encoded) {
+        requireNonNull(childId, "childId is required");
+        requireNonNull(encoded, "encoded is required");
+
+        CompletableFuture<ProvisioningMessageResult<R>> result = lastSubmitted.compute(childId, (id, previous) -> {
+            CompletableFuture<?> predecessor = previous == null ? CompletableFuture.completedFuture(null) : previous.handle((r, e) -> null);
+            return predecessor.thenApplyAsync(ignored -> process(childId, encoded), executor);
+        });
+        result.whenComplete((r, e) -> lastSubmitted.remove(childId, result));
+        return result;
+    }
+
+    /**
+     * Takes all messages currently in the queue and submits them in queue order.
+     *
+     * @return the futures of the submitted messages, in queue order.
+     */
+    public List<CompletableFuture<ProvisioningMessageResult<R>>> submitAll(Queue<IncomingMessage> queue) {
+        List<CompletableFuture<ProvisioningMessageResult<R>>> results = new ArrayList<>();
+        IncomingMessage message;
+        while ((message = queue.poll()) != null) {
+            results.add(submit(message.getChildId(), message.getEncoded()));
+        }
+        return results;
+    }
+
+    private ProvisioningMessageResult<R> process(String childId, byte[] encoded) {
+        ProvisioningIdentityCertificate identityCertificate = childResolver.getIdentityCertificate(childId);
+        if (identityCertificate == null) {
+            throw new IllegalArgumentException("unknown child: " + childId);
+        }
+
+        ValidationResult validationResult = ValidationResult.withLocation(childId);
+        ProvisioningCmsObjectParser parser = new ProvisioningCmsObjectParser(validationResult);
+        parser.parseCms(childId, encoded);
+        if (validationResult.hasFailures()) {
+            return new ProvisioningMessageResult<>(childId, validationResult, null, null);
+        }
+        ProvisioningCmsObject request = parser.getProvisioningCmsObject();
+
+        ProvisioningCmsObjectValidator validator = new ProvisioningCmsObjectValidator(validationOptions, childResolver.getLastSigningTime(childId), request, identityCertificate);
+        validator.validate(validationResult);
+        if (validationResult.hasFailures()) {
+            return new ProvisioningMessageResult<>(childId, validationResult, request, null);
+        }
+
+        return new ProvisioningMessageResult<>(childId, validationResult, request, requestHandler.handle(childId, request));
+    }
+}
@@ -0,0 +1,27 @@
+package net.ripe.rpki.commons.provisioning.cms;
+
+import lombok.Value;
+import net.ripe.rpki.commons.validation.ValidationResult;
+
+/**
+ * The outcome of processing an up-down message by the {@link ProvisioningMessagePipeline}.
+ *
+ * @param <R> the type of response built by the request handler.
+ */
+@Value
+public class ProvisioningMessageResult<R> {
+    String childId;
+    ValidationResult validationResult;
+    /**
+     * The parsed request, or null when the message could not be parsed.
+     */
+    ProvisioningCmsObject request;
+    /**
+     * The response built by the request handler, or null when the request is not valid.
+     */
+    R response;
+
+    public boolean isValid() {
+        return !validationResult.hasFailures();
+    }
+}
@@ -32,7 +32,7 @@ public class PublisherRequestSerializer extends IdentitySerializer<PublisherRequ
     @Override
     public PublisherRequest deserialize(String xml) {
         try (final StringReader characterStream = new StringReader(xml)) {
-            final Document doc = XML.newNamespaceAwareDocumentBuilder().parse(new InputSource(characterStream));
+            final Document doc = XML.getNamespaceAwareDocumentBuilder().parse(new InputSource(characterStream));
 
             final Element root = getElement(doc, "publisher_request")
                     .orElseThrow(() -> new IdentitySerializerException("publisher_request element not found"));
@@ -68,7 +68,7 @@ public class PublisherRequestSerializer extends IdentitySerializer<PublisherRequ
     @Override
     public String serialize(PublisherRequest publisherRequest) {
         try {
-            final Document document = XML.newNamespaceAwareDocumentBuilder().newDocument();
+            final Document document = XML.getNamespaceAwareDocumentBuilder().newDocument();
 
             final Element requestElement = document.createElementNS(XMLNS, "publisher_request");
             requestElement.setAttribute("version", Integer.toString(publisherRequest.getVersion()));
@@ -27,7 +27,7 @@ public class RepositoryResponseSerializer extends IdentitySerializer<RepositoryR
     @Override
     public RepositoryResponse deserialize(String xml) {
         try (final StringReader characterStream = new StringReader(xml)) {
-            final Document doc = XML.newNamespaceAwareDocumentBuilder().parse(new InputSource(characterStream));
+            final Document doc = XML.getNamespaceAwareDocumentBuilder().parse(new InputSource(characterStream));
 
             final Element root = getElement(doc, "repository_response")
                     .orElseThrow(() -> new IdentitySerializerException("repository_response element not found"));
@@ -62,7 +62,7 @@ public class RepositoryResponseSerializer extends IdentitySerializer<RepositoryR
     @Override
     public String serialize(RepositoryResponse repositoryResponse) {
         try {
-            final Document document = XML.newNamespaceAwareDocumentBuilder().newDocument();
+            final Document document = XML.getNamespaceAwareDocumentBuilder().newDocument();
 
             final Element requestElement = document.createElementNS(XMLNS, "repository_response");
             requestElement.setAttribute("version", Integer.toString(repositoryResponse.getVersion()));
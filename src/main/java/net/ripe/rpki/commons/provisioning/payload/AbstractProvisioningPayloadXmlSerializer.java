@@ -31,7 +31,7 @@ import java.util.stream.Collectors;
 import static net.ripe.rpki.commons.provisioning.payload.AbstractProvisioningPayload.SUPPORTED_VERSION;
 
 public abstract class AbstractProvisioningPayloadXmlSerializer<T extends AbstractProvisioningPayload> extends DomXmlSerializer<T> {
-    private static final String XMLNS = "http://www.apnic.net/specs/rescerts/up-down/";
+    static final String XMLNS = "http://www.apnic.net/specs/rescerts/up-down/";
 
     /**
      * We use the MIME decoder (RFC 2045) here to make the ProcessApnicPdusTest#apnic_pdu_2011_08_15_1_has_errors test
@@ -69,7 +69,7 @@ public abstract class AbstractProvisioningPayloadXmlSerializer<T extends Abstrac
     @Override
     public T deserialize(String xml) {
         try (final Reader characterStream = new StringReader(xml)) {
-            Document doc = XML.newNamespaceAwareDocumentBuilder().parse(new InputSource(characterStream));
+            Document doc = XML.getNamespaceAwareDocumentBuilder().parse(new InputSource(characterStream));
 
             Element message = getElement(doc, "message")
                     .orElseThrow(() -> new DomXmlSerializerException("message element not found"));
@@ -110,7 +110,7 @@ public abstract class AbstractProvisioningPayloadXmlSerializer<T extends Abstrac
     @Override
     public String serialize(T payload) {
         try {
-            final Document document = XML.newNamespaceAwareDocumentBuilder().newDocument();
+            final Document document = XML.getNamespaceAwareDocumentBuilder().newDocument();
 
             final Element message = document.createElementNS(xmlns, "message");
             message.setAttribute("version", String.valueOf(payload.getVersion()));
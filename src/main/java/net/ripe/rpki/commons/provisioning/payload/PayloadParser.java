@@ -14,21 +14,25 @@ import net.ripe.rpki.commons.provisioning.payload.revocation.request.Certificate
 import net.ripe.rpki.commons.provisioning.payload.revocation.request.CertificateRevocationRequestPayloadSerializer;
 import net.ripe.rpki.commons.provisioning.payload.revocation.response.CertificateRevocationResponsePayload;
 import net.ripe.rpki.commons.provisioning.payload.revocation.response.CertificateRevocationResponsePayloadSerializer;
+import net.ripe.rpki.commons.util.XML;
 import net.ripe.rpki.commons.validation.ValidationResult;
 import net.ripe.rpki.commons.validation.ValidationString;
+import net.ripe.rpki.commons.xml.DomXmlSerializerException;
 import net.ripe.rpki.commons.xml.XmlSerializer;
 
-import java.util.HashMap;
-import java.util.Map;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.Optional;
 
 import static net.ripe.rpki.commons.validation.ValidationString.VALID_PAYLOAD_TYPE;
 
 
 public final class PayloadParser {
 
-    private static final Pattern TYPE_PATTERN = Pattern.compile(".*<message[^>]*type=['\"]([a-z|\\_]*)['\"].*", Pattern.DOTALL);
+    private static final String MESSAGE_ELEMENT = "message";
+    private static final String TYPE_ATTRIBUTE = "type";
 
     private static final XmlSerializer<ResourceClassListResponsePayload> LIST_RESPONSE_SERIALIZER = new ResourceClassListResponsePayloadSerializer();
     private static final XmlSerializer<ResourceClassListQueryPayload> LIST_SERIALIZER = new ResourceClassListQueryPayloadSerializer();
@@ -38,37 +42,47 @@ public final class PayloadParser {
     private static final XmlSerializer<CertificateRevocationResponsePayload> REVOKE_RESPONSE_SERIALIZER = new CertificateRevocationResponsePayloadSerializer();
     private static final XmlSerializer<RequestNotPerformedResponsePayload> ERROR_RESPONSE_SERIALIZER = new RequestNotPerformedResponsePayloadSerializer();
 
-    private static final Map<PayloadMessageType, XmlSerializer<? extends AbstractProvisioningPayload>> TYPE_MAP = new HashMap<>();
-
-    static {
-        TYPE_MAP.put(PayloadMessageType.list, LIST_SERIALIZER);
-        TYPE_MAP.put(PayloadMessageType.list_response, LIST_RESPONSE_SERIALIZER);
-        TYPE_MAP.put(PayloadMessageType.issue, ISSUE_SERIALIZER);
-        TYPE_MAP.put(PayloadMessageType.issue_response, ISSUE_RESPONSE_SERIALIZER);
-        TYPE_MAP.put(PayloadMessageType.revoke, REVOKE_SERIALIZER);
-        TYPE_MAP.put(PayloadMessageType.revoke_response, REVOKE_RESPONSE_SERIALIZER);
-        TYPE_MAP.put(PayloadMessageType.error_response, ERROR_RESPONSE_SERIALIZER);
-    }
+    private static final StaxProvisioningPayloadSerializer STAX_SERIALIZER = new StaxProvisioningPayloadSerializer();
 
     private PayloadParser() {
     }
 
+    /**
+     * Parses the payload with {@link StaxProvisioningPayloadSerializer}, continuing on the event stream that was used
+     * to detect the message type.
+     */
     public static AbstractProvisioningPayload parse(String payloadXml, ValidationResult validationResult) {
-        Matcher matcher = TYPE_PATTERN.matcher(payloadXml);
-        validationResult.rejectIfFalse(matcher.matches(), ValidationString.FOUND_PAYLOAD_TYPE);
+        try {
+            XMLStreamReader reader = XML.newXMLStreamReader(new StringReader(payloadXml));
+            try {
+                return parse(reader, validationResult);
+            } finally {
+                reader.close();
+            }
+        } catch (XMLStreamException e) {
+            throw new DomXmlSerializerException(e);
+        }
+    }
+
+    private static AbstractProvisioningPayload parse(XMLStreamReader reader, ValidationResult validationResult) throws XMLStreamException {
+        Optional<String> messageType;
+        try {
+            messageType = readMessageType(reader);
+        } catch (XMLStreamException e) {
+            messageType = Optional.empty();
+        }
+        validationResult.rejectIfFalse(messageType.isPresent(), ValidationString.FOUND_PAYLOAD_TYPE);
         if (validationResult.hasFailures()) {
             return null;
         }
 
-        String type = matcher.group(1);
-        validationResult.rejectIfFalse(PayloadMessageType.containsAsEnum(type), VALID_PAYLOAD_TYPE);
+        String type = messageType.get();
+        validationResult.rejectIfFalse(Arrays.stream(PayloadMessageType.values()).anyMatch(value -> value.name().equals(type)), VALID_PAYLOAD_TYPE);
         if (validationResult.hasFailures()) {
             return null;
         }
 
-        PayloadMessageType messageType = PayloadMessageType.valueOf(type);
-        XmlSerializer<? extends AbstractProvisioningPayload> serializer = TYPE_MAP.get(messageType);
-        AbstractProvisioningPayload payload = serializer.deserialize(payloadXml);
+        AbstractProvisioningPayload payload = STAX_SERIALIZER.deserialize(reader);
         validationResult.rejectIfFalse(AbstractProvisioningPayload.SUPPORTED_VERSION.equals(payload.getVersion()), ValidationString.VALID_PAYLOAD_VERSION);
         if (validationResult.hasFailures()) {
             return null;
@@ -77,6 +91,20 @@ public final class PayloadParser {
         return payload;
     }
 
+    /**
+     * Advances the reader to the root element and reads the message type from its attributes. The reader is left
+     * positioned at the root element, so the same event stream can be handed on to a streaming deserializer.
+     *
+     * @return the message type, or empty when the root element is not a message or has no type.
+     */
+    public static Optional<String> readMessageType(XMLStreamReader reader) throws XMLStreamException {
+        reader.nextTag();
+        if (!MESSAGE_ELEMENT.equals(reader.getLocalName())) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(reader.getAttributeValue(null, TYPE_ATTRIBUTE));
+    }
+
     public static String serialize(AbstractProvisioningPayload payload) {
         PayloadMessageType type = payload.getType();
         switch (type) {
@@ -0,0 +1,557 @@
+package net.ripe.rpki.commons.provisioning.payload;
+
+import net.ripe.rpki.commons.crypto.x509cert.X509ResourceCertificate;
+import net.ripe.rpki.commons.crypto.x509cert.X509ResourceCertificateParser;
+import net.ripe.rpki.commons.provisioning.payload.common.CertificateElement;
+import net.ripe.rpki.commons.provisioning.payload.common.GenericClassElement;
+import net.ripe.rpki.commons.provisioning.payload.error.NotPerformedError;
+import net.ripe.rpki.commons.provisioning.payload.error.RequestNotPerformedResponsePayload;
+import net.ripe.rpki.commons.provisioning.payload.error.RequestNotPerformedResponsePayloadBuilder;
+import net.ripe.rpki.commons.provisioning.payload.issue.request.CertificateIssuanceRequestElement;
+import net.ripe.rpki.commons.provisioning.payload.issue.request.CertificateIssuanceRequestPayload;
+import net.ripe.rpki.commons.provisioning.payload.issue.request.CertificateIssuanceRequestPayloadBuilder;
+import net.ripe.rpki.commons.provisioning.payload.issue.response.CertificateIssuanceResponseClassElement;
+import net.ripe.rpki.commons.provisioning.payload.issue.response.CertificateIssuanceResponsePayload;
+import net.ripe.rpki.commons.provisioning.payload.issue.response.CertificateIssuanceResponsePayloadBuilder;
+import net.ripe.rpki.commons.provisioning.payload.list.request.ResourceClassListQueryPayloadBuilder;
+import net.ripe.rpki.commons.provisioning.payload.list.response.ResourceClassListResponseClassElement;
+import net.ripe.rpki.commons.provisioning.payload.list.response.ResourceClassListResponsePayload;
+import net.ripe.rpki.commons.provisioning.payload.revocation.CertificateRevocationKeyElement;
+import net.ripe.rpki.commons.provisioning.payload.revocation.request.CertificateRevocationRequestPayload;
+import net.ripe.rpki.commons.provisioning.payload.revocation.response.CertificateRevocationResponsePayload;
+import net.ripe.rpki.commons.util.XML;
+import net.ripe.rpki.commons.validation.ValidationResult;
+import net.ripe.rpki.commons.xml.DomXmlSerializerException;
+import net.ripe.rpki.commons.xml.XmlSerializer;
+import org.bouncycastle.pkcs.PKCS10CertificationRequest;
+import org.joda.time.DateTime;
+
+import javax.xml.XMLConstants;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import static net.ripe.rpki.commons.provisioning.payload.AbstractProvisioningPayload.SUPPORTED_VERSION;
+import static net.ripe.rpki.commons.provisioning.payload.AbstractProvisioningPayloadXmlSerializer.CERTIFICATE_URL_LIST_CONVERTER;
+import static net.ripe.rpki.commons.provisioning.payload.AbstractProvisioningPayloadXmlSerializer.DATE_TIME_CONVERTER;
+import static net.ripe.rpki.commons.provisioning.payload.AbstractProvisioningPayloadXmlSerializer.IP_RESOURCE_SET_PROVISIONING_CONVERTER;
+import static net.ripe.rpki.commons.provisioning.payload.AbstractProvisioningPayloadXmlSerializer.XMLNS;
+
+/**
+ * StAX based serializer for all up-down payload types, producing and accepting the same XML as the DOM based
+ * {@link AbstractProvisioningPayloadXmlSerializer} subclasses.
+ *
+ * No document tree is built. Certificates and certificate requests are base64 decoded straight from the character
+ * events of the parser, so a large list_response never holds the base64 text of its certificates in memory. Errors
+ * are reported with a {@link DomXmlSerializerException}, just like the DOM based serializers do. Instances are
+ * stateless and thread safe.
+ */
+public class StaxProvisioningPayloadSerializer implements XmlSerializer<AbstractProvisioningPayload> {
+
+    /**
+     * The MIME decoder, like {@link AbstractProvisioningPayloadXmlSerializer}, to accept line breaks in the base64 text.
+     */
+    private static final Base64.Decoder BASE64_DECODER = Base64.getMimeDecoder();
+
+    @Override
+    public String serialize(AbstractProvisioningPayload payload) {
+        try {
+            StringWriter out = new StringWriter();
+            XMLStreamWriter writer = XML.newXMLStreamWriter(out);
+            writer.writeStartDocument("UTF-8", "1.0");
+            writer.setDefaultNamespace(XMLNS);
+            writer.writeStartElement(XMLNS, "message");
+            writer.writeDefaultNamespace(XMLNS);
+            writer.writeAttribute("version", String.valueOf(payload.getVersion()));
+            writer.writeAttribute("sender", payload.getSender());
+            writer.writeAttribute("recipient", payload.getRecipient());
+            writer.writeAttribute("type", String.valueOf(payload.getType()));
+            writePayload(writer, payload);
+            writer.writeEndElement();
+            writer.writeEndDocument();
+            writer.close();
+            return out.toString();
+        } catch (XMLStreamException | IOException e) {
+            throw new DomXmlSerializerException(e);
+        }
+    }
+
+    @Override
+    public AbstractProvisioningPayload deserialize(String xml) {
+        try {
+            XMLStreamReader reader = XML.newXMLStreamReader(new StringReader(xml));
+            try {
+                reader.nextTag();
+                return deserialize(reader);
+            } finally {
+                reader.close();
+            }
+        } catch (XMLStreamException e) {
+            throw new DomXmlSerializerException(e);
+        }
+    }
+
+    /**
+     * Deserializes the message the reader is positioned at, for example after reading the message type with
+     * {@link PayloadParser#readMessageType(XMLStreamReader)}. The reader is left at the end of the message element.
+     */
+    public AbstractProvisioningPayload deserialize(XMLStreamReader reader) throws XMLStreamException {
+        if (reader.getEventType() != XMLStreamConstants.START_ELEMENT || !isElement(reader, "message")) {
+            throw new DomXmlSerializerException("message element not found");
+        }
+
+        String versionString = getRequiredAttributeValue(reader, "version");
+        int version;
+        try {
+            version = Integer.parseUnsignedInt(versionString);
+        } catch (NumberFormatException e) {
+            throw new DomXmlSerializerException("version attribute is not a number: " + versionString, e);
+        }
+        if (!SUPPORTED_VERSION.equals(version)) {
+            throw new DomXmlSerializerException("version attribute is not '1': " + version);
+        }
+
+        String sender = getRequiredAttributeValue(reader, "sender");
+        String recipient = getRequiredAttributeValue(reader, "recipient");
+        String typeString = getRequiredAttributeValue(reader, "type");
+        PayloadMessageType type;
+        try {
+            type = PayloadMessageType.valueOf(typeString);
+        } catch (IllegalArgumentException e) {
+            throw new DomXmlSerializerException("type is not supported: " + typeString, e);
+        }
+
+        AbstractProvisioningPayload result = readPayload(reader, type);
+        result.setSender(sender);
+        result.setRecipient(recipient);
+        return result;
+    }
+
+    private AbstractProvisioningPayload readPayload(XMLStreamReader reader, PayloadMessageType type) throws XMLStreamException {
+        switch (type) {
+            case list:
+                readChildren(reader, name -> skipElement(reader));
+                return new ResourceClassListQueryPayloadBuilder().build();
+            case list_response: {
+                List<ResourceClassListResponseClassElement> classes = new ArrayList<>();
+                readChildren(reader, name -> {
+                    if ("class".equals(name)) {
+                        classes.add(readClassElement(reader, ResourceClassListResponseClassElement::new));
+                    } else {
+                        skipElement(reader);
+                    }
+                });
+                return new ResourceClassListResponsePayload(classes);
+            }
+            case issue:
+                return readSingleChild(reader, "request", () -> readIssuanceRequest(reader));
+            case issue_response: {
+                CertificateIssuanceResponseClassElement clazz = readSingleChild(reader, "class", () -> readClassElement(reader, CertificateIssuanceResponseClassElement::new));
+                if (clazz.getCertificateElements().size() != 1) {
+                    throw new DomXmlSerializerException(String.format(clazz.getCertificateElements().isEmpty() ? "single element '%s' not found" : "multiple elements '%s' present, single element expected", "certificate"));
+                }
+                return new CertificateIssuanceResponsePayloadBuilder().withClassElement(clazz).build();
+            }
+            case revoke:
+                return new CertificateRevocationRequestPayload(readSingleChild(reader, "key", () -> readKeyElement(reader)));
+            case revoke_response:
+                return new CertificateRevocationResponsePayload(readSingleChild(reader, "key", () -> readKeyElement(reader)));
+            case error_response:
+                return readErrorResponse(reader);
+            default:
+                throw new DomXmlSerializerException("type is not supported: " + type);
+        }
+    }
+
+    private CertificateIssuanceRequestPayload readIssuanceRequest(XMLStreamReader reader) throws XMLStreamException {
+        CertificateIssuanceRequestPayloadBuilder builder = new CertificateIssuanceRequestPayloadBuilder()
+                .withClassName(getRequiredAttributeValue(reader, "class_name"))
+                .withAllocatedAsn(getAttributeValue(reader, "req_resource_set_as").map(IP_RESOURCE_SET_PROVISIONING_CONVERTER::fromString).orElse(null))
+                .withIpv4ResourceSet(getAttributeValue(reader, "req_resource_set_ipv4").map(IP_RESOURCE_SET_PROVISIONING_CONVERTER::fromString).orElse(null))
+                .withIpv6ResourceSet(getAttributeValue(reader, "req_resource_set_ipv6").map(IP_RESOURCE_SET_PROVISIONING_CONVERTER::fromString).orElse(null));
+        try {
+            builder.withCertificateRequest(new PKCS10CertificationRequest(readBase64(reader)));
+        } catch (IOException e) {
+            throw new DomXmlSerializerException(e);
+        }
+        return builder.build();
+    }
+
+    private CertificateRevocationKeyElement readKeyElement(XMLStreamReader reader) throws XMLStreamException {
+        String className = getRequiredAttributeValue(reader, "class_name");
+        String ski = getRequiredAttributeValue(reader, "ski");
+        skipElement(reader);
+        return new CertificateRevocationKeyElement(className, ski);
+    }
+
+    private RequestNotPerformedResponsePayload readErrorResponse(XMLStreamReader reader) throws XMLStreamException {
+        List<String> statuses = new ArrayList<>(1);
+        List<String> descriptions = new ArrayList<>(1);
+        readChildren(reader, name -> {
+            if ("status".equals(name)) {
+                statuses.add(readText(reader));
+            } else if ("description".equals(name)) {
+                descriptions.add(readText(reader));
+            } else {
+                skipElement(reader);
+            }
+        });
+        if (statuses.size() != 1) {
+            throw new DomXmlSerializerException(String.format(statuses.isEmpty() ? "single element '%s' not found" : "multiple elements '%s' present, single element expected", "status"));
+        }
+        NotPerformedError error;
+        try {
+            error = NotPerformedError.getError(Integer.parseInt(statuses.get(0).trim()));
+        } catch (NumberFormatException e) {
+            throw new DomXmlSerializerException("Illegal status code", e);
+        }
+        if (error == null) {
+            throw new DomXmlSerializerException("Illegal status code");
+        }
+        RequestNotPerformedResponsePayloadBuilder builder = new RequestNotPerformedResponsePayloadBuilder();
+        builder.withError(error);
+        builder.withDescription(descriptions.isEmpty() ? null : descriptions.get(0));
+        return builder.build();
+    }
+
+    private <U extends GenericClassElement> U readClassElement(XMLStreamReader reader, Supplier<U> clazzSupplier) throws XMLStreamException {
+        U clazz = clazzSupplier.get();
+        clazz.setCertUris(CERTIFICATE_URL_LIST_CONVERTER.fromString(getRequiredAttributeValue(reader, "cert_url")));
+        clazz.setClassName(getRequiredAttributeValue(reader, "class_name"));
+        clazz.setResourceSetAs(IP_RESOURCE_SET_PROVISIONING_CONVERTER.fromString(getRequiredAttributeValue(reader, "resource_set_as")));
+        clazz.setResourceSetIpv4(IP_RESOURCE_SET_PROVISIONING_CONVERTER.fromString(getRequiredAttributeValue(reader, "resource_set_ipv4")));
+        clazz.setResourceSetIpv6(IP_RESOURCE_SET_PROVISIONING_CONVERTER.fromString(getRequiredAttributeValue(reader, "resource_set_ipv6")));
+        clazz.setValidityNotAfter((DateTime) DATE_TIME_CONVERTER.fromString(getRequiredAttributeValue(reader, "resource_set_notafter")));
+        clazz.setSiaHeadUri(getAttributeValue(reader, "suggested_sia_head").orElse(null));
+
+        List<CertificateElement> certificateElements = new ArrayList<>();
+        List<X509ResourceCertificate> issuers = new ArrayList<>(1);
+        readChildren(reader, name -> {
+            if ("certificate".equals(name)) {
+                certificateElements.add(readCertificateElement(reader));
+            } else if ("issuer".equals(name)) {
+                issuers.add(parseX509ResourceCertificate(readBase64(reader)));
+            } else {
+                skipElement(reader);
+            }
+        });
+        if (issuers.size() != 1) {
+            throw new DomXmlSerializerException(String.format(issuers.isEmpty() ? "single element '%s' not found" : "multiple elements '%s' present, single element expected", "issuer"));
+        }
+        clazz.setCertificateElements(certificateElements);
+        clazz.setIssuer(issuers.get(0));
+        return clazz;
+    }
+
+    private CertificateElement readCertificateElement(XMLStreamReader reader) throws XMLStreamException {
+        CertificateElement result = new CertificateElement();
+        result.setIssuerCertificatePublicationLocation(CERTIFICATE_URL_LIST_CONVERTER.fromString(getRequiredAttributeValue(reader, "cert_url")));
+        result.setAllocatedAsn(getAttributeValue(reader, "req_resource_set_as").map(IP_RESOURCE_SET_PROVISIONING_CONVERTER::fromString).orElse(null));
+        result.setAllocatedIpv4(getAttributeValue(reader, "req_resource_set_ipv4").map(IP_RESOURCE_SET_PROVISIONING_CONVERTER::fromString).orElse(null));
+        result.setAllocatedIpv6(getAttributeValue(reader, "req_resource_set_ipv6").map(IP_RESOURCE_SET_PROVISIONING_CONVERTER::fromString).orElse(null));
+        result.setCertificate(parseX509ResourceCertificate(readBase64(reader)));
+        return result;
+    }
+
+    private static X509ResourceCertificate parseX509ResourceCertificate(byte[] encoded) {
+        ValidationResult result = ValidationResult.withLocation("certificate.cer").withoutStoringPassingChecks();
+        X509ResourceCertificate certificate = X509ResourceCertificateParser.parseCertificate(result, encoded);
+        if (result.hasFailureForCurrentLocation()) {
+            throw new DomXmlSerializerException("resource certificate validation failed: " + result);
+        }
+        if (certificate == null) {
+            throw new DomXmlSerializerException("certificate is not a resource certificate");
+        }
+        return certificate;
+    }
+
+    private void writePayload(XMLStreamWriter writer, AbstractProvisioningPayload payload) throws XMLStreamException, IOException {
+        switch (payload.getType()) {
+            case list:
+                break;
+            case list_response:
+                for (GenericClassElement clazz : ((ResourceClassListResponsePayload) payload).getClassElements()) {
+                    writeClassElement(writer, clazz);
+                }
+                break;
+            case issue:
+                writeIssuanceRequest(writer, ((CertificateIssuanceRequestPayload) payload).getRequestElement());
+                break;
+            case issue_response:
+                writeClassElement(writer, ((CertificateIssuanceResponsePayload) payload).getClassElement());
+                break;
+            case revoke:
+                writeKeyElement(writer, ((CertificateRevocationRequestPayload) payload).getKeyElement());
+                break;
+            case revoke_response:
+                writeKeyElement(writer, ((CertificateRevocationResponsePayload) payload).getKeyElement());
+                break;
+            case error_response: {
+                RequestNotPerformedResponsePayload error = (RequestNotPerformedResponsePayload) payload;
+                writer.writeStartElement(XMLNS, "status");
+                writer.writeCharacters(String.valueOf(error.getStatus().getErrorCode()));
+                writer.writeEndElement();
+                if (error.getDescription() != null) {
+                    writer.writeStartElement(XMLNS, "description");
+                    writer.writeAttribute(XMLConstants.XML_NS_PREFIX, XMLConstants.XML_NS_URI, "lang", "en-US");
+                    writer.writeCharacters(error.getDescription());
+                    writer.writeEndElement();
+                }
+                break;
+            }
+            default:
+                throw new UnsupportedOperationException("Don't have serializer for PayloadMessageType: " + payload.getType());
+        }
+    }
+
+    private void writeIssuanceRequest(XMLStreamWriter writer, CertificateIssuanceRequestElement request) throws XMLStreamException, IOException {
+        writer.writeStartElement(XMLNS, "request");
+        writer.writeAttribute("class_name", request.getClassName());
+        if (request.getAllocatedAsn() != null) {
+            writer.writeAttribute("req_resource_set_as", IP_RESOURCE_SET_PROVISIONING_CONVERTER.toString(request.getAllocatedAsn()));
+        }
+        if (request.getAllocatedIpv4() != null) {
+            writer.writeAttribute("req_resource_set_ipv4", IP_RESOURCE_SET_PROVISIONING_CONVERTER.toString(request.getAllocatedIpv4()));
+        }
+        if (request.getAllocatedIpv6() != null) {
+            writer.writeAttribute("req_resource_set_ipv6", IP_RESOURCE_SET_PROVISIONING_CONVERTER.toString(request.getAllocatedIpv6()));
+        }
+        writer.writeCharacters(Base64.getEncoder().encodeToString(request.getCertificateRequest().getEncoded()));
+        writer.writeEndElement();
+    }
+
+    private void writeKeyElement(XMLStreamWriter writer, CertificateRevocationKeyElement key) throws XMLStreamException {
+        writer.writeStartElement(XMLNS, "key");
+        writer.writeAttribute("class_name", key.getClassName());
+        writer.writeAttribute("ski", key.getPublicKeyHash());
+        writer.writeEndElement();
+    }
+
+    private void writeClassElement(XMLStreamWriter writer, GenericClassElement classElement) throws XMLStreamException {
+        writer.writeStartElement(XMLNS, "class");
+        writer.writeAttribute("cert_url", CERTIFICATE_URL_LIST_CONVERTER.toString(classElement.getCertificateAuthorityUri()));
+        writer.writeAttribute("class_name", classElement.getClassName());
+        writer.writeAttribute("resource_set_as", IP_RESOURCE_SET_PROVISIONING_CONVERTER.toString(classElement.getResourceSetAsn()));
+        writer.writeAttribute("resource_set_ipv4", IP_RESOURCE_SET_PROVISIONING_CONVERTER.toString(classElement.getResourceSetIpv4()));
+        writer.writeAttribute("resource_set_ipv6", IP_RESOURCE_SET_PROVISIONING_CONVERTER.toString(classElement.getResourceSetIpv6()));
+        writer.writeAttribute("resource_set_notafter", DATE_TIME_CONVERTER.toString(classElement.getValidityNotAfter()));
+        if (classElement.getSiaHeadUri() != null) {
+            writer.writeAttribute("suggested_sia_head", classElement.getSiaHeadUri());
+        }
+        for (CertificateElement certificate : classElement.getCertificateElements()) {
+            writer.writeStartElement(XMLNS, "certificate");
+            writer.writeAttribute("cert_url", CERTIFICATE_URL_LIST_CONVERTER.toString(certificate.getIssuerCertificatePublicationUris()));
+            if (certificate.getAllocatedAsn() != null) {
+                writer.writeAttribute("req_resource_set_as", IP_RESOURCE_SET_PROVISIONING_CONVERTER.toString(certificate.getAllocatedAsn()));
+            }
+            if (certificate.getAllocatedIpv4() != null) {
+                writer.writeAttribute("req_resource_set_ipv4", IP_RESOURCE_SET_PROVISIONING_CONVERTER.toString(certificate.getAllocatedIpv4()));
+            }
+            if (certificate.getAllocatedIpv6() != null) {
+                writer.writeAttribute("req_resource_set_ipv6", IP_RESOURCE_SET_PROVISIONING_CONVERTER.toString(certificate.getAllocatedIpv6()));
+            }
+            writer.writeCharacters(certificate.getCertificate().getBase64String());
+            writer.writeEndElement();
+        }
+        X509ResourceCertificate issuer = classElement.getIssuer();
+        if (issuer != null) {
+            writer.writeStartElement(XMLNS, "issuer");
+            writer.writeCharacters(issuer.getBase64String());
+            writer.writeEndElement();
+        }
+        writer.writeEndElement();
+    }
+
+    @FunctionalInterface
+    private interface ElementReader<T> {
+        T read() throws XMLStreamException;
+    }
+
+    @FunctionalInterface
+    private interface ChildHandler {
+        /**
+         * Handles the child element the reader is positioned at, leaving the reader at the end of that element.
+         */
+        void handle(String localName) throws XMLStreamException;
+    }
+
+    private static boolean isElement(XMLStreamReader reader, String localName) {
+        return XMLNS.equals(reader.getNamespaceURI()) && localName.equals(reader.getLocalName());
+    }
+
+    private static String getRequiredAttributeValue(XMLStreamReader reader, String attr) {
+        return getAttributeValue(reader, attr).orElseThrow(() -> new DomXmlSerializerException(String.format("attribute '%s' not found", attr)));
+    }
+
+    private static Optional<String> getAttributeValue(XMLStreamReader reader, String attr) {
+        return Optional.ofNullable(reader.getAttributeValue(null, attr));
+    }
+
+    /**
+     * Calls the handler for every child element in the up-down namespace and skips other content, leaving the reader
+     * at the end of the current element.
+     */
+    private static void readChildren(XMLStreamReader reader, ChildHandler handler) throws XMLStreamException {
+        int event;
+        while ((event = reader.next()) != XMLStreamConstants.END_ELEMENT) {
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                if (XMLNS.equals(reader.getNamespaceURI())) {
+                    handler.handle(reader.getLocalName());
+                } else {
+                    skipElement(reader);
+                }
+            }
+        }
+    }
+
+    private static <T> T readSingleChild(XMLStreamReader reader, String localName, ElementReader<T> elementReader) throws XMLStreamException {
+        List<T> result = new ArrayList<>(1);
+        readChildren(reader, name -> {
+            if (localName.equals(name)) {
+                result.add(elementReader.read());
+            } else {
+                skipElement(reader);
+            }
+        });
+        if (result.size() != 1) {
+            throw new DomXmlSerializerException(String.format(result.isEmpty() ? "single element '%s' not found" : "multiple elements '%s' present, single element expected", localName));
+        }
+        return result.get(0);
+    }
+
+    private static void skipElement(XMLStreamReader reader) throws XMLStreamException {
+        int depth = 1;
+        while (depth > 0) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            }
+        }
+    }
+
+    private static String readText(XMLStreamReader reader) throws XMLStreamException {
+        StringBuilder result = new StringBuilder();
+        int depth = 1;
+        while (depth > 0) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            } else if (event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA || event == XMLStreamConstants.SPACE) {
+                result.append(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+            }
+        }
+        return result.toString();
+    }
+
+    private static byte[] readBase64(XMLStreamReader reader) throws XMLStreamException {
+        ElementTextInputStream text = new ElementTextInputStream(reader);
+        try (InputStream decoded = BASE64_DECODER.wrap(text)) {
+            byte[] result = decoded.readAllBytes();
+            if (text.skipRemaining()) {
+                throw new DomXmlSerializerException("invalid base64 content: data after padding");
+            }
+            return result;
+        } catch (IOException e) {
+            if (e.getCause() instanceof XMLStreamException) {
+                throw (XMLStreamException) e.getCause();
+            }
+            throw new DomXmlSerializerException("invalid base64 content", e);
+        }
+    }
+
+    /**
+     * The text content of the current element as an ASCII byte stream, read directly from the character events of
+     * the parser. Characters outside of ASCII are not part of the base64 alphabet and are ignored by the MIME decoder,
+     * just like when decoding the text as a string.
+     */
+    private static final class ElementTextInputStream extends InputStream {
+        private final XMLStreamReader reader;
+        private int depth = 1;
+        private char[] chars;
+        private int position;
+        private int end;
+
+        ElementTextInputStream(XMLStreamReader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (!fill()) {
+                return -1;
+            }
+            return toByte(chars[position++]);
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            if (!fill()) {
+                return -1;
+            }
+            int count = Math.min(len, end - position);
+            for (int i = 0; i < count; ++i) {
+                b[off + i] = (byte) toByte(chars[position++]);
+            }
+            return count;
+        }
+
+        /**
+         * Reads up to the end of the element. Like {@link Base64.Decoder#decode(String)} of the MIME decoder, only
+         * characters of the base64 alphabet are rejected after the padding.
+         *
+         * @return true if any base64 characters remained.
+         */
+        boolean skipRemaining() throws IOException {
+            boolean remaining = false;
+            while (fill()) {
+                char c = chars[position++];
+                remaining |= (c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9') || c == '+' || c == '/';
+            }
+            return remaining;
+        }
+
+        private static int toByte(char c) {
+            return c < 0x80 ? c : '?';
+        }
+
+        private boolean fill() throws IOException {
+            try {
+                while (position == end) {
+                    if (depth == 0) {
+                        return false;
+                    }
+                    int event = reader.next();
+                    if (event == XMLStreamConstants.START_ELEMENT) {
+                        depth++;
+                    } else if (event == XMLStreamConstants.END_ELEMENT) {
+                        depth--;
+                    } else if (event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA || event == XMLStreamConstants.SPACE) {
+                        chars = reader.getTextCharacters();
+                        position = reader.getTextStart();
+                        end = position + reader.getTextLength();
+                    }
+                }
+                return true;
+            } catch (XMLStreamException e) {
+                throw new IOException(e);
+            }
+        }
+    }
+}
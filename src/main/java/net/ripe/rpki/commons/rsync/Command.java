@@ -1,10 +1,20 @@
 package net.ripe.rpki.commons.rsync;
 
+import java.io.BufferedReader;
 import java.io.File;
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 
 public class Command extends Thread {
@@ -12,15 +22,21 @@ public class Command extends Thread {
     public static final int NOT_EXECUTED = -1;
     public static final int COMMAND_FAILED = -2;
 
+    /**
+     * Shared pool draining the output of commands started with {@link #executeAsync}. Threads are reused between
+     * commands and are only kept while output is being read.
+     */
+    private static final ExecutorService OUTPUT_DRAINER = Executors.newCachedThreadPool(new DaemonThreadFactory("command-output"));
+
     private List<String> args;
     private Map<String, String> envp;
     private String execDir;
 
-    private int exitStatus = NOT_EXECUTED;
+    private volatile int exitStatus = NOT_EXECUTED;
 
-    private boolean started;
+    private volatile boolean started;
 
-    private Exception exception;
+    private volatile Exception exception;
 
     private List<String> outputLines;
     private List<String> errorLines;
@@ -61,15 +77,93 @@ public class Command extends Thread {
         }
     }
 
-    private int runExternalCommand() {
+    /**
+     * Starts the command without blocking the caller. Output and error lines are passed to the listeners as they are
+     * read instead of being collected, so {@link #getOutputs()} and {@link #getErrors()} stay <code>null</code>.
+     * The output is drained on a shared pool and process exit is observed through {@link Process#onExit()}, so no
+     * thread is dedicated to a running command.
+     *
+     * The returned future completes with the exit status. Cancelling it, or exceeding the timeout (when not
+     * <code>null</code>), forcibly destroys the process; the future then completes exceptionally with a
+     * {@link java.util.concurrent.CancellationException} or {@link java.util.concurrent.TimeoutException} and the
+     * exit status becomes {@link #COMMAND_FAILED}.
+     */
+    public CompletableFuture<Integer> executeAsync(Consumer<String> outputListener, Consumer<String> errorListener, Duration timeout) {
+        return executeAsync(outputListener, errorListener, timeout, OUTPUT_DRAINER);
+    }
+
+    /**
+     * As {@link #executeAsync(Consumer, Consumer, Duration)}, draining the output on the given executor. The executor
+     * must be able to run two tasks per running command, otherwise a command can block on a full output pipe.
+     */
+    public CompletableFuture<Integer> executeAsync(Consumer<String> outputListener, Consumer<String> errorListener, Duration timeout, Executor drainExecutor) {
+        started = true;
+        Process process;
         try {
-            File workDir = (execDir == null) ? null : new File(execDir);
-            ProcessBuilder pb = new ProcessBuilder(args);
-            pb.directory(workDir);
-            if (envp != null) {
-                pb.environment().putAll(envp);
+            process = startProcess();
+        } catch (IOException e) {
+            exception = e;
+            exitStatus = COMMAND_FAILED;
+            return CompletableFuture.failedFuture(new CommandExecutionException(e));
+        }
+
+        CompletableFuture<Void> output = CompletableFuture.runAsync(() -> drain(process, process.getInputStream(), outputListener), drainExecutor);
+        CompletableFuture<Void> errors = CompletableFuture.runAsync(() -> drain(process, process.getErrorStream(), errorListener), drainExecutor);
+
+        CompletableFuture<Integer> result = new CompletableFuture<>();
+        CompletableFuture.allOf(output, errors)
+                .thenCombine(process.onExit(), (ignored, exited) -> exited.exitValue())
+                .whenComplete((status, e) -> {
+                    if (e == null) {
+                        result.complete(status);
+                    } else {
+                        result.completeExceptionally(e);
+                    }
+                });
+        if (timeout != null) {
+            result.orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        }
+        result.whenComplete((status, e) -> {
+            if (e == null) {
+                exitStatus = status;
+            } else {
+                process.destroyForcibly();
+                exception = e instanceof Exception ? (Exception) e : new CommandExecutionException(e);
+                exitStatus = COMMAND_FAILED;
+            }
+        });
+        return result;
+    }
+
+    private static void drain(Process process, InputStream in, Consumer<String> listener) {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (listener != null) {
+                    listener.accept(line);
+                }
+            }
+        } catch (IOException e) {
+            // The stream is closed when the process is destroyed after a cancel or timeout
+            if (process.isAlive()) {
+                throw new CommandExecutionException(e);
             }
-            Process process = pb.start();
+        }
+    }
+
+    private Process startProcess() throws IOException {
+        File workDir = (execDir == null) ? null : new File(execDir);
+        ProcessBuilder pb = new ProcessBuilder(args);
+        pb.directory(workDir);
+        if (envp != null) {
+            pb.environment().putAll(envp);
+        }
+        return pb.start();
+    }
+
+    private int runExternalCommand() {
+        try {
+            Process process = startProcess();
 
             /* Deadlock is possible if the subprocess generates enough output to overflow the system.
              * A robust solution requires draining the process stdout and stderr in separate threads. */
@@ -6,9 +6,11 @@ import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletionException;
 
 public class Rsync {
 
@@ -16,7 +18,11 @@ public class Rsync {
 
     private static final String RSYNC_PROXY = "RSYNC_PROXY";
 
-    private static final String COMMAND = "rsync";
+    private static final String ITEMIZE_CHANGES = "--itemize-changes";
+
+    private static final String STATS = "--stats";
+
+    private static final String DEFAULT_EXECUTABLE = "rsync";
 
     private static final Logger log = LoggerFactory.getLogger(Rsync.class);
 
@@ -36,6 +42,8 @@ public class Rsync {
 
     private String proxy;
 
+    private String executable = DEFAULT_EXECUTABLE;
+
     public Rsync() {
     }
 
@@ -103,6 +111,16 @@ public class Rsync {
         this.proxy = proxy;
     }
 
+    /**
+     * @param executable the rsync(1) binary to run, looked up on the PATH unless absolute. Defaults to "rsync".
+     */
+    public void setExecutable(String executable) {
+        if (executable == null) {
+            throw new IllegalArgumentException("executable must not be null");
+        }
+        this.executable = executable;
+    }
+
     public String[] getErrorLines() {
         return command == null ? null : command.getErrorLines();
     }
@@ -124,26 +142,8 @@ public class Rsync {
     }
 
     public int execute() {
-        List<String> args = new ArrayList<String>();
-        args.add(COMMAND);
-        args.add("--timeout=" + timeoutInSeconds);
-        args.addAll(options);
-        if ((source != null) && (destination != null)) {
-            args.add(source);
-            args.add(destination);
-        }
-
-        final Command rsync;
-        if (proxy != null) {
-            Map<String, String> environment = System.getenv();
-            if (System.getenv(RSYNC_PROXY) == null) {
-                environment = new HashMap<>(environment);
-                environment.put(RSYNC_PROXY, proxy);
-            }
-            rsync = new Command(args, environment);
-        } else {
-            rsync = new Command(args);
-        }
+        List<String> args = buildArguments(options);
+        final Command rsync = createCommand(args);
 
         startedAt = DateTimeUtils.currentTimeMillis();
         try {
@@ -163,6 +163,69 @@ public class Rsync {
         }
     }
 
+    /**
+     * Runs rsync with <code>--itemize-changes</code> and <code>--stats</code> added to the options, passing the
+     * output to the parser while rsync is running. The changed files are reported to the listener of the parser and
+     * the statistics are available from it afterwards. The output is not collected, so {@link #getOutputLines()} and
+     * {@link #getErrorLines()} return <code>null</code> after this.
+     */
+    public int execute(RsyncOutputParser parser) {
+        List<String> itemizedOptions = new ArrayList<>(options);
+        for (String option : new String[]{ITEMIZE_CHANGES, STATS}) {
+            if (!itemizedOptions.contains(option)) {
+                itemizedOptions.add(option);
+            }
+        }
+        List<String> args = buildArguments(itemizedOptions);
+        final Command rsync = createCommand(args);
+        List<String> errors = Collections.synchronizedList(new ArrayList<>());
+
+        startedAt = DateTimeUtils.currentTimeMillis();
+        try {
+            int exitStatus;
+            try {
+                exitStatus = rsync.executeAsync(parser, errors::add, null).join();
+            } catch (CompletionException e) {
+                exitStatus = rsync.getExitStatus();
+            }
+            command = rsync;
+            if (exitStatus != 0) {
+                log.error("rsync command line: " + args);
+                log.error("rsync exit status: " + exitStatus);
+                log.error("rsync stderr: " + errors);
+            }
+
+            return exitStatus;
+        } finally {
+            finishedAt = DateTimeUtils.currentTimeMillis();
+        }
+    }
+
+    private List<String> buildArguments(List<String> options) {
+        List<String> args = new ArrayList<String>();
+        args.add(executable);
+        args.add("--timeout=" + timeoutInSeconds);
+        args.addAll(options);
+        if ((source != null) && (destination != null)) {
+            args.add(source);
+            args.add(destination);
+        }
+        return args;
+    }
+
+    private Command createCommand(List<String> args) {
+        if (proxy != null) {
+            Map<String, String> environment = System.getenv();
+            if (System.getenv(RSYNC_PROXY) == null) {
+                environment = new HashMap<>(environment);
+                environment.put(RSYNC_PROXY, proxy);
+            }
+            return new Command(args, environment);
+        } else {
+            return new Command(args);
+        }
+    }
+
     public long elapsedTime() {
         return finishedAt - startedAt;
     }
@@ -0,0 +1,19 @@
+package net.ripe.rpki.commons.rsync;
+
+import lombok.Value;
+
+/**
+ * A file or directory added, changed or deleted by rsync, as reported by <code>--itemize-changes</code>. The path is
+ * relative to the destination.
+ */
+@Value
+public class RsyncChange {
+
+    public enum Type {
+        ADDED, CHANGED, DELETED
+    }
+
+    Type type;
+    String path;
+    boolean directory;
+}
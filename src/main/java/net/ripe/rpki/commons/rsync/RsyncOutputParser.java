@@ -0,0 +1,117 @@
+package net.ripe.rpki.commons.rsync;
+
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Parses the output of rsync run with <code>--itemize-changes</code> and <code>--stats</code> line by line, passing
+ * each added, changed or deleted file to the listener as soon as it is read and collecting the statistics printed at
+ * the end. Lines that are neither are ignored, so this can be combined with other options such as <code>-v</code>.
+ *
+ * Items whose content was not transferred (update type '.', for example a changed modification time on a directory)
+ * are not reported, since the files themselves did not change.
+ */
+public class RsyncOutputParser implements Consumer<String> {
+
+    private static final Pattern DELETED = Pattern.compile("^\\*deleting\\s+(.+)$");
+    private static final Pattern ITEMIZED = Pattern.compile("^([<>ch.])([fdLDS])(\\S{9,10}) (.+)$");
+    private static final Pattern STATISTIC = Pattern.compile("^([A-Za-z ]+): ([0-9,]+)\\b.*$");
+    private static final Pattern SPEEDUP = Pattern.compile("^total size is [0-9,.]+\\S*\\s+speedup is ([0-9,.]+).*$");
+
+    private final Consumer<RsyncChange> listener;
+
+    private long numberOfFiles;
+    private long numberOfCreatedFiles;
+    private long numberOfDeletedFiles;
+    private long numberOfTransferredFiles;
+    private long totalFileSize;
+    private long totalTransferredFileSize;
+    private long bytesSent;
+    private long bytesReceived;
+    private double speedup;
+
+    public RsyncOutputParser(Consumer<RsyncChange> listener) {
+        this.listener = listener;
+    }
+
+    @Override
+    public void accept(String line) {
+        Matcher matcher = DELETED.matcher(line);
+        if (matcher.matches()) {
+            String path = matcher.group(1);
+            listener.accept(new RsyncChange(RsyncChange.Type.DELETED, path, path.endsWith("/")));
+            return;
+        }
+
+        matcher = ITEMIZED.matcher(line);
+        if (matcher.matches()) {
+            parseItem(matcher.group(1).charAt(0), matcher.group(2).charAt(0), matcher.group(3), matcher.group(4));
+            return;
+        }
+
+        matcher = STATISTIC.matcher(line);
+        if (matcher.matches()) {
+            parseStatistic(matcher.group(1), parseLong(matcher.group(2)));
+            return;
+        }
+
+        matcher = SPEEDUP.matcher(line);
+        if (matcher.matches()) {
+            speedup = Double.parseDouble(matcher.group(1).replace(",", ""));
+        }
+    }
+
+    private void parseItem(char updateType, char fileType, String attributes, String path) {
+        if (updateType == '.') {
+            return;
+        }
+        if (fileType == 'L') {
+            int arrow = path.indexOf(" -> ");
+            path = arrow < 0 ? path : path.substring(0, arrow);
+        }
+        boolean created = attributes.chars().allMatch(c -> c == '+');
+        listener.accept(new RsyncChange(created ? RsyncChange.Type.ADDED : RsyncChange.Type.CHANGED, path, fileType == 'd'));
+    }
+
+    private void parseStatistic(String name, long value) {
+        switch (name) {
+            case "Number of files":
+                numberOfFiles = value;
+                break;
+            case "Number of created files":
+                numberOfCreatedFiles = value;
+                break;
+            case "Number of deleted files":
+                numberOfDeletedFiles = value;
+                break;
+            case "Number of regular files transferred":
+            case "Number of files transferred":
+                numberOfTransferredFiles = value;
+                break;
+            case "Total file size":
+                totalFileSize = value;
+                break;
+            case "Total transferred file size":
+                totalTransferredFileSize = value;
+                break;
+            case "Total bytes sent":
+                bytesSent = value;
+                break;
+            case "Total bytes received":
+                bytesReceived = value;
+                break;
+            default:
+                break;
+        }
+    }
+
+    private static long parseLong(String value) {
+        return Long.parseLong(value.replace(",", ""));
+    }
+
+    public RsyncStatistics getStatistics() {
+        return new RsyncStatistics(numberOfFiles, numberOfCreatedFiles, numberOfDeletedFiles, numberOfTransferredFiles,
+                totalFileSize, totalTransferredFileSize, bytesSent, bytesReceived, speedup);
+    }
+}
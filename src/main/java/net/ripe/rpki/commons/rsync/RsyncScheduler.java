@@ -0,0 +1,284 @@
+package net.ripe.rpki.commons.rsync;
+
+import lombok.Value;
+import org.apache.commons.lang3.Validate;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Runs many rsync fetches concurrently, each with its own {@link Rsync}.
+ *
+ * The number of running fetches is limited globally and per host. A failed fetch (non-zero exit status) is retried
+ * after an exponential backoff, starting at the initial backoff and doubling up to the maximum backoff, until the
+ * maximum number of attempts is reached. A host slot is not held while backing off.
+ *
+ * A job is skipped when the fetch of a parent module, for example <code>rsync://host/repo/</code> for
+ * <code>rsync://host/repo/ta/</code>, is already queued or running and writes to the same place: the destination of
+ * the job is the destination of the parent plus the relative path (<code>dest/repo/ta</code> for a parent fetching
+ * into <code>dest/repo</code>). The result of a skipped job is only known once the parent finishes: it is
+ * {@link Status#SKIPPED} when the parent succeeded and {@link Status#FAILED} when it failed. A nested job with another
+ * destination is fetched on its own. {@link #fetchAll(Collection)} submits parents before their children, so nested
+ * jobs in one batch are deduplicated regardless of their order.
+ */
+public class RsyncScheduler {
+
+    public enum Status {
+        SUCCEEDED, FAILED, SKIPPED
+    }
+
+    @Value
+    public static class Job {
+        URI source;
+        String destination;
+    }
+
+    @Value
+    public static class JobResult {
+        Job job;
+        Status status;
+        /**
+         * Exit status of the last attempt, {@link Command#NOT_EXECUTED} for a skipped job.
+         */
+        int exitStatus;
+        int attempts;
+        /**
+         * Sum of {@link Rsync#elapsedTime()} over all attempts, in milliseconds.
+         */
+        long elapsedTime;
+        /**
+         * Source of the job that covered a skipped job, <code>null</code> otherwise.
+         */
+        URI coveredBy;
+    }
+
+    private int globalConcurrency = 8;
+    private int perHostConcurrency = 2;
+    private int maxAttempts = 3;
+    private Duration initialBackoff = Duration.ofSeconds(1);
+    private Duration maxBackoff = Duration.ofMinutes(1);
+    private Supplier<Rsync> rsyncFactory = Rsync::new;
+    private Executor executor;
+
+    private final Deque<Task> pending = new ArrayDeque<>();
+    private final Map<Job, Task> active = new LinkedHashMap<>();
+    private final Map<String, Integer> runningPerHost = new HashMap<>();
+    private int running;
+
+    public RsyncScheduler withGlobalConcurrency(int globalConcurrency) {
+        Validate.isTrue(globalConcurrency > 0, "global concurrency must be positive");
+        this.globalConcurrency = globalConcurrency;
+        return this;
+    }
+
+    public RsyncScheduler withPerHostConcurrency(int perHostConcurrency) {
+        Validate.isTrue(perHostConcurrency > 0, "per host concurrency must be positive");
+        this.perHostConcurrency = perHostConcurrency;
+        return this;
+    }
+
+    public RsyncScheduler withMaxAttempts(int maxAttempts) {
+        Validate.isTrue(maxAttempts > 0, "max attempts must be positive");
+        this.maxAttempts = maxAttempts;
+        return this;
+    }
+
+    public RsyncScheduler withBackoff(Duration initialBackoff, Duration maxBackoff) {
+        Validate.isTrue(!initialBackoff.isNegative() && initialBackoff.compareTo(maxBackoff) <= 0, "initial backoff must be between zero and max backoff");
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+        return this;
+    }
+
+    /**
+     * Creates the {@link Rsync} for each attempt, use this to set options, a timeout or a proxy. Source and
+     * destination are set by the scheduler.
+     */
+    public RsyncScheduler withRsyncFactory(Supplier<Rsync> rsyncFactory) {
+        this.rsyncFactory = Validate.notNull(rsyncFactory, "rsync factory is required");
+        return this;
+    }
+
+    /**
+     * The executor running the (blocking) fetches. It must be able to run as many tasks as the global concurrency.
+     * By default a cached pool of daemon threads is used, shared by all schedulers.
+     */
+    public RsyncScheduler withExecutor(Executor executor) {
+        this.executor = Validate.notNull(executor, "executor is required");
+        return this;
+    }
+
+    /**
+     * Runs the jobs and waits for all of them to finish. The results are in the order of the jobs.
+     */
+    public List<JobResult> fetchAll(Collection<Job> jobs) {
+        Map<Job, CompletableFuture<JobResult>> futures = new HashMap<>();
+        jobs.stream()
+                .sorted(Comparator.comparingInt(job -> normalizedPath(job.getSource()).length()))
+                .forEach(job -> futures.computeIfAbsent(job, this::submit));
+        return jobs.stream().map(job -> futures.get(job).join()).collect(Collectors.toList());
+    }
+
+    /**
+     * Queues a single job. The returned future completes when the job succeeded, failed its last attempt or was
+     * skipped.
+     */
+    public CompletableFuture<JobResult> submit(Job job) {
+        Task task = new Task(job);
+        synchronized (this) {
+            for (Task other : active.values()) {
+                if (covers(other.job, job)) {
+                    return other.result.thenApply(parent -> coveredResult(job, parent));
+                }
+            }
+            active.put(job, task);
+            pending.add(task);
+            dispatch();
+        }
+        return task.result;
+    }
+
+    private synchronized void dispatch() {
+        Iterator<Task> iterator = pending.iterator();
+        while (running < globalConcurrency && iterator.hasNext()) {
+            Task task = iterator.next();
+            int hostRunning = runningPerHost.getOrDefault(task.host, 0);
+            if (hostRunning < perHostConcurrency) {
+                iterator.remove();
+                running++;
+                runningPerHost.put(task.host, hostRunning + 1);
+                executor().execute(() -> runAttempt(task));
+            }
+        }
+    }
+
+    private void runAttempt(Task task) {
+        int exitStatus;
+        try {
+            Rsync rsync = rsyncFactory.get();
+            rsync.setSource(task.job.getSource().toString());
+            rsync.setDestination(task.job.getDestination());
+            exitStatus = rsync.execute();
+            task.elapsedTime += rsync.elapsedTime();
+        } catch (RuntimeException e) {
+            exitStatus = Command.COMMAND_FAILED;
+        }
+        task.attempts++;
+
+        synchronized (this) {
+            running--;
+            runningPerHost.merge(task.host, -1, Integer::sum);
+            if (exitStatus == 0 || task.attempts >= maxAttempts) {
+                active.remove(task.job, task);
+            }
+        }
+
+        if (exitStatus == 0) {
+            task.result.complete(new JobResult(task.job, Status.SUCCEEDED, exitStatus, task.attempts, task.elapsedTime, null));
+        } else if (task.attempts >= maxAttempts) {
+            task.result.complete(new JobResult(task.job, Status.FAILED, exitStatus, task.attempts, task.elapsedTime, null));
+        } else {
+            CompletableFuture.delayedExecutor(backoff(task.attempts).toMillis(), TimeUnit.MILLISECONDS, executor()).execute(() -> {
+                synchronized (this) {
+                    pending.add(task);
+                }
+                dispatch();
+            });
+        }
+        dispatch();
+    }
+
+    private Executor executor() {
+        return executor != null ? executor : DefaultExecutor.INSTANCE;
+    }
+
+    private static JobResult coveredResult(Job job, JobResult parent) {
+        Status status = parent.getStatus() == Status.SUCCEEDED ? Status.SKIPPED : Status.FAILED;
+        return new JobResult(job, status, parent.getExitStatus(), 0, 0, parent.getJob().getSource());
+    }
+
+    Duration backoff(int failedAttempts) {
+        Duration result = initialBackoff;
+        for (int i = 1; i < failedAttempts && result.compareTo(maxBackoff) < 0; ++i) {
+            result = result.multipliedBy(2);
+        }
+        return result.compareTo(maxBackoff) < 0 ? result : maxBackoff;
+    }
+
+    /**
+     * True when fetching the parent module also fetches the child, i.e. the child is the same location or below it.
+     */
+    static boolean covers(URI parent, URI child) {
+        return equalsIgnoreCase(parent.getScheme(), child.getScheme())
+                && host(parent).equals(host(child))
+                && parent.getPort() == child.getPort()
+                && normalizedPath(child).startsWith(normalizedPath(parent));
+    }
+
+    /**
+     * True when the parent job fetches the source of the child job into the destination of the child job.
+     */
+    static boolean covers(Job parent, Job child) {
+        if (!covers(parent.getSource(), child.getSource())) {
+            return false;
+        }
+        String relativePath = normalizedPath(child.getSource()).substring(normalizedPath(parent.getSource()).length());
+        Path expected = Paths.get(parent.getDestination()).resolve(relativePath).normalize();
+        return expected.equals(Paths.get(child.getDestination()).normalize());
+    }
+
+    private static boolean equalsIgnoreCase(String a, String b) {
+        return a == null ? b == null : a.equalsIgnoreCase(b);
+    }
+
+    private static String host(URI uri) {
+        String host = uri.getHost() != null ? uri.getHost() : uri.getAuthority();
+        return host == null ? "" : host.toLowerCase(Locale.ROOT);
+    }
+
+    private static String normalizedPath(URI uri) {
+        String path = uri.normalize().getPath();
+        if (path == null || path.isEmpty()) {
+            return "/";
+        }
+        return path.endsWith("/") ? path : path + "/";
+    }
+
+    /**
+     * Only created when a scheduler without executor runs its first fetch.
+     */
+    private static class DefaultExecutor {
+        private static final Executor INSTANCE = Executors.newCachedThreadPool(new DaemonThreadFactory("rsync-scheduler"));
+    }
+
+    private static class Task {
+        private final Job job;
+        private final String host;
+        private final CompletableFuture<JobResult> result = new CompletableFuture<>();
+        private int attempts;
+        private long elapsedTime;
+
+        Task(Job job) {
+            this.job = job;
+            this.host = host(job.getSource());
+        }
+    }
+}
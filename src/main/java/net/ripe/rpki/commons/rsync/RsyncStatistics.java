@@ -0,0 +1,23 @@
+package net.ripe.rpki.commons.rsync;
+
+import lombok.Value;
+
+/**
+ * Transfer statistics printed by rsync with <code>--stats</code>. Counts not printed by the rsync version in use
+ * are 0.
+ */
+@Value
+public class RsyncStatistics {
+    long numberOfFiles;
+    long numberOfCreatedFiles;
+    long numberOfDeletedFiles;
+    long numberOfTransferredFiles;
+    long totalFileSize;
+    long totalTransferredFileSize;
+    long bytesSent;
+    long bytesReceived;
+    /**
+     * Total file size divided by the bytes sent and received.
+     */
+    double speedup;
+}
@@ -0,0 +1,168 @@
+package net.ripe.rpki.commons.ta.serializers;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * Common part of the binary trust anchor serializers.
+ *
+ * A message starts with a four byte magic and a format version byte, followed by the fields of the message. Byte
+ * arrays and strings are length prefixed (a 32 bit length, strings are UTF-8 encoded), with a length of -1 for null.
+ * Objects are embedded as their DER encoding, without base64. Lengths are checked against {@link #MAX_LENGTH} before
+ * allocating, so a corrupt or truncated message fails with an {@link IOException} instead of running out of memory.
+ */
+abstract class AbstractTrustAnchorBinarySerializer<T> {
+
+    static final int FORMAT_VERSION = 1;
+
+    /**
+     * Upper bound for a single length prefixed field or element count.
+     */
+    static final int MAX_LENGTH = 64 * 1024 * 1024;
+
+    private final byte[] magic;
+    private final String messageName;
+
+    protected AbstractTrustAnchorBinarySerializer(String magic, String messageName) {
+        this.magic = magic.getBytes(StandardCharsets.US_ASCII);
+        this.messageName = messageName;
+    }
+
+    protected abstract void writeFields(T value, DataOutputStream out) throws IOException;
+
+    protected abstract T readFields(DataInputStream in) throws IOException;
+
+    /**
+     * Writes the value to the stream. The stream is flushed but not closed.
+     */
+    public void write(T value, OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+        data.write(magic);
+        data.writeByte(FORMAT_VERSION);
+        writeFields(value, data);
+        data.flush();
+    }
+
+    /**
+     * Reads a value from the stream. Nothing after the value is read and the stream is not closed, so a stream can
+     * carry several messages. Pass a buffered stream when reading from a file or socket.
+     */
+    public T read(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(in);
+        byte[] actualMagic = new byte[magic.length];
+        data.readFully(actualMagic);
+        if (!Arrays.equals(magic, actualMagic)) {
+            throw new IOException("not a binary " + messageName);
+        }
+        int version = data.readUnsignedByte();
+        if (version != FORMAT_VERSION) {
+            throw new IOException("unsupported format version: " + version);
+        }
+        return readFields(data);
+    }
+
+    public byte[] serialize(T value) {
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            write(value, out);
+            return out.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public T deserialize(byte[] encoded) {
+        try {
+            return read(new ByteArrayInputStream(encoded));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static void writeBytes(DataOutputStream out, byte[] value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+        } else {
+            out.writeInt(value.length);
+            out.write(value);
+        }
+    }
+
+    static byte[] readBytes(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length == -1) {
+            return null;
+        }
+        checkLength(length);
+        byte[] result = new byte[length];
+        in.readFully(result);
+        return result;
+    }
+
+    static byte[] readRequiredBytes(DataInputStream in, String field) throws IOException {
+        byte[] result = readBytes(in);
+        if (result == null) {
+            throw new IOException(field + " is required");
+        }
+        return result;
+    }
+
+    static void writeString(DataOutputStream out, String value) throws IOException {
+        writeBytes(out, value == null ? null : value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = readBytes(in);
+        return bytes == null ? null : new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    static void writeUri(DataOutputStream out, URI value) throws IOException {
+        writeString(out, value == null ? null : value.toString());
+    }
+
+    static URI readUri(DataInputStream in) throws IOException {
+        String uri = readString(in);
+        try {
+            return uri == null ? null : URI.create(uri);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("invalid uri: " + uri, e);
+        }
+    }
+
+    static void writeUuid(DataOutputStream out, UUID value) throws IOException {
+        out.writeLong(value.getMostSignificantBits());
+        out.writeLong(value.getLeastSignificantBits());
+    }
+
+    static UUID readUuid(DataInputStream in) throws IOException {
+        return new UUID(in.readLong(), in.readLong());
+    }
+
+    /**
+     * Reads an element count, -1 is returned for a null collection.
+     */
+    static int readCount(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        if (count != -1) {
+            checkLength(count);
+        }
+        return count;
+    }
+
+    private static void checkLength(int length) throws IOException {
+        if (length < 0 || length > MAX_LENGTH) {
+            throw new IOException("invalid length: " + length);
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package net.ripe.rpki.commons.ta.serializers;
+
+import net.ripe.rpki.commons.crypto.x509cert.X509CertificateInformationAccessDescriptor;
+import net.ripe.rpki.commons.ta.domain.request.ResourceCertificateRequestData;
+import net.ripe.rpki.commons.ta.domain.request.RevocationRequest;
+import net.ripe.rpki.commons.ta.domain.request.SigningRequest;
+import net.ripe.rpki.commons.ta.domain.request.TaRequest;
+import net.ripe.rpki.commons.ta.domain.request.TrustAnchorRequest;
+import org.bouncycastle.asn1.ASN1ObjectIdentifier;
+
+import javax.security.auth.x500.X500Principal;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Compact binary alternative to {@link TrustAnchorRequestSerializer}, carrying the same fields: subject public keys
+ * are embedded without base64 and the request can be read and written as a stream.
+ *
+ * Layout after the header described in {@link AbstractTrustAnchorBinarySerializer}: the creation timestamp, the TA
+ * certificate publication uri, the number of TA requests followed by each request (a type byte and its fields), and
+ * the SIA descriptors. {@link #toXml(byte[])} and {@link #fromXml(String)} convert between this and the XML form.
+ */
+public class TrustAnchorRequestBinarySerializer extends AbstractTrustAnchorBinarySerializer<TrustAnchorRequest> {
+
+    private static final String MAGIC = "TARQ";
+
+    private static final byte SIGNING_REQUEST = 1;
+    private static final byte REVOCATION_REQUEST = 2;
+
+    private final TrustAnchorRequestSerializer xmlSerializer = new TrustAnchorRequestSerializer();
+
+    public TrustAnchorRequestBinarySerializer() {
+        super(MAGIC, "TrustAnchorRequest");
+    }
+
+    public String toXml(byte[] encoded) {
+        return xmlSerializer.serialize(deserialize(encoded));
+    }
+
+    public byte[] fromXml(String xml) {
+        return serialize(xmlSerializer.deserialize(xml));
+    }
+
+    @Override
+    protected void writeFields(TrustAnchorRequest request, DataOutputStream out) throws IOException {
+        out.writeLong(request.getCreationTimestamp());
+        writeUri(out, request.getTaCertificatePublicationUri());
+
+        List<TaRequest> taRequests = request.getTaRequests();
+        out.writeInt(taRequests == null ? -1 : taRequests.size());
+        if (taRequests != null) {
+            for (TaRequest taRequest : taRequests) {
+                if (taRequest instanceof SigningRequest) {
+                    ResourceCertificateRequestData data = ((SigningRequest) taRequest).getResourceCertificateRequest();
+                    out.writeByte(SIGNING_REQUEST);
+                    writeUuid(out, taRequest.getRequestId());
+                    writeString(out, data.getResourceClassName());
+                    writeString(out, data.getSubjectDN().getName());
+                    writeBytes(out, data.getEncodedSubjectPublicKey());
+                    writeDescriptors(out, data.getSubjectInformationAccess());
+                } else if (taRequest instanceof RevocationRequest) {
+                    RevocationRequest revocationRequest = (RevocationRequest) taRequest;
+                    out.writeByte(REVOCATION_REQUEST);
+                    writeUuid(out, taRequest.getRequestId());
+                    writeString(out, revocationRequest.getResourceClassName());
+                    writeString(out, revocationRequest.getEncodedPublicKey());
+                } else {
+                    throw new IllegalArgumentException("Not implemented serialisation of '" + taRequest.getClass() + "'");
+                }
+            }
+        }
+
+        writeDescriptors(out, request.getSiaDescriptors());
+    }
+
+    private static void writeDescriptors(DataOutputStream out, X509CertificateInformationAccessDescriptor[] descriptors) throws IOException {
+        out.writeInt(descriptors == null ? -1 : descriptors.length);
+        if (descriptors != null) {
+            for (X509CertificateInformationAccessDescriptor descriptor : descriptors) {
+                writeString(out, descriptor.getMethod().getId());
+                writeUri(out, descriptor.getLocation());
+            }
+        }
+    }
+
+    @Override
+    protected TrustAnchorRequest readFields(DataInputStream in) throws IOException {
+        long creationTimestamp = in.readLong();
+        URI taCertificatePublicationUri = readUri(in);
+
+        int taRequestCount = readCount(in);
+        List<TaRequest> taRequests = null;
+        if (taRequestCount != -1) {
+            taRequests = new ArrayList<>();
+            for (int i = 0; i < taRequestCount; ++i) {
+                taRequests.add(readTaRequest(in));
+            }
+        }
+
+        X509CertificateInformationAccessDescriptor[] siaDescriptors = readDescriptors(in);
+
+        TrustAnchorRequest result = new TrustAnchorRequest(taCertificatePublicationUri, siaDescriptors, taRequests);
+        setField(TrustAnchorRequest.class, result, "creationTimestamp", creationTimestamp);
+        return result;
+    }
+
+    private static TaRequest readTaRequest(DataInputStream in) throws IOException {
+        byte type = in.readByte();
+        UUID requestId = readUuid(in);
+        TaRequest result;
+        try {
+            switch (type) {
+                case SIGNING_REQUEST: {
+                    String resourceClassName = readString(in);
+                    String subjectDN = readString(in);
+                    byte[] encodedSubjectPublicKey = readRequiredBytes(in, "encodedSubjectPublicKey");
+                    X509CertificateInformationAccessDescriptor[] subjectInformationAccess = readDescriptors(in);
+                    result = new SigningRequest(ResourceCertificateRequestData.forTASigningRequest(
+                            resourceClassName, new X500Principal(subjectDN), encodedSubjectPublicKey, subjectInformationAccess));
+                    break;
+                }
+                case REVOCATION_REQUEST:
+                    result = new RevocationRequest(readString(in), readString(in));
+                    break;
+                default:
+                    throw new IOException("unknown TA request type: " + type);
+            }
+        } catch (IllegalArgumentException | NullPointerException e) {
+            throw new IOException("invalid TA request " + requestId + ": " + e.getMessage(), e);
+        }
+        setField(TaRequest.class, result, "requestId", requestId);
+        return result;
+    }
+
+    private static X509CertificateInformationAccessDescriptor[] readDescriptors(DataInputStream in) throws IOException {
+        int count = readCount(in);
+        if (count == -1) {
+            return null;
+        }
+        List<X509CertificateInformationAccessDescriptor> result = new ArrayList<>();
+        for (int i = 0; i < count; ++i) {
+            String method = readString(in);
+            URI location = readUri(in);
+            try {
+                result.add(new X509CertificateInformationAccessDescriptor(new ASN1ObjectIdentifier(method), location));
+            } catch (IllegalArgumentException | NullPointerException e) {
+                throw new IOException("invalid SIA descriptor: " + method + " " + location, e);
+            }
+        }
+        return result.toArray(new X509CertificateInformationAccessDescriptor[0]);
+    }
+
+    /**
+     * The request id and creation timestamp are assigned on construction, like {@link TrustAnchorRequestSerializer}
+     * this restores the serialized values.
+     */
+    private static void setField(Class<?> clazz, Object obj, String fieldName, Object value) throws IOException {
+        try {
+            Field privateField = clazz.getDeclaredField(fieldName);
+            privateField.setAccessible(true);
+            privateField.set(obj, value);
+            privateField.setAccessible(false);
+        } catch (IllegalAccessException | NoSuchFieldException e) {
+            throw new IOException("Unable to inject " + fieldName + ": " + value + " into " + obj.getClass().getSimpleName(), e);
+        }
+    }
+}
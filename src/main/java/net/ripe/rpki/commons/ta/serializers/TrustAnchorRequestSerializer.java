@@ -62,7 +62,7 @@ public class TrustAnchorRequestSerializer extends DomXmlSerializer<TrustAnchorRe
         }
 
         try {
-            final Document doc = XML.newNamespaceAwareDocumentBuilder().newDocument();
+            final Document doc = XML.getNamespaceAwareDocumentBuilder().newDocument();
             final Element requestsTrustAnchorRequestElement = addChild(doc, doc, REQUESTS_TRUST_ANCHOR_REQUEST);
 
             final URI taCertificatePublicationUri = trustAnchorRequest.getTaCertificatePublicationUri();
@@ -148,7 +148,7 @@ public class TrustAnchorRequestSerializer extends DomXmlSerializer<TrustAnchorRe
     @Override
     public TrustAnchorRequest deserialize(final String xml) {
         try (final Reader characterStream = new StringReader(xml)) {
-            final Document doc = XML.newNamespaceAwareDocumentBuilder().parse(new InputSource(characterStream));
+            final Document doc = XML.getNamespaceAwareDocumentBuilder().parse(new InputSource(characterStream));
 
             final Element taRequestElement = getElementWithPossibleLegacyName(doc, REQUESTS_TRUST_ANCHOR_REQUEST)
                     .orElseThrow(() -> new DomXmlSerializerException("requests.TrustAnchorRequest element not found"));
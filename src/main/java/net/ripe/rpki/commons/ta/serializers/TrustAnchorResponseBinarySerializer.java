@@ -0,0 +1,191 @@
+package net.ripe.rpki.commons.ta.serializers;
+
+import net.ripe.rpki.commons.crypto.CertificateRepositoryObject;
+import net.ripe.rpki.commons.crypto.cms.manifest.ManifestCms;
+import net.ripe.rpki.commons.crypto.cms.roa.RoaCms;
+import net.ripe.rpki.commons.crypto.crl.X509Crl;
+import net.ripe.rpki.commons.crypto.util.CertificateRepositoryObjectFactory;
+import net.ripe.rpki.commons.crypto.x509cert.X509ResourceCertificate;
+import net.ripe.rpki.commons.crypto.x509cert.X509ResourceCertificateParser;
+import net.ripe.rpki.commons.ta.domain.response.ErrorResponse;
+import net.ripe.rpki.commons.ta.domain.response.RevocationResponse;
+import net.ripe.rpki.commons.ta.domain.response.SigningResponse;
+import net.ripe.rpki.commons.ta.domain.response.TaResponse;
+import net.ripe.rpki.commons.ta.domain.response.TrustAnchorResponse;
+import net.ripe.rpki.commons.validation.ValidationResult;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Compact binary alternative to {@link TrustAnchorResponseSerializer}. Published objects and certificates are embedded
+ * as DER, which avoids the base64 and DOM overhead of the XML form for responses with many published objects.
+ *
+ * Layout after the header described in {@link AbstractTrustAnchorBinarySerializer}: the request creation timestamp,
+ * the number of TA responses followed by each response (a type byte and its fields), then the number of published
+ * objects followed by each object (uri, type byte and encoded object). {@link #toXml(byte[])} and
+ * {@link #fromXml(String)} convert between this and the XML form.
+ */
+public class TrustAnchorResponseBinarySerializer extends AbstractTrustAnchorBinarySerializer<TrustAnchorResponse> {
+
+    private static final String MAGIC = "TARS";
+
+    private static final byte SIGNING_RESPONSE = 1;
+    private static final byte REVOCATION_RESPONSE = 2;
+    private static final byte ERROR_RESPONSE = 3;
+
+    private static final byte X_509_RESOURCE_CERTIFICATE = 1;
+    private static final byte CRL = 2;
+    private static final byte MANIFEST = 3;
+    private static final byte ROA = 4;
+
+    private final TrustAnchorResponseSerializer xmlSerializer = new TrustAnchorResponseSerializer();
+
+    public TrustAnchorResponseBinarySerializer() {
+        super(MAGIC, "TrustAnchorResponse");
+    }
+
+    public String toXml(byte[] encoded) {
+        return xmlSerializer.serialize(deserialize(encoded));
+    }
+
+    public byte[] fromXml(String xml) {
+        return serialize(xmlSerializer.deserialize(xml));
+    }
+
+    @Override
+    protected void writeFields(TrustAnchorResponse response, DataOutputStream out) throws IOException {
+        out.writeLong(response.getRequestCreationTimestamp());
+
+        List<TaResponse> taResponses = response.getTaResponses();
+        out.writeInt(taResponses.size());
+        for (TaResponse taResponse : taResponses) {
+            if (taResponse instanceof SigningResponse) {
+                SigningResponse signingResponse = (SigningResponse) taResponse;
+                out.writeByte(SIGNING_RESPONSE);
+                writeUuid(out, signingResponse.getRequestId());
+                writeString(out, signingResponse.getResourceClassName());
+                writeUri(out, signingResponse.getPublicationUri());
+                writeBytes(out, signingResponse.getCertificate().getEncoded());
+            } else if (taResponse instanceof RevocationResponse) {
+                RevocationResponse revocationResponse = (RevocationResponse) taResponse;
+                out.writeByte(REVOCATION_RESPONSE);
+                writeUuid(out, revocationResponse.getRequestId());
+                writeString(out, revocationResponse.getResourceClassName());
+                writeString(out, revocationResponse.getEncodedPublicKey());
+            } else if (taResponse instanceof ErrorResponse) {
+                ErrorResponse errorResponse = (ErrorResponse) taResponse;
+                out.writeByte(ERROR_RESPONSE);
+                writeUuid(out, errorResponse.getRequestId());
+                writeString(out, errorResponse.getMessage());
+            } else {
+                throw new IllegalArgumentException("Not implemented serialisation of '" + taResponse.getClass() + "'");
+            }
+        }
+
+        Map<URI, CertificateRepositoryObject> publishedObjects = response.getPublishedObjects();
+        out.writeInt(publishedObjects.size());
+        for (Map.Entry<URI, CertificateRepositoryObject> entry : publishedObjects.entrySet()) {
+            writeUri(out, entry.getKey());
+            out.writeByte(objectType(entry.getValue()));
+            writeBytes(out, entry.getValue().getEncoded());
+        }
+    }
+
+    private static byte objectType(CertificateRepositoryObject object) {
+        if (object instanceof X509ResourceCertificate) {
+            return X_509_RESOURCE_CERTIFICATE;
+        } else if (object instanceof X509Crl) {
+            return CRL;
+        } else if (object instanceof ManifestCms) {
+            return MANIFEST;
+        } else if (object instanceof RoaCms) {
+            return ROA;
+        } else {
+            throw new IllegalArgumentException("Not implemented serialisation of '" + object.getClass() + "'");
+        }
+    }
+
+    private static Class<? extends CertificateRepositoryObject> objectClass(byte type) throws IOException {
+        switch (type) {
+            case X_509_RESOURCE_CERTIFICATE:
+                return X509ResourceCertificate.class;
+            case CRL:
+                return X509Crl.class;
+            case MANIFEST:
+                return ManifestCms.class;
+            case ROA:
+                return RoaCms.class;
+            default:
+                throw new IOException("unknown published object type: " + type);
+        }
+    }
+
+    @Override
+    protected TrustAnchorResponse readFields(DataInputStream in) throws IOException {
+        long requestCreationTimestamp = in.readLong();
+
+        int taResponseCount = readCount(in);
+        List<TaResponse> taResponses = new ArrayList<>();
+        for (int i = 0; i < taResponseCount; ++i) {
+            taResponses.add(readTaResponse(in));
+        }
+
+        int publishedObjectCount = readCount(in);
+        Map<URI, CertificateRepositoryObject> publishedObjects = new TreeMap<>();
+        for (int i = 0; i < publishedObjectCount; ++i) {
+            URI uri = readUri(in);
+            if (uri == null) {
+                throw new IOException("uri of published object is required");
+            }
+            Class<? extends CertificateRepositoryObject> type = objectClass(in.readByte());
+            byte[] encoded = readRequiredBytes(in, "published object");
+            CertificateRepositoryObject object = CertificateRepositoryObjectFactory.createCertificateRepositoryObject(encoded, ValidationResult.withLocation(uri));
+            if (object == null) {
+                throw new IOException("cannot parse published object " + uri);
+            }
+            if (!type.isInstance(object)) {
+                throw new IOException("published object " + uri + " is not a " + type.getSimpleName());
+            }
+            publishedObjects.put(uri, object);
+        }
+
+        try {
+            return new TrustAnchorResponse(requestCreationTimestamp, publishedObjects, taResponses);
+        } catch (IllegalArgumentException | NullPointerException e) {
+            throw new IOException("invalid TrustAnchorResponse: " + e.getMessage(), e);
+        }
+    }
+
+    private static TaResponse readTaResponse(DataInputStream in) throws IOException {
+        byte type = in.readByte();
+        UUID requestId = readUuid(in);
+        try {
+            switch (type) {
+                case SIGNING_RESPONSE: {
+                    String resourceClassName = readString(in);
+                    URI publicationUri = readUri(in);
+                    byte[] encoded = readRequiredBytes(in, "certificate");
+                    X509ResourceCertificateParser parser = new X509ResourceCertificateParser();
+                    parser.parse("request-" + requestId + ".cer", encoded);
+                    return new SigningResponse(requestId, resourceClassName, publicationUri, parser.getCertificate());
+                }
+                case REVOCATION_RESPONSE:
+                    return new RevocationResponse(requestId, readString(in), readString(in));
+                case ERROR_RESPONSE:
+                    return new ErrorResponse(requestId, readString(in));
+                default:
+                    throw new IOException("unknown TA response type: " + type);
+            }
+        } catch (IllegalArgumentException | IllegalStateException | NullPointerException e) {
+            throw new IOException("invalid TA response " + requestId + ": " + e.getMessage(), e);
+        }
+    }
+}
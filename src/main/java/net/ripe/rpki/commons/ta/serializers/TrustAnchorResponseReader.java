@@ -0,0 +1,331 @@
+package net.ripe.rpki.commons.ta.serializers;
+
+import lombok.Value;
+import net.ripe.rpki.commons.crypto.CertificateRepositoryObject;
+import net.ripe.rpki.commons.crypto.util.CertificateRepositoryObjectFactory;
+import net.ripe.rpki.commons.crypto.x509cert.X509ResourceCertificateParser;
+import net.ripe.rpki.commons.ta.domain.response.ErrorResponse;
+import net.ripe.rpki.commons.ta.domain.response.RevocationResponse;
+import net.ripe.rpki.commons.ta.domain.response.SigningResponse;
+import net.ripe.rpki.commons.ta.domain.response.TaResponse;
+import net.ripe.rpki.commons.ta.domain.response.TrustAnchorResponse;
+import net.ripe.rpki.commons.util.XML;
+import net.ripe.rpki.commons.validation.ValidationResult;
+import net.ripe.rpki.commons.xml.DomXmlSerializerException;
+
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.Closeable;
+import java.io.Reader;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.TreeMap;
+import java.util.UUID;
+
+import static net.ripe.rpki.commons.ta.serializers.TrustAnchorResponseSerializer.CERTIFICATE;
+import static net.ripe.rpki.commons.ta.serializers.TrustAnchorResponseSerializer.CREATION_TIMESTAMP;
+import static net.ripe.rpki.commons.ta.serializers.TrustAnchorResponseSerializer.CRL;
+import static net.ripe.rpki.commons.ta.serializers.TrustAnchorResponseSerializer.ENCODED;
+import static net.ripe.rpki.commons.ta.serializers.TrustAnchorResponseSerializer.ENCODED_PUBLIC_KEY;
+import static net.ripe.rpki.commons.ta.serializers.TrustAnchorResponseSerializer.ENTRY_ELEMENT;
+import static net.ripe.rpki.commons.ta.serializers.TrustAnchorResponseSerializer.ERROR_RESPONSE;
+import static net.ripe.rpki.commons.ta.serializers.TrustAnchorResponseSerializer.MANIFEST;
+import static net.ripe.rpki.commons.ta.serializers.TrustAnchorResponseSerializer.MESSAGE;
+import static net.ripe.rpki.commons.ta.serializers.TrustAnchorResponseSerializer.PUBLICATION_URI;
+import static net.ripe.rpki.commons.ta.serializers.TrustAnchorResponseSerializer.PUBLISHED_OBJECTS;
+import static net.ripe.rpki.commons.ta.serializers.TrustAnchorResponseSerializer.REQUEST_ID;
+import static net.ripe.rpki.commons.ta.serializers.TrustAnchorResponseSerializer.RESOURCE_CLASS_NAME;
+import static net.ripe.rpki.commons.ta.serializers.TrustAnchorResponseSerializer.REVOCATION_RESPONSE;
+import static net.ripe.rpki.commons.ta.serializers.TrustAnchorResponseSerializer.ROA;
+import static net.ripe.rpki.commons.ta.serializers.TrustAnchorResponseSerializer.SIGNING_RESPONSE;
+import static net.ripe.rpki.commons.ta.serializers.TrustAnchorResponseSerializer.TA_RESPONSES;
+import static net.ripe.rpki.commons.ta.serializers.TrustAnchorResponseSerializer.TRUST_ANCHOR_RESPONSE;
+import static net.ripe.rpki.commons.ta.serializers.TrustAnchorResponseSerializer.URI_ELEMENT;
+import static net.ripe.rpki.commons.ta.serializers.TrustAnchorResponseSerializer.X_509_RESOURCE_CERTIFICATE;
+
+/**
+ * Reads the XML produced by {@link TrustAnchorResponseSerializer} as a stream, for responses with too many published
+ * objects to hold in memory at once.
+ *
+ * The request creation timestamp and the TA responses are read when the reader is created. The published objects
+ * are then returned one at a time by {@link #publishedObjects()}, as the uri and the still encoded object, and are only
+ * parsed when {@link PublishedObject#parse()} is called. This requires the published objects to come last, as they do
+ * in the output of {@link TrustAnchorResponseSerializer}.
+ *
+ * Errors in the XML are reported with a {@link DomXmlSerializerException}, like {@link TrustAnchorResponseSerializer}
+ * does.
+ */
+public class TrustAnchorResponseReader implements Closeable {
+
+    private static final Base64.Decoder BASE64_DECODER = Base64.getMimeDecoder();
+
+    /**
+     * A published object of the response, with the encoded object as found in the XML.
+     */
+    @Value
+    public static class PublishedObject {
+        URI uri;
+        /**
+         * The element name of the object in the XML, for example {@link TrustAnchorResponseSerializer#MANIFEST}.
+         */
+        String type;
+        byte[] encoded;
+
+        /**
+         * @throws DomXmlSerializerException when the object cannot be parsed.
+         */
+        public CertificateRepositoryObject parse() {
+            CertificateRepositoryObject object = CertificateRepositoryObjectFactory.createCertificateRepositoryObject(encoded, ValidationResult.withLocation(uri));
+            if (object == null) {
+                throw new DomXmlSerializerException("Object " + uri + " cannot be parsed");
+            }
+            return object;
+        }
+    }
+
+    private final XMLStreamReader reader;
+    private final long requestCreationTimestamp;
+    private final List<TaResponse> taResponses;
+    private boolean publishedObjectsStarted;
+    private boolean iteratorCreated;
+
+    public TrustAnchorResponseReader(Reader xml) {
+        try {
+            reader = XML.newXMLStreamReader(xml);
+            reader.nextTag();
+            if (!TRUST_ANCHOR_RESPONSE.equals(reader.getLocalName())) {
+                throw new DomXmlSerializerException(TRUST_ANCHOR_RESPONSE + " element not found");
+            }
+
+            Long timestamp = null;
+            List<TaResponse> responses = null;
+            while (!publishedObjectsStarted && reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+                switch (reader.getLocalName()) {
+                    case CREATION_TIMESTAMP:
+                        timestamp = readTimestamp();
+                        break;
+                    case TA_RESPONSES:
+                        responses = readTaResponses();
+                        break;
+                    case PUBLISHED_OBJECTS:
+                        publishedObjectsStarted = true;
+                        break;
+                    default:
+                        skipElement();
+                }
+            }
+            if (timestamp == null) {
+                throw new DomXmlSerializerException(String.format("single element '%s' not found", CREATION_TIMESTAMP));
+            }
+            if (responses == null) {
+                throw new DomXmlSerializerException(String.format("single element '%s' not found before '%s'", TA_RESPONSES, PUBLISHED_OBJECTS));
+            }
+            if (!publishedObjectsStarted) {
+                throw new DomXmlSerializerException(String.format("single element '%s' not found", PUBLISHED_OBJECTS));
+            }
+            this.requestCreationTimestamp = timestamp;
+            this.taResponses = responses;
+        } catch (XMLStreamException e) {
+            throw new DomXmlSerializerException(e);
+        }
+    }
+
+    public long getRequestCreationTimestamp() {
+        return requestCreationTimestamp;
+    }
+
+    public List<TaResponse> getTaResponses() {
+        return taResponses;
+    }
+
+    /**
+     * Reads the published objects one at a time. Can only be called once, as the objects are read from the underlying
+     * stream.
+     */
+    public Iterator<PublishedObject> publishedObjects() {
+        if (iteratorCreated) {
+            throw new IllegalStateException("published objects can only be read once");
+        }
+        iteratorCreated = true;
+        return new Iterator<PublishedObject>() {
+            private PublishedObject next;
+            private boolean done;
+
+            @Override
+            public boolean hasNext() {
+                if (next == null && !done) {
+                    next = readNextPublishedObject();
+                    done = next == null;
+                }
+                return next != null;
+            }
+
+            @Override
+            public PublishedObject next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                PublishedObject result = next;
+                next = null;
+                return result;
+            }
+        };
+    }
+
+    /**
+     * Reads the remaining published objects and builds the complete response, parsing every object. Equivalent to
+     * {@link TrustAnchorResponseSerializer#deserialize(String)}.
+     */
+    public TrustAnchorResponse readAll() {
+        Map<URI, CertificateRepositoryObject> publishedObjects = new TreeMap<>();
+        publishedObjects().forEachRemaining(object -> publishedObjects.put(object.getUri(), object.parse()));
+        return new TrustAnchorResponse(requestCreationTimestamp, publishedObjects, taResponses);
+    }
+
+    @Override
+    public void close() {
+        try {
+            reader.close();
+        } catch (XMLStreamException e) {
+            throw new DomXmlSerializerException(e);
+        }
+    }
+
+    private PublishedObject readNextPublishedObject() {
+        try {
+            while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+                if (!ENTRY_ELEMENT.equals(reader.getLocalName())) {
+                    skipElement();
+                    continue;
+                }
+                String uri = null;
+                String type = null;
+                byte[] encoded = null;
+                while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+                    String name = reader.getLocalName();
+                    if (URI_ELEMENT.equals(name)) {
+                        uri = reader.getElementText().trim();
+                    } else if (X_509_RESOURCE_CERTIFICATE.equals(name) || CRL.equals(name) || MANIFEST.equals(name) || ROA.equals(name)) {
+                        type = name;
+                        encoded = BASE64_DECODER.decode(readChildTexts().getOrDefault(ENCODED, ""));
+                    } else {
+                        skipElement();
+                    }
+                }
+                if (uri == null) {
+                    throw new DomXmlSerializerException("<uri> is not found inside of an entry");
+                }
+                if (encoded == null) {
+                    throw new DomXmlSerializerException("Object is not found inside of an entry");
+                }
+                return new PublishedObject(URI.create(uri), type, encoded);
+            }
+            return null;
+        } catch (XMLStreamException | IllegalArgumentException e) {
+            throw new DomXmlSerializerException(e);
+        }
+    }
+
+    private long readTimestamp() throws XMLStreamException {
+        String text = reader.getElementText().trim();
+        try {
+            return Long.parseLong(text);
+        } catch (NumberFormatException e) {
+            throw new DomXmlSerializerException("creationTimestamp content is not a number: " + text, e);
+        }
+    }
+
+    /**
+     * Like {@link TrustAnchorResponseSerializer}, this returns the signing responses, followed by the revocation and
+     * error responses.
+     */
+    private List<TaResponse> readTaResponses() throws XMLStreamException {
+        List<TaResponse> signing = new ArrayList<>();
+        List<TaResponse> revocation = new ArrayList<>();
+        List<TaResponse> error = new ArrayList<>();
+        while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+            String name = reader.getLocalName();
+            if (SIGNING_RESPONSE.equals(name)) {
+                Map<String, String> fields = readChildTexts();
+                String requestId = required(fields, REQUEST_ID);
+                X509ResourceCertificateParser parser = new X509ResourceCertificateParser();
+                parser.parse("request-" + requestId + ".cer", BASE64_DECODER.decode(required(fields, CERTIFICATE + "/" + ENCODED)));
+                signing.add(new SigningResponse(
+                        UUID.fromString(requestId),
+                        required(fields, RESOURCE_CLASS_NAME),
+                        URI.create(required(fields, PUBLICATION_URI)),
+                        parser.getCertificate()));
+            } else if (REVOCATION_RESPONSE.equals(name)) {
+                Map<String, String> fields = readChildTexts();
+                revocation.add(new RevocationResponse(
+                        UUID.fromString(required(fields, REQUEST_ID)),
+                        required(fields, RESOURCE_CLASS_NAME),
+                        required(fields, ENCODED_PUBLIC_KEY)));
+            } else if (ERROR_RESPONSE.equals(name)) {
+                Map<String, String> fields = readChildTexts();
+                error.add(new ErrorResponse(UUID.fromString(required(fields, REQUEST_ID)), required(fields, MESSAGE)));
+            } else {
+                skipElement();
+            }
+        }
+        signing.addAll(revocation);
+        signing.addAll(error);
+        return signing;
+    }
+
+    private static String required(Map<String, String> fields, String name) {
+        String result = fields.get(name);
+        if (result == null) {
+            throw new DomXmlSerializerException(String.format("single element '%s' not found", name));
+        }
+        return result;
+    }
+
+    /**
+     * Reads the text of all leaf elements below the current element, keyed by their path relative to it (for example
+     * {@code certificate/encoded}). Leaves the reader at the end of the current element.
+     */
+    private Map<String, String> readChildTexts() throws XMLStreamException {
+        Map<String, String> result = new HashMap<>();
+        readChildTexts("", result);
+        return result;
+    }
+
+    private void readChildTexts(String prefix, Map<String, String> result) throws XMLStreamException {
+        StringBuilder text = new StringBuilder();
+        boolean hasChildren = false;
+        int event;
+        while ((event = reader.next()) != XMLStreamConstants.END_ELEMENT) {
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                hasChildren = true;
+                readChildTexts(prefix.isEmpty() ? reader.getLocalName() : prefix + "/" + reader.getLocalName(), result);
+            } else if (event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA) {
+                text.append(reader.getText());
+            }
+        }
+        if (!hasChildren && !prefix.isEmpty()) {
+            if (result.put(prefix, text.toString().trim()) != null) {
+                throw new DomXmlSerializerException(String.format("multiple elements '%s' present, single element expected", prefix));
+            }
+        }
+    }
+
+    private void skipElement() throws XMLStreamException {
+        int depth = 1;
+        while (depth > 0) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            }
+        }
+    }
+}
@@ -3,13 +3,58 @@ package net.ripe.rpki.commons.util;
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
+import javax.xml.transform.OutputKeys;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerConfigurationException;
+import javax.xml.transform.TransformerFactory;
+import java.io.Reader;
+import java.io.Writer;
 
 /**
  * Utilities for working with XML.
  */
 public class XML {
+    /**
+     * Creating StAX factories does a service loader lookup, so a single configured factory is shared. Creating readers
+     * and writers from a configured factory is thread safe.
+     */
+    private static final XMLInputFactory XML_INPUT_FACTORY = newXMLInputFactory();
+    private static final XMLOutputFactory XML_OUTPUT_FACTORY = XMLOutputFactory.newInstance();
+
+    /**
+     * Document builders and transformers are not thread safe and creating their factories does a service loader
+     * lookup, so they are kept per thread and reset before every use.
+     */
+    private static final ThreadLocal<DocumentBuilder> NAMESPACE_AWARE_DOCUMENT_BUILDER = new ThreadLocal<>();
+    private static final ThreadLocal<Transformer> TRANSFORMER = new ThreadLocal<>();
+
     private XML() {}
 
+    private static XMLInputFactory newXMLInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        // like the document builders: no doctype declarations and no external entities
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, true);
+        return factory;
+    }
+
+    /**
+     * @return a namespace aware XMLStreamReader that is not vulnerable to XML External Entity injection.
+     */
+    public static XMLStreamReader newXMLStreamReader(Reader reader) throws XMLStreamException {
+        return XML_INPUT_FACTORY.createXMLStreamReader(reader);
+    }
+
+    public static XMLStreamWriter newXMLStreamWriter(Writer writer) throws XMLStreamException {
+        return XML_OUTPUT_FACTORY.createXMLStreamWriter(writer);
+    }
+
     /**
      * Create a new document builder that is not vulnerable to XML External Entity injection.
      *
@@ -40,4 +85,40 @@ public class XML {
     public static DocumentBuilder newNonNamespaceAwareDocumentBuilder() throws ParserConfigurationException {
         return newDocumentBuilder(false);
     }
+
+    /**
+     * Like {@link #newNamespaceAwareDocumentBuilder()}, but reuses the document builder of the current thread. Use it
+     * for a single parse or new document only, and do not hand it to other threads.
+     *
+     * @return the reset, namespace aware DocumentBuilder of the current thread
+     */
+    public static DocumentBuilder getNamespaceAwareDocumentBuilder() throws ParserConfigurationException {
+        DocumentBuilder builder = NAMESPACE_AWARE_DOCUMENT_BUILDER.get();
+        if (builder == null) {
+            builder = newNamespaceAwareDocumentBuilder();
+            NAMESPACE_AWARE_DOCUMENT_BUILDER.set(builder);
+        } else {
+            builder.reset();
+        }
+        return builder;
+    }
+
+    /**
+     * @return the reset Transformer of the current thread, configured to write indented UTF-8 XML with declaration.
+     */
+    public static Transformer getTransformer() throws TransformerConfigurationException {
+        Transformer transformer = TRANSFORMER.get();
+        if (transformer == null) {
+            // an identity transformer of in-memory documents, so nothing external is ever loaded
+            transformer = TransformerFactory.newInstance().newTransformer();
+            TRANSFORMER.set(transformer);
+        } else {
+            transformer.reset();
+        }
+        transformer.setOutputProperty(OutputKeys.OMIT_XML_DECLARATION, "no");
+        transformer.setOutputProperty(OutputKeys.METHOD, "xml");
+        transformer.setOutputProperty(OutputKeys.INDENT, "yes");
+        transformer.setOutputProperty(OutputKeys.ENCODING, "UTF-8");
+        return transformer;
+    }
 }
@@ -0,0 +1,95 @@
+package net.ripe.rpki.commons.validation.objectvalidators;
+
+import net.ripe.rpki.commons.crypto.crl.X509Crl;
+import net.ripe.rpki.commons.crypto.x509cert.X509ResourceCertificate;
+import net.ripe.rpki.commons.util.UTC;
+import net.ripe.rpki.commons.validation.ValidationOptions;
+import net.ripe.rpki.commons.validation.ValidationResult;
+import org.joda.time.DateTime;
+
+import java.net.URI;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Validates the repository tree below a trust anchor top-down, reusing the publication points of a previous run that
+ * are not affected by the changed objects.
+ *
+ * A publication point is validated again when one of its objects (manifest, CRL or manifest entry, including entries
+ * that were missing) is in the set of changed objects, when the context of its CA changed (the CA certificate or its
+ * effective resources, for example because the parent manifest or CRL changed), or when the next update time of its
+ * manifest or CRL or the end of validity of one of its objects has passed. Everything else is taken from the previous
+ * run, so the cost of a run is proportional to what changed. Child CAs are always visited, since their own publication
+ * points may have changed independently of their parent.
+ *
+ * Use {@link #validate(URI, X509ResourceCertificate)} for the initial, full, run.
+ */
+public class IncrementalRepositoryValidator {
+
+    private final PublicationPointValidator publicationPointValidator;
+    private final ValidationOptions options;
+
+    public IncrementalRepositoryValidator(RepositoryObjectLocator locator, ValidationOptions options) {
+        this.publicationPointValidator = new PublicationPointValidator(locator, options);
+        this.options = options;
+    }
+
+    public RepositoryValidationRun validate(URI trustAnchorLocation, X509ResourceCertificate trustAnchor) {
+        return validate(trustAnchorLocation, trustAnchor, null, Collections.emptySet());
+    }
+
+    /**
+     * @param previous the previous run, or <code>null</code> to validate everything.
+     * @param changedObjects locations of the objects that were added, changed or removed since the previous run.
+     */
+    public RepositoryValidationRun validate(URI trustAnchorLocation, X509ResourceCertificate trustAnchor, RepositoryValidationRun previous, Set<URI> changedObjects) {
+        DateTime now = UTC.dateTime();
+        ValidationResult trustAnchorResult = ValidationResult.withLocation(trustAnchorLocation);
+        CertificateRepositoryObjectValidationContext trustAnchorContext = new CertificateRepositoryObjectValidationContext(trustAnchorLocation, trustAnchor);
+        trustAnchor.validate(trustAnchorLocation.toString(), trustAnchorContext, (X509Crl) null, null, options, trustAnchorResult);
+        ValidatedObject validatedTrustAnchor = new ValidatedObject(trustAnchorLocation, trustAnchor, !trustAnchorResult.hasFailures());
+
+        Map<URI, PublicationPoint> publicationPoints = new LinkedHashMap<>();
+        int revalidated = 0;
+        Deque<CertificateRepositoryObjectValidationContext> pending = new ArrayDeque<>();
+        if (validatedTrustAnchor.isValid()) {
+            pending.push(trustAnchorContext);
+        }
+        while (!pending.isEmpty()) {
+            CertificateRepositoryObjectValidationContext context = pending.pop();
+            if (publicationPoints.containsKey(context.getLocation())) {
+                // Each CA certificate location is only validated once, this also prevents looping on circular references
+                continue;
+            }
+
+            PublicationPoint publicationPoint = previous == null ? null : previous.getPublicationPoint(context.getLocation());
+            if (!isReusable(publicationPoint, context, changedObjects, now)) {
+                publicationPoint = publicationPointValidator.validate(context);
+                revalidated++;
+            }
+            publicationPoints.put(context.getLocation(), publicationPoint);
+
+            List<CertificateRepositoryObjectValidationContext> children = publicationPoint.getChildContexts();
+            for (int i = children.size() - 1; i >= 0; --i) {
+                pending.push(children.get(i));
+            }
+        }
+
+        return new RepositoryValidationRun(validatedTrustAnchor, trustAnchorResult, publicationPoints, revalidated);
+    }
+
+    static boolean isReusable(PublicationPoint previous, CertificateRepositoryObjectValidationContext context, Set<URI> changedObjects, DateTime now) {
+        if (previous == null || !previous.getContext().equals(context)) {
+            return false;
+        }
+        if (previous.getValidUntil() != null && !now.isBefore(previous.getValidUntil())) {
+            return false;
+        }
+        return changedObjects.stream().noneMatch(previous::dependsOn);
+    }
+}
@@ -0,0 +1,65 @@
+package net.ripe.rpki.commons.validation.objectvalidators;
+
+import lombok.Value;
+import net.ripe.rpki.commons.validation.ValidationResult;
+import org.joda.time.DateTime;
+
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The validated publication point of a CA: its manifest, CRL and the objects listed on the manifest.
+ */
+@Value
+public class PublicationPoint {
+
+    /**
+     * Context of the CA certificate the publication point belongs to.
+     */
+    CertificateRepositoryObjectValidationContext context;
+
+    /**
+     * <code>null</code> when the CA certificate has no manifest URI.
+     */
+    URI manifestUri;
+
+    /**
+     * <code>null</code> when the manifest could not be used.
+     */
+    URI crlUri;
+
+    /**
+     * The manifest, CRL and manifest entries, in the order they were validated. Objects that could not be found are
+     * included as well.
+     */
+    Map<URI, ValidatedObject> objects;
+
+    /**
+     * Contexts of the valid CA certificates issued by this CA.
+     */
+    List<CertificateRepositoryObjectValidationContext> childContexts;
+
+    /**
+     * Validation checks of all objects of the publication point.
+     */
+    ValidationResult validationResult;
+
+    /**
+     * Earliest moment the outcome can change without any file changing: the next update time of the manifest or
+     * CRL, or the end of the validity of an object. <code>null</code> when no object could be used.
+     */
+    DateTime validUntil;
+
+    public URI getCaLocation() {
+        return context.getLocation();
+    }
+
+    /**
+     * @return true when the outcome depends on the object at the uri, including objects that were listed on the
+     * manifest but not found.
+     */
+    public boolean dependsOn(URI uri) {
+        return objects.containsKey(uri);
+    }
+}
@@ -0,0 +1,191 @@
+package net.ripe.rpki.commons.validation.objectvalidators;
+
+import net.ripe.rpki.commons.crypto.CertificateRepositoryObject;
+import net.ripe.rpki.commons.crypto.cms.RpkiSignedObject;
+import net.ripe.rpki.commons.crypto.cms.manifest.ManifestCms;
+import net.ripe.rpki.commons.crypto.cms.manifest.ManifestLocator;
+import net.ripe.rpki.commons.crypto.crl.CrlLocator;
+import net.ripe.rpki.commons.crypto.crl.X509Crl;
+import net.ripe.rpki.commons.crypto.util.CertificateRepositoryObjectFactory;
+import net.ripe.rpki.commons.crypto.x509cert.X509ResourceCertificate;
+import net.ripe.rpki.commons.crypto.x509cert.X509RouterCertificate;
+import net.ripe.rpki.commons.validation.ValidationLocation;
+import net.ripe.rpki.commons.validation.ValidationOptions;
+import net.ripe.rpki.commons.validation.ValidationResult;
+import org.joda.time.DateTime;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static net.ripe.rpki.commons.validation.ValidationString.*;
+
+/**
+ * Validates the publication point of a single CA: the manifest and CRL are located through the manifest URI of the CA
+ * certificate (by default read through the {@link RepositoryObjectLocator}), after which every object listed on the
+ * manifest is checked against its manifest hash and validated with the CA context and CRL. Valid CA certificates on
+ * the manifest result in child contexts, which the caller validates next.
+ */
+class PublicationPointValidator {
+
+    private final RepositoryObjectLocator locator;
+    private final ManifestLocator manifestLocator;
+    private final CrlLocator crlLocator;
+    private final ValidationOptions options;
+
+    PublicationPointValidator(RepositoryObjectLocator locator, ValidationOptions options) {
+        this(locator, null, null, options);
+    }
+
+    /**
+     * @param manifestLocator locates the manifest of a CA, or <code>null</code> to read it through the locator.
+     * @param crlLocator locates the CRL listed on the manifest, or <code>null</code> to read it through the locator.
+     */
+    PublicationPointValidator(RepositoryObjectLocator locator, ManifestLocator manifestLocator, CrlLocator crlLocator, ValidationOptions options) {
+        this.locator = locator;
+        this.manifestLocator = manifestLocator != null ? manifestLocator
+                : (uri, context, result) -> fetch(uri, ManifestCms.class, VALIDATOR_CA_SHOULD_HAVE_MANIFEST, VALIDATOR_FETCHED_OBJECT_IS_MANIFEST, result);
+        this.crlLocator = crlLocator != null ? crlLocator
+                : (uri, context, result) -> fetch(uri, X509Crl.class, VALIDATOR_CRL_FOUND, VALIDATOR_FETCHED_OBJECT_IS_CRL, result);
+        this.options = options;
+    }
+
+    PublicationPoint validate(CertificateRepositoryObjectValidationContext context) {
+        URI manifestUri = context.getManifestURI();
+        ValidationResult result = ValidationResult.withLocation(manifestUri != null ? manifestUri : context.getLocation());
+        Map<URI, ValidatedObject> objects = new LinkedHashMap<>();
+        List<CertificateRepositoryObjectValidationContext> childContexts = new ArrayList<>();
+
+        if (!result.rejectIfNull(manifestUri, VALIDATOR_CA_SHOULD_HAVE_MANIFEST)) {
+            return publicationPoint(context, null, null, objects, childContexts, result, null);
+        }
+
+        ValidationLocation manifestLocation = new ValidationLocation(manifestUri);
+        ManifestCms manifest = locate(manifestUri, VALIDATOR_CA_SHOULD_HAVE_MANIFEST, () -> manifestLocator.getManifest(manifestUri, context, result), result);
+        objects.put(manifestUri, new ValidatedObject(manifestUri, manifest, false));
+        if (manifest == null) {
+            return publicationPoint(context, manifestUri, null, objects, childContexts, result, null);
+        }
+
+        URI crlUri = manifest.getCrlUri();
+        ValidationLocation crlLocation = new ValidationLocation(crlUri);
+        X509Crl crl = locate(crlUri, VALIDATOR_CRL_FOUND, () -> crlLocator.getCrl(crlUri, context, result), result);
+        String crlFileName = crlUri.getPath().substring(crlUri.getPath().lastIndexOf('/') + 1);
+        if (crl != null && manifest.containsFile(crlFileName)) {
+            result.setLocation(crlLocation);
+            result.rejectIfFalse(manifest.verifyFileContents(crlFileName, crl.getEncoded()), VALIDATOR_MANIFEST_ENTRY_HASH_MATCHES);
+        }
+        if (crl != null && !result.hasFailureForLocation(crlLocation)) {
+            crl.validate(crlUri.toString(), context, (CrlLocator) null, options, result);
+        }
+        boolean crlValid = crl != null && !result.hasFailureForLocation(crlLocation);
+        objects.put(crlUri, new ValidatedObject(crlUri, crl, crlValid));
+
+        result.setLocation(manifestLocation);
+        manifest.validate(manifestUri.toString(), context, crlValid ? crl : null, crlUri, options, result);
+        boolean manifestValid = !result.hasFailureForLocation(manifestLocation);
+        objects.put(manifestUri, new ValidatedObject(manifestUri, manifest, manifestValid));
+
+        DateTime validUntil = earliest(manifest.getNextUpdateTime(), crl == null ? null : crl.getNextUpdateTime());
+        if (!manifestValid || !crlValid) {
+            return publicationPoint(context, manifestUri, crlUri, objects, childContexts, result, validUntil);
+        }
+
+        for (String fileName : manifest.getFileNames()) {
+            URI uri = context.getRepositoryURI().resolve(fileName);
+            if (uri.equals(crlUri) || uri.equals(manifestUri)) {
+                continue;
+            }
+            ValidatedObject validated = validateEntry(context, manifestUri, manifest, fileName, uri, crl, crlUri, result);
+            objects.put(uri, validated);
+            if (validated.isValid()) {
+                validUntil = earliest(validUntil, notValidAfter(validated.getObject()));
+                if (isCaCertificate(validated.getObject())) {
+                    childContexts.add(context.createChildContext(uri, (X509ResourceCertificate) validated.getObject()));
+                }
+            }
+        }
+
+        return publicationPoint(context, manifestUri, crlUri, objects, childContexts, result, validUntil);
+    }
+
+    private ValidatedObject validateEntry(CertificateRepositoryObjectValidationContext context, URI manifestUri, ManifestCms manifest, String fileName, URI uri, X509Crl crl, URI crlUri, ValidationResult result) {
+        ValidationLocation location = new ValidationLocation(uri);
+        result.setLocation(location);
+        CertificateRepositoryObject object = null;
+        try {
+            byte[] encoded = locator.getObject(uri);
+            if (result.rejectIfNull(encoded, VALIDATOR_MANIFEST_ENTRY_FOUND, manifestUri.toString())
+                    && result.rejectIfFalse(manifest.verifyFileContents(fileName, encoded), VALIDATOR_MANIFEST_ENTRY_HASH_MATCHES)) {
+                object = CertificateRepositoryObjectFactory.createCertificateRepositoryObject(encoded, result);
+                if (object != null && !result.hasFailureForLocation(location)) {
+                    object.validate(uri.toString(), context, crl, crlUri, options, result);
+                }
+            }
+        } catch (RuntimeException e) {
+            result.setLocation(location);
+            result.error(VALIDATOR_OBJECT_PROCESSING_EXCEPTION, uri.toString());
+        }
+        return new ValidatedObject(uri, object, object != null && !result.hasFailureForLocation(location));
+    }
+
+    /**
+     * Runs a locator with the result at the location of the object, the locator reports its failures there and
+     * leaves the result at that location. When the locator returns nothing without reporting why, the object is
+     * reported as not found.
+     */
+    private static <T> T locate(URI uri, String foundCheck, Supplier<T> locator, ValidationResult result) {
+        ValidationLocation location = new ValidationLocation(uri);
+        result.setLocation(location);
+        T object = null;
+        try {
+            object = locator.get();
+        } catch (RuntimeException e) {
+            result.error(VALIDATOR_OBJECT_PROCESSING_EXCEPTION, uri.toString());
+        }
+        if (object == null && !result.hasFailureForLocation(location)) {
+            result.error(foundCheck, uri.toString());
+        }
+        return object;
+    }
+
+    private <T extends CertificateRepositoryObject> T fetch(URI uri, Class<T> type, String foundCheck, String typeCheck, ValidationResult result) {
+        byte[] encoded = locator.getObject(uri);
+        if (!result.rejectIfNull(encoded, foundCheck, uri.toString())) {
+            return null;
+        }
+        CertificateRepositoryObject object = CertificateRepositoryObjectFactory.createCertificateRepositoryObject(encoded, result);
+        return result.rejectIfFalse(type.isInstance(object), typeCheck) ? type.cast(object) : null;
+    }
+
+    static boolean isCaCertificate(CertificateRepositoryObject object) {
+        return object instanceof X509ResourceCertificate
+                && !(object instanceof X509RouterCertificate)
+                && ((X509ResourceCertificate) object).isCa();
+    }
+
+    private static DateTime notValidAfter(CertificateRepositoryObject object) {
+        if (object instanceof X509ResourceCertificate) {
+            return ((X509ResourceCertificate) object).getValidityPeriod().getNotValidAfter();
+        } else if (object instanceof RpkiSignedObject) {
+            return ((RpkiSignedObject) object).getNotValidAfter();
+        }
+        return null;
+    }
+
+    private static DateTime earliest(DateTime a, DateTime b) {
+        if (a == null) {
+            return b;
+        }
+        return b == null || a.isBefore(b) ? a : b;
+    }
+
+    private static PublicationPoint publicationPoint(CertificateRepositoryObjectValidationContext context, URI manifestUri, URI crlUri, Map<URI, ValidatedObject> objects,
+                                                     List<CertificateRepositoryObjectValidationContext> childContexts, ValidationResult result, DateTime validUntil) {
+        return new PublicationPoint(context, manifestUri, crlUri, Collections.unmodifiableMap(objects), Collections.unmodifiableList(childContexts), result, validUntil);
+    }
+}
@@ -0,0 +1,14 @@
+package net.ripe.rpki.commons.validation.objectvalidators;
+
+import java.net.URI;
+
+/**
+ * Provides the encoded repository objects, for example from a local copy of the rsync repositories.
+ */
+public interface RepositoryObjectLocator {
+
+    /**
+     * @return the DER encoded object published at the uri, or <code>null</code> when it is not available.
+     */
+    byte[] getObject(URI uri);
+}
@@ -0,0 +1,125 @@
+package net.ripe.rpki.commons.validation.objectvalidators;
+
+import net.ripe.ipresource.IpResource;
+import net.ripe.ipresource.IpResourceType;
+import net.ripe.rpki.commons.crypto.cms.aspa.AspaCms;
+import net.ripe.rpki.commons.crypto.cms.roa.RoaCms;
+import net.ripe.rpki.commons.crypto.x509cert.X509RouterCertificate;
+import net.ripe.rpki.commons.validation.ValidationResult;
+import net.ripe.rpki.commons.validation.roa.AllowedRoute;
+
+import java.net.URI;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Outcome of validating the repository tree below a trust anchor: the trust anchor certificate and the publication
+ * point of every CA that was reached, keyed by the location of the CA certificate, and the payloads (VRPs, ASPA
+ * payloads and router keys) of the valid objects. Pass it to {@link IncrementalRepositoryValidator} as the previous
+ * run to only revalidate what changed.
+ */
+public class RepositoryValidationRun {
+
+    private final ValidatedObject trustAnchor;
+    private final ValidationResult trustAnchorResult;
+    private final Map<URI, PublicationPoint> publicationPoints;
+    private final int revalidatedPublicationPoints;
+
+    public RepositoryValidationRun(ValidatedObject trustAnchor, ValidationResult trustAnchorResult, Map<URI, PublicationPoint> publicationPoints, int revalidatedPublicationPoints) {
+        this.trustAnchor = trustAnchor;
+        this.trustAnchorResult = trustAnchorResult;
+        this.publicationPoints = Collections.unmodifiableMap(new LinkedHashMap<>(publicationPoints));
+        this.revalidatedPublicationPoints = revalidatedPublicationPoints;
+    }
+
+    public ValidatedObject getTrustAnchor() {
+        return trustAnchor;
+    }
+
+    public Map<URI, PublicationPoint> getPublicationPoints() {
+        return publicationPoints;
+    }
+
+    public PublicationPoint getPublicationPoint(URI caLocation) {
+        return publicationPoints.get(caLocation);
+    }
+
+    /**
+     * @return the number of publication points that were validated in this run, the others were reused from the
+     * previous run.
+     */
+    public int getRevalidatedPublicationPoints() {
+        return revalidatedPublicationPoints;
+    }
+
+    /**
+     * @return the trust anchor and all objects of all publication points, keyed by their location.
+     */
+    public Map<URI, ValidatedObject> getObjects() {
+        Map<URI, ValidatedObject> result = new LinkedHashMap<>();
+        result.put(trustAnchor.getUri(), trustAnchor);
+        for (PublicationPoint publicationPoint : publicationPoints.values()) {
+            result.putAll(publicationPoint.getObjects());
+        }
+        return result;
+    }
+
+    /**
+     * @return the validated ROA payloads (VRPs) of all valid ROAs.
+     */
+    public Set<AllowedRoute> getValidatedRoaPrefixes() {
+        List<RoaCms> roas = validObjects(RoaCms.class).collect(Collectors.toList());
+        return new LinkedHashSet<>(AllowedRoute.fromRoas(roas));
+    }
+
+    /**
+     * @return the validated ASPA payloads (VAPs) of all valid ASPA objects.
+     */
+    public Set<ValidatedAspaPayload> getValidatedAspaPayloads() {
+        return validObjects(AspaCms.class)
+                .map(aspa -> new ValidatedAspaPayload(aspa.getCustomerAsn(), aspa.getProviderASSet()))
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+    }
+
+    /**
+     * @return the router keys of all valid BGPsec router certificates, one per AS number or AS number range. Ranges
+     * are not expanded, since a single certificate can cover all 2^32 AS numbers.
+     */
+    public Set<RouterKey> getRouterKeys() {
+        Set<RouterKey> result = new LinkedHashSet<>();
+        validObjects(X509RouterCertificate.class).forEach(certificate -> {
+            byte[] subjectPublicKeyInfo = certificate.getPublicKey().getEncoded();
+            for (IpResource resource : certificate.resources()) {
+                if (resource.getType() == IpResourceType.ASN) {
+                    result.add(new RouterKey(resource, certificate.getSubjectKeyIdentifier(), subjectPublicKeyInfo));
+                }
+            }
+        });
+        return result;
+    }
+
+    private <T> Stream<T> validObjects(Class<T> type) {
+        return publicationPoints.values().stream()
+                .flatMap(publicationPoint -> publicationPoint.getObjects().values().stream())
+                .filter(object -> object.isValid() && type.isInstance(object.getObject()))
+                .map(object -> type.cast(object.getObject()));
+    }
+
+    /**
+     * @return the validation checks of the trust anchor and all publication points combined.
+     */
+    public ValidationResult getValidationResult() {
+        ValidationResult result = ValidationResult.withLocation(trustAnchor.getUri());
+        result.addAll(trustAnchorResult);
+        for (PublicationPoint publicationPoint : publicationPoints.values()) {
+            result.addAll(publicationPoint.getValidationResult());
+        }
+        return result;
+    }
+}
@@ -0,0 +1,20 @@
+package net.ripe.rpki.commons.validation.objectvalidators;
+
+import lombok.Value;
+import net.ripe.ipresource.IpResource;
+
+/**
+ * A BGPsec router key from a valid router certificate, one per AS number or AS number range of the certificate.
+ */
+@Value
+public class RouterKey {
+    /**
+     * A single {@link net.ripe.ipresource.Asn} or a range of AS numbers.
+     */
+    IpResource asns;
+    byte[] subjectKeyIdentifier;
+    /**
+     * The DER encoded subject public key info.
+     */
+    byte[] subjectPublicKeyInfo;
+}
@@ -0,0 +1,151 @@
+package net.ripe.rpki.commons.validation.objectvalidators;
+
+import net.ripe.rpki.commons.crypto.cms.manifest.ManifestLocator;
+import net.ripe.rpki.commons.crypto.crl.CrlLocator;
+import net.ripe.rpki.commons.crypto.crl.X509Crl;
+import net.ripe.rpki.commons.crypto.x509cert.X509ResourceCertificate;
+import net.ripe.rpki.commons.validation.ValidationOptions;
+import net.ripe.rpki.commons.validation.ValidationResult;
+import org.apache.commons.lang3.Validate;
+
+import java.net.URI;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Validates the complete repository tree below a trust anchor top-down: starting from the trust anchor certificate the
+ * manifest and CRL of every CA are located and all objects listed on the manifest are validated against them.
+ *
+ * The publication point of every CA is validated as an independent task on a work-stealing {@link ForkJoinPool}, and
+ * the tasks for its child CAs are forked as soon as it is done, so a slow publication point only delays its own
+ * subtree. Every child CA location is claimed by the first task reaching it, which also prevents looping on circular
+ * references.
+ *
+ * The result does not depend on scheduling. Afterwards the tree is walked in depth-first order, as
+ * {@link IncrementalRepositoryValidator} does, and each location is taken with the context of the first CA listing it
+ * in that order. A location that was claimed through another CA with a different context, which only happens when
+ * several CAs list it, is validated again with the right context during this walk.
+ *
+ * The object, manifest and CRL locators are called concurrently from the workers of the pool and must be thread-safe.
+ * Locators that fetch from the network block the worker, so use a dedicated pool sized for that rather than the
+ * common pool.
+ */
+public class TopDownRepositoryValidator {
+
+    private final RepositoryObjectLocator locator;
+    private final ValidationOptions options;
+    private final ForkJoinPool pool;
+    private ManifestLocator manifestLocator;
+    private CrlLocator crlLocator;
+
+    /**
+     * @param pool the pool running the validation tasks.
+     */
+    public TopDownRepositoryValidator(RepositoryObjectLocator locator, ValidationOptions options, ForkJoinPool pool) {
+        this.locator = Validate.notNull(locator, "locator is required");
+        this.options = Validate.notNull(options, "options are required");
+        this.pool = Validate.notNull(pool, "pool is required");
+    }
+
+    /**
+     * Locates manifests with the given locator instead of fetching them from the {@link RepositoryObjectLocator}.
+     */
+    public TopDownRepositoryValidator withManifestLocator(ManifestLocator manifestLocator) {
+        this.manifestLocator = manifestLocator;
+        return this;
+    }
+
+    /**
+     * Locates CRLs with the given locator instead of fetching them from the {@link RepositoryObjectLocator}.
+     */
+    public TopDownRepositoryValidator withCrlLocator(CrlLocator crlLocator) {
+        this.crlLocator = crlLocator;
+        return this;
+    }
+
+    public RepositoryValidationRun validate(URI trustAnchorLocation, X509ResourceCertificate trustAnchor) {
+        ValidationResult trustAnchorResult = ValidationResult.withLocation(trustAnchorLocation);
+        CertificateRepositoryObjectValidationContext trustAnchorContext = new CertificateRepositoryObjectValidationContext(trustAnchorLocation, trustAnchor);
+        trustAnchor.validate(trustAnchorLocation.toString(), trustAnchorContext, (X509Crl) null, null, options, trustAnchorResult);
+        ValidatedObject validatedTrustAnchor = new ValidatedObject(trustAnchorLocation, trustAnchor, !trustAnchorResult.hasFailures());
+
+        Map<URI, PublicationPoint> publicationPoints = new LinkedHashMap<>();
+        if (validatedTrustAnchor.isValid()) {
+            PublicationPointValidator publicationPointValidator = new PublicationPointValidator(locator, manifestLocator, crlLocator, options);
+            Map<URI, PublicationPoint> validated = new ConcurrentHashMap<>();
+            Set<URI> claimed = ConcurrentHashMap.newKeySet();
+            claimed.add(trustAnchorLocation);
+            pool.invoke(new PublicationPointTask(publicationPointValidator, trustAnchorContext, claimed, validated));
+            publicationPoints = inTreeOrder(trustAnchorContext, validated, publicationPointValidator);
+        }
+
+        return new RepositoryValidationRun(validatedTrustAnchor, trustAnchorResult, publicationPoints, publicationPoints.size());
+    }
+
+    /**
+     * Walks the tree depth-first, taking every location with the context of the first CA listing it, and validates the
+     * publication points that were validated with another context or not at all.
+     */
+    private static Map<URI, PublicationPoint> inTreeOrder(CertificateRepositoryObjectValidationContext trustAnchorContext, Map<URI, PublicationPoint> validated,
+                                                         PublicationPointValidator publicationPointValidator) {
+        Map<URI, PublicationPoint> result = new LinkedHashMap<>();
+        Deque<CertificateRepositoryObjectValidationContext> pending = new ArrayDeque<>();
+        pending.push(trustAnchorContext);
+        while (!pending.isEmpty()) {
+            CertificateRepositoryObjectValidationContext context = pending.pop();
+            if (result.containsKey(context.getLocation())) {
+                continue;
+            }
+            PublicationPoint publicationPoint = validated.get(context.getLocation());
+            if (publicationPoint == null || !publicationPoint.getContext().equals(context)) {
+                publicationPoint = publicationPointValidator.validate(context);
+            }
+            result.put(context.getLocation(), publicationPoint);
+
+            List<CertificateRepositoryObjectValidationContext> children = publicationPoint.getChildContexts();
+            for (int i = children.size() - 1; i >= 0; --i) {
+                pending.push(children.get(i));
+            }
+        }
+        return result;
+    }
+
+    private static class PublicationPointTask extends RecursiveAction {
+
+        private final PublicationPointValidator publicationPointValidator;
+        private final CertificateRepositoryObjectValidationContext context;
+        private final Set<URI> claimed;
+        private final Map<URI, PublicationPoint> validated;
+
+        PublicationPointTask(PublicationPointValidator publicationPointValidator, CertificateRepositoryObjectValidationContext context,
+                             Set<URI> claimed, Map<URI, PublicationPoint> validated) {
+            this.publicationPointValidator = publicationPointValidator;
+            this.context = context;
+            this.claimed = claimed;
+            this.validated = validated;
+        }
+
+        @Override
+        protected void compute() {
+            PublicationPoint publicationPoint = publicationPointValidator.validate(context);
+            validated.put(context.getLocation(), publicationPoint);
+
+            List<PublicationPointTask> children = new ArrayList<>();
+            for (CertificateRepositoryObjectValidationContext child : publicationPoint.getChildContexts()) {
+                if (claimed.add(child.getLocation())) {
+                    children.add(new PublicationPointTask(publicationPointValidator, child, claimed, validated));
+                }
+            }
+            ForkJoinTask.invokeAll(children);
+        }
+    }
+}
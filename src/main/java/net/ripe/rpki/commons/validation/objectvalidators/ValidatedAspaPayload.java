@@ -0,0 +1,15 @@
+package net.ripe.rpki.commons.validation.objectvalidators;
+
+import lombok.Value;
+import net.ripe.ipresource.Asn;
+
+import java.util.SortedSet;
+
+/**
+ * The customer AS and its provider ASes from a valid ASPA object.
+ */
+@Value
+public class ValidatedAspaPayload {
+    Asn customerAsn;
+    SortedSet<Asn> providerAsns;
+}
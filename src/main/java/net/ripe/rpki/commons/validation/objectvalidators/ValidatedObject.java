@@ -0,0 +1,18 @@
+package net.ripe.rpki.commons.validation.objectvalidators;
+
+import lombok.Value;
+import net.ripe.rpki.commons.crypto.CertificateRepositoryObject;
+
+import java.net.URI;
+
+/**
+ * Outcome of validating a single repository object. The object is <code>null</code> when it could not be found or
+ * parsed, the validation checks are in the {@link net.ripe.rpki.commons.validation.ValidationResult} of the
+ * publication point, at the location of the object.
+ */
+@Value
+public class ValidatedObject {
+    URI uri;
+    CertificateRepositoryObject object;
+    boolean valid;
+}
@@ -21,7 +21,7 @@ import static net.ripe.rpki.commons.validation.ValidationString.*;
 
 public abstract class X509CertificateParentChildValidator<T extends AbstractX509CertificateWrapper> {
 
-    private T parent;
+    private AbstractX509CertificateWrapper parent;
 
     protected T child;
 
@@ -31,7 +31,7 @@ public abstract class X509CertificateParentChildValidator<T extends AbstractX509
     protected final ValidationResult result;
 
 
-    public X509CertificateParentChildValidator(ValidationOptions options, ValidationResult result, T parent, X509Crl crl) {
+    public X509CertificateParentChildValidator(ValidationOptions options, ValidationResult result, AbstractX509CertificateWrapper parent, X509Crl crl) {
         this.options = options;
         this.result = result;
         this.parent = parent;
@@ -4,6 +4,7 @@ import net.ripe.ipresource.IpResourceSet;
 import net.ripe.rpki.commons.crypto.CertificateRepositoryObjectFile;
 import net.ripe.rpki.commons.crypto.crl.X509Crl;
 import net.ripe.rpki.commons.crypto.x509cert.X509ResourceCertificate;
+import net.ripe.rpki.commons.crypto.x509cert.X509ResourceCertificateInternPool;
 import net.ripe.rpki.commons.crypto.x509cert.X509ResourceCertificateParser;
 import net.ripe.rpki.commons.validation.ValidationLocation;
 import net.ripe.rpki.commons.validation.ValidationOptions;
@@ -27,6 +28,7 @@ public class X509ResourceCertificateBottomUpValidator implements X509ResourceCer
     private ValidationOptions options;
     private ValidationResult result;
     private ValidationLocation location;
+    private X509ResourceCertificateInternPool certificatePool;
 
 
     public X509ResourceCertificateBottomUpValidator(ResourceCertificateLocator locator, X509ResourceCertificate... trustAnchors) {
@@ -45,6 +47,14 @@ public class X509ResourceCertificateBottomUpValidator implements X509ResourceCer
         this.trustAnchors = trustAnchors;
     }
 
+    /**
+     * @param certificatePool pool used to re-use the parsed parent certificates across validations.
+     */
+    public X509ResourceCertificateBottomUpValidator(ValidationOptions options, ValidationResult result, ResourceCertificateLocator locator, Collection<X509ResourceCertificate> trustAnchors, X509ResourceCertificateInternPool certificatePool) {
+        this(options, result, locator, trustAnchors);
+        this.certificatePool = certificatePool;
+    }
+
     @Override
     public ValidationResult getValidationResult() {
         return result;
@@ -104,13 +114,11 @@ public class X509ResourceCertificateBottomUpValidator implements X509ResourceCer
             ValidationLocation parentLocation = new ValidationLocation(parent.getName());
             result.setLocation(parentLocation);
 
-            X509ResourceCertificateParser parser = new X509ResourceCertificateParser();
-            parser.parse(result, parent.getContent());
+            cert = parseParent(parent.getContent());
             if (result.hasFailures()) {
                 return;
             }
 
-            cert = parser.getCertificate();
             certificates.add(0, new CertificateWithLocation(cert, parentLocation));
             if (!result.rejectIfFalse(certificates.size() <= MAX_CHAIN_LENGTH, CERT_CHAIN_LENGTH, Integer.toString(MAX_CHAIN_LENGTH))) {
                 return;
@@ -119,6 +127,13 @@ public class X509ResourceCertificateBottomUpValidator implements X509ResourceCer
 
     }
 
+    private X509ResourceCertificate parseParent(byte[] encoded) {
+        if (certificatePool != null) {
+            return certificatePool.parseCertificate(result, encoded);
+        }
+        return X509ResourceCertificateParser.parseCertificate(result, encoded);
+    }
+
     private X509Crl getCRL(X509ResourceCertificate certificate, ValidationResult validationResult) {
         CertificateRepositoryObjectFile<X509Crl> crlFile = locator.findCrl(certificate);
         if (crlFile == null) {
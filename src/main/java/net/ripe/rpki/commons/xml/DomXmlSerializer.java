@@ -1,15 +1,14 @@
 package net.ripe.rpki.commons.xml;
 
+import net.ripe.rpki.commons.util.XML;
 import org.w3c.dom.DOMException;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
 
-import javax.xml.transform.OutputKeys;
 import javax.xml.transform.Transformer;
 import javax.xml.transform.TransformerException;
-import javax.xml.transform.TransformerFactory;
 import javax.xml.transform.dom.DOMSource;
 import javax.xml.transform.stream.StreamResult;
 import java.io.StringWriter;
@@ -65,12 +64,7 @@ public abstract class DomXmlSerializer<T> implements XmlSerializer<T> {
     }
 
     protected String serialize(final Document document) throws TransformerException {
-        final Transformer transformer = TransformerFactory.newInstance().newTransformer();
-
-        transformer.setOutputProperty(OutputKeys.OMIT_XML_DECLARATION, "no");
-        transformer.setOutputProperty(OutputKeys.METHOD, "xml");
-        transformer.setOutputProperty(OutputKeys.INDENT, "yes");
-        transformer.setOutputProperty(OutputKeys.ENCODING, "UTF-8");
+        final Transformer transformer = XML.getTransformer();
 
         final StringWriter sw = new StringWriter();
         transformer.transform(new DOMSource(document), new StreamResult(sw));
@@ -1,8 +1,18 @@
 package net.ripe.rpki.commons.xml;
 
 import com.thoughtworks.xstream.XStream;
+import com.thoughtworks.xstream.converters.ConversionException;
+import com.thoughtworks.xstream.converters.Converter;
+import com.thoughtworks.xstream.converters.reflection.AbstractReflectionConverter;
+import com.thoughtworks.xstream.converters.reflection.ReflectionProvider;
 
 import java.io.Writer;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Set;
 
 public class XStreamXmlSerializer<T> implements XmlSerializer<T> {
 
@@ -30,4 +40,45 @@ public class XStreamXmlSerializer<T> implements XmlSerializer<T> {
     protected void serialize(T object, Writer writer) {
         xStream.toXML(object, writer);
     }
+
+    /**
+     * XStream looks up the alias, converter and field metadata of a class the first time it meets that class. This
+     * visits the object type and the declared types of its fields up front, so the first call to
+     * {@link #serialize(Object)} or {@link #deserialize(String)} does not pay for it. Only types handled by reflection
+     * are descended into, and JDK classes are not.
+     */
+    void warmUp() {
+        ReflectionProvider reflectionProvider = xStream.getReflectionProvider();
+        Set<Class<?>> visited = new HashSet<>();
+        Deque<Class<?>> pending = new ArrayDeque<>();
+        pending.add(objectType);
+        while (!pending.isEmpty()) {
+            Class<?> type = pending.remove();
+            while (type.isArray()) {
+                type = type.getComponentType();
+            }
+            if (type.isPrimitive() || !visited.add(type)) {
+                continue;
+            }
+            xStream.getMapper().serializedClass(type);
+            Converter converter;
+            try {
+                converter = xStream.getConverterLookup().lookupConverterForType(type);
+            } catch (ConversionException e) {
+                // No converter for a declared (often abstract) field type, the runtime type is looked up when used.
+                continue;
+            }
+            if (!(converter instanceof AbstractReflectionConverter) || type.getName().startsWith("java.") || type.getName().startsWith("javax.")) {
+                continue;
+            }
+            for (Class<?> current = type; current != null && current != Object.class; current = current.getSuperclass()) {
+                for (Field field : current.getDeclaredFields()) {
+                    if (!Modifier.isStatic(field.getModifiers()) && !Modifier.isTransient(field.getModifiers())) {
+                        reflectionProvider.getFieldOrNull(current, field.getName());
+                        pending.add(field.getType());
+                    }
+                }
+            }
+        }
+    }
 }
@@ -0,0 +1,91 @@
+package net.ripe.rpki.commons.xml;
+
+import lombok.Value;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Consumer;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Builds and keeps one {@link XStreamXmlSerializer} per object type, strictness and customisation.
+ *
+ * Building a serializer creates a new {@link com.thoughtworks.xstream.XStream} with all converters and aliases of
+ * {@link XStreamXmlSerializerBuilder}, and XStream lazily collects reflection metadata for every class it meets
+ * afterwards. Serializers from this registry are built once, warmed up for their object type, and shared: a
+ * configured XStream instance is thread safe.
+ *
+ * Customisations are identified by name, as the customisation itself is usually a lambda that cannot be compared.
+ * The customisation is only applied when the serializer is first built, so use a distinct name for every distinct
+ * customisation of the same type.
+ */
+public class XStreamXmlSerializerRegistry {
+
+    public static final XStreamXmlSerializerRegistry INSTANCE = new XStreamXmlSerializerRegistry();
+
+    private static final String NO_CUSTOMISATION = "";
+
+    @Value
+    private static class SerializerKey {
+        Class<?> objectType;
+        boolean strict;
+        String customisation;
+    }
+
+    private final ConcurrentMap<SerializerKey, XStreamXmlSerializer<?>> serializers = new ConcurrentHashMap<>();
+
+    public <T> XStreamXmlSerializer<T> getStrictSerializer(Class<T> objectType) {
+        return getSerializer(objectType, true, NO_CUSTOMISATION, builder -> {
+        });
+    }
+
+    public <T> XStreamXmlSerializer<T> getForgivingSerializer(Class<T> objectType) {
+        return getSerializer(objectType, false, NO_CUSTOMISATION, builder -> {
+        });
+    }
+
+    /**
+     * @param customisation     name of the customisation, must be unique per object type and strictness.
+     * @param customiser        applied to the builder before the serializer is built, for example to add aliases.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> XStreamXmlSerializer<T> getSerializer(Class<T> objectType, boolean strict, String customisation, Consumer<XStreamXmlSerializerBuilder<T>> customiser) {
+        requireNonNull(objectType, "objectType is required");
+        requireNonNull(customisation, "customisation is required");
+        requireNonNull(customiser, "customiser is required");
+
+        SerializerKey key = new SerializerKey(objectType, strict, customisation);
+        XStreamXmlSerializer<?> existing = serializers.get(key);
+        if (existing != null) {
+            return (XStreamXmlSerializer<T>) existing;
+        }
+
+        // Built outside of the map, so a customiser can use the registry itself. Concurrent callers may build the same
+        // serializer more than once, only the first one is kept.
+        XStreamXmlSerializerBuilder<T> builder = new XStreamXmlSerializerBuilder<>(objectType, strict);
+        customiser.accept(builder);
+        XStreamXmlSerializer<T> serializer = builder.build();
+        serializer.warmUp();
+        existing = serializers.putIfAbsent(key, serializer);
+        return existing != null ? (XStreamXmlSerializer<T>) existing : serializer;
+    }
+
+    /**
+     * Builds and warms up the default strict and forgiving serializers of the given types, to move this cost to
+     * application startup.
+     */
+    public void warmUp(Class<?>... objectTypes) {
+        for (Class<?> objectType : objectTypes) {
+            getStrictSerializer(objectType);
+            getForgivingSerializer(objectType);
+        }
+    }
+
+    /**
+     * @return the number of serializers built so far.
+     */
+    public int size() {
+        return serializers.size();
+    }
+}
@@ -1,6 +1,7 @@
 package net.ripe.rpki.commons.crypto.cms;
 
 import net.ripe.rpki.commons.provisioning.x509.ProvisioningCmsCertificateBuilderTest;
+import org.bouncycastle.asn1.ASN1ObjectIdentifier;
 import org.bouncycastle.asn1.BERSequence;
 import org.bouncycastle.asn1.BERTaggedObject;
 import org.bouncycastle.asn1.DERSequence;
@@ -8,15 +9,20 @@ import org.bouncycastle.asn1.DERTaggedObject;
 import org.bouncycastle.asn1.cms.ContentInfo;
 import org.bouncycastle.cert.jcajce.JcaCertStore;
 import org.bouncycastle.cms.CMSAbsentContent;
+import org.bouncycastle.cms.CMSProcessableByteArray;
 import org.bouncycastle.cms.CMSSignedData;
 import org.bouncycastle.cms.CMSSignedDataGenerator;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.io.ByteArrayOutputStream;
+import java.nio.channels.Channels;
 import java.security.cert.X509Extension;
 import java.util.Collections;
 import java.util.List;
 
+import static org.junit.Assert.assertArrayEquals;
+
 public class RPKISignedDataGeneratorTest {
 
     final RPKISignedDataGenerator rpkiCmsSubject = new RPKISignedDataGenerator();
@@ -53,5 +59,17 @@ public class RPKISignedDataGeneratorTest {
         assert(signedData.getObjectAt(3).toASN1Primitive() instanceof BERTaggedObject);
     }
 
+    @Test
+    public void shouldStreamSameEncodingAsGenerate() throws Exception {
+        CMSProcessableByteArray content = new CMSProcessableByteArray(new ASN1ObjectIdentifier("1.2.840.113549.1.9.16.1.28"), new byte[]{1, 2, 3});
+        byte[] expected = rpkiCmsSubject.generate(content, true).getEncoded();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        rpkiCmsSubject.generate(content, out);
+        assertArrayEquals(expected, out.toByteArray());
 
-}
\ No newline at end of file
+        ByteArrayOutputStream channelOut = new ByteArrayOutputStream();
+        rpkiCmsSubject.generate(content, Channels.newChannel(channelOut));
+        assertArrayEquals(expected, channelOut.toByteArray());
+    }
+}
@@ -0,0 +1,138 @@
+package net.ripe.rpki.commons.crypto.cms;
+
+import net.ripe.ipresource.Asn;
+import net.ripe.ipresource.IpRange;
+import net.ripe.ipresource.IpResourceSet;
+import net.ripe.ipresource.IpResourceType;
+import net.ripe.rpki.commons.crypto.ValidityPeriod;
+import net.ripe.rpki.commons.crypto.cms.manifest.ManifestCms;
+import net.ripe.rpki.commons.crypto.cms.manifest.ManifestCmsParser;
+import net.ripe.rpki.commons.crypto.cms.roa.RoaCms;
+import net.ripe.rpki.commons.crypto.cms.roa.RoaCmsParser;
+import net.ripe.rpki.commons.crypto.cms.roa.RoaPrefix;
+import net.ripe.rpki.commons.crypto.util.CachingContentSignerFactory;
+import net.ripe.rpki.commons.crypto.util.KeyPairFactoryTest;
+import net.ripe.rpki.commons.crypto.x509cert.X509ResourceCertificate;
+import net.ripe.rpki.commons.crypto.x509cert.X509ResourceCertificateTest;
+import net.ripe.rpki.commons.util.UTC;
+import net.ripe.rpki.commons.validation.ValidationResult;
+import org.joda.time.DateTime;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.net.URI;
+import java.security.GeneralSecurityException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.SortedMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RpkiSignedObjectBatchIssuerTest {
+
+    private static final URI PUBLICATION_DIRECTORY = URI.create("rsync://host.foo/repository/");
+    private static final URI CRL_URI = PUBLICATION_DIRECTORY.resolve("ca.crl");
+
+    private X509ResourceCertificate issuerCertificate;
+    private RpkiSignedObjectBatchIssuer subject;
+
+    @BeforeEach
+    void setUp() {
+        DateTime now = UTC.dateTime();
+        issuerCertificate = X509ResourceCertificateTest.createSelfSignedCaResourceCertificate();
+        subject = new RpkiSignedObjectBatchIssuer()
+                .withIssuerCertificate(issuerCertificate)
+                .withIssuerKeyPair(KeyPairFactoryTest.TEST_KEY_PAIR)
+                .withIssuerCertificatePublicationUri(X509ResourceCertificateTest.TEST_TA_URI)
+                .withCrlUri(CRL_URI)
+                .withPublicationDirectory(PUBLICATION_DIRECTORY)
+                .withValidityPeriod(new ValidityPeriod(now.minusMinutes(1), now.plusDays(1)))
+                .withKeyPairGenerator(() -> KeyPairFactoryTest.SECOND_TEST_KEY_PAIR);
+    }
+
+    @Test
+    void shouldIssueRoasAndManifest() {
+        SignedObjectBatch roas = subject.issue(Arrays.asList(
+                SignedObjectSpecification.roa("a.roa", BigInteger.valueOf(10), Asn.parse("AS65000"),
+                        Collections.singletonList(new RoaPrefix(IpRange.parse("10.0.0.0/16"), 24))),
+                SignedObjectSpecification.roa("b.roa", BigInteger.valueOf(11), Asn.parse("AS65001"),
+                        Collections.singletonList(new RoaPrefix(IpRange.parse("192.168.0.0/24"))))
+        ));
+
+        assertThat(roas.getObjects()).containsOnlyKeys("a.roa", "b.roa");
+        RoaCms roa = parseRoa(roas.getEncoded("a.roa"));
+        assertThat(roa.getAsn()).isEqualTo(Asn.parse("AS65000"));
+        assertThat(roa.getPrefixes()).containsExactly(new RoaPrefix(IpRange.parse("10.0.0.0/16"), 24));
+        assertThat(roa.getCertificate().getIssuer()).isEqualTo(issuerCertificate.getSubject());
+        assertThat(roa.getCertificate().getSerialNumber()).isEqualTo(BigInteger.valueOf(10));
+        assertThat(roa.getCertificate().getCrlUri()).isEqualTo(CRL_URI);
+        assertThat(roa.getCertificate().getSubjectInformationAccess()[0].getLocation()).isEqualTo(PUBLICATION_DIRECTORY.resolve("a.roa"));
+        assertThat(parseRoa(roas.getEncoded("b.roa")).getAsn()).isEqualTo(Asn.parse("AS65001"));
+
+        SortedMap<String, byte[]> entries = roas.getManifestEntries();
+        SignedObjectBatch manifests = subject.issue(Collections.singletonList(
+                SignedObjectSpecification.manifest("ca.mft", BigInteger.valueOf(12), BigInteger.ONE, entries)));
+
+        ValidationResult result = ValidationResult.withLocation("ca.mft");
+        ManifestCmsParser parser = new ManifestCmsParser();
+        parser.parse(result, manifests.getEncoded("ca.mft"));
+        assertThat(result.hasFailures()).isFalse();
+        ManifestCms manifest = parser.getManifestCms();
+        assertThat(manifest.getFileNames()).containsExactly("a.roa", "b.roa");
+        assertThat(manifest.verifyFileContents("a.roa", roas.getEncoded("a.roa"))).isTrue();
+        assertThat(manifest.getCertificate().isResourceSetInherited()).isTrue();
+    }
+
+    @Test
+    void shouldSignAllEeCertificatesOfBatchWithOneSigner() throws GeneralSecurityException {
+        CachingContentSignerFactory contentSignerFactory = new CachingContentSignerFactory(10);
+        subject.withContentSignerFactory(contentSignerFactory);
+
+        SignedObjectBatch roas = subject.issue(Arrays.asList(
+                SignedObjectSpecification.roa("a.roa", BigInteger.valueOf(10), Asn.parse("AS65000"),
+                        Collections.singletonList(new RoaPrefix(IpRange.parse("10.0.0.0/16")))),
+                SignedObjectSpecification.roa("b.roa", BigInteger.valueOf(11), Asn.parse("AS65001"),
+                        Collections.singletonList(new RoaPrefix(IpRange.parse("10.1.0.0/16")))),
+                SignedObjectSpecification.roa("c.roa", BigInteger.valueOf(12), Asn.parse("AS65002"),
+                        Collections.singletonList(new RoaPrefix(IpRange.parse("10.2.0.0/16"))))
+        ));
+
+        for (String fileName : roas.getObjects().keySet()) {
+            parseRoa(roas.getEncoded(fileName)).getCertificate().verify(KeyPairFactoryTest.TEST_KEY_PAIR.getPublic());
+        }
+        assertThat(contentSignerFactory.size()).isEqualTo(1);
+        assertThat(contentSignerFactory.stats().requestCount()).isEqualTo(3);
+    }
+
+    @Test
+    void shouldRejectDuplicateFileNames() {
+        SignedObjectSpecification roa = SignedObjectSpecification.roa("a.roa", BigInteger.TEN, Asn.parse("AS65000"),
+                Collections.singletonList(new RoaPrefix(IpRange.parse("10.0.0.0/16"))));
+
+        assertThatThrownBy(() -> subject.issue(Arrays.asList(roa, roa))).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void shouldFailBatchWhenAnObjectFails() {
+        SignedObjectSpecification failing = new SignedObjectSpecification("broken.roa", BigInteger.TEN,
+                IpResourceSet.parse("10.0.0.0/16"), EnumSet.noneOf(IpResourceType.class),
+                (eeCertificate, eePrivateKey, signatureProvider) -> {
+                    throw new IllegalStateException("broken");
+                });
+
+        assertThatThrownBy(() -> subject.issue(Collections.singletonList(failing)))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("broken");
+    }
+
+    private static RoaCms parseRoa(byte[] encoded) {
+        ValidationResult result = ValidationResult.withLocation("roa");
+        RoaCmsParser parser = new RoaCmsParser();
+        parser.parse(result, encoded);
+        assertThat(result.hasFailures()).isFalse();
+        return parser.getRoaCms();
+    }
+}
@@ -0,0 +1,76 @@
+package net.ripe.rpki.commons.crypto.cms.manifest;
+
+import net.ripe.rpki.commons.crypto.ValidityPeriod;
+import net.ripe.rpki.commons.crypto.x509cert.X509ResourceCertificate;
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+
+import static net.ripe.rpki.commons.crypto.x509cert.X509CertificateBuilderHelper.DEFAULT_SIGNATURE_PROVIDER;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class IncrementalManifestCmsBuilderTest {
+
+    private static final DateTime THIS_UPDATE_TIME = new DateTime(2008, 9, 1, 23, 43, 29, 0, DateTimeZone.UTC);
+    private static final ValidityPeriod VALIDITY_PERIOD = new ValidityPeriod(THIS_UPDATE_TIME, THIS_UPDATE_TIME.plusHours(24));
+
+    private static final byte[] CHANGED_CONTENTS = "changed".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] NEW_CONTENTS = "new".getBytes(StandardCharsets.US_ASCII);
+
+    @Test
+    void shouldBuildSameManifestAsFullBuilder() {
+        ManifestCms previous = ManifestCmsTest.getRootManifestCms();
+        X509ResourceCertificate certificate = previous.getCertificate();
+
+        IncrementalManifestCmsBuilder subject = new IncrementalManifestCmsBuilder(previous)
+                .putFile("filename2.roa", CHANGED_CONTENTS)
+                .putFile("filename3.roa", NEW_CONTENTS)
+                .withCertificate(certificate)
+                .withValidityPeriod(VALIDITY_PERIOD)
+                .withSignatureProvider(DEFAULT_SIGNATURE_PROVIDER);
+        assertThat(subject.removeFile("filename1.cer")).isTrue();
+        assertThat(subject.removeFile("unknown.cer")).isFalse();
+        ManifestCms incremental = subject.build(ManifestCmsTest.MANIFEST_KEY_PAIR.getPrivate());
+
+        ManifestCmsBuilder full = new ManifestCmsBuilder()
+                .withCertificate(certificate)
+                .withManifestNumber(previous.getNumber().add(BigInteger.ONE))
+                .withValidityPeriod(VALIDITY_PERIOD)
+                .withSignatureProvider(DEFAULT_SIGNATURE_PROVIDER);
+        full.addFile("filename2.roa", CHANGED_CONTENTS);
+        full.addFile("filename3.roa", NEW_CONTENTS);
+
+        assertThat(incremental.getEncoded()).isEqualTo(full.build(ManifestCmsTest.MANIFEST_KEY_PAIR.getPrivate()).getEncoded());
+        assertThat(incremental.getFileNames()).containsExactly("filename2.roa", "filename3.roa");
+        assertThat(incremental.verifyFileContents("filename2.roa", CHANGED_CONTENTS)).isTrue();
+    }
+
+    @Test
+    void shouldContinueFromLastBuiltManifest() {
+        ManifestCms previous = ManifestCmsTest.getRootManifestCms();
+        IncrementalManifestCmsBuilder subject = new IncrementalManifestCmsBuilder(previous)
+                .withCertificate(previous.getCertificate())
+                .withValidityPeriod(VALIDITY_PERIOD);
+        subject.build(ManifestCmsTest.MANIFEST_KEY_PAIR.getPrivate());
+
+        assertThatThrownBy(() -> subject.build(ManifestCmsTest.MANIFEST_KEY_PAIR.getPrivate())).isInstanceOf(NullPointerException.class);
+        assertThatThrownBy(() -> subject.withManifestNumber(previous.getNumber().add(BigInteger.ONE))).isInstanceOf(IllegalArgumentException.class);
+
+        ManifestCms next = subject.withCertificate(previous.getCertificate()).build(ManifestCmsTest.MANIFEST_KEY_PAIR.getPrivate());
+        assertThat(next.getNumber()).isEqualTo(previous.getNumber().add(BigInteger.TWO));
+        assertThat(next.getFileNames()).isEqualTo(previous.getFileNames());
+        assertThat(subject.getNumberOfFiles()).isEqualTo(previous.size());
+    }
+
+    @Test
+    void shouldRejectInvalidHash() {
+        IncrementalManifestCmsBuilder subject = new IncrementalManifestCmsBuilder(ManifestCmsTest.getRootManifestCms());
+
+        assertThatThrownBy(() -> subject.putFileHash("file.roa", new byte[31])).isInstanceOf(IllegalArgumentException.class);
+        assertThat(subject.containsFile("file.roa")).isFalse();
+    }
+}
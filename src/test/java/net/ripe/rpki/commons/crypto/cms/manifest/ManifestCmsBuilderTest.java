@@ -7,6 +7,7 @@ import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.math.BigInteger;
 
@@ -33,6 +34,27 @@ public class ManifestCmsBuilderTest {
     }
 
 
+    @Test
+    public void shouldWriteSameEncodingAsBuild() throws IOException {
+        subject.addFile("foo1", new byte[]{1, 2, 3, 4});
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        subject.writeTo(TEST_KEY_PAIR.getPrivate(), out);
+
+        assertArrayEquals(subject.build(TEST_KEY_PAIR.getPrivate()).getEncoded(), out.toByteArray());
+    }
+
+    @Test
+    public void shouldRequireCertificateBeforeWriting() {
+        subject.withCertificate(null);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        NullPointerException e = assertThrows(NullPointerException.class, () -> subject.writeTo(TEST_KEY_PAIR.getPrivate(), out));
+
+        assertEquals("certificate is required", e.getMessage());
+        assertEquals(0, out.size());
+    }
+
     @Test
     public void shouldTrackFilenameAndHash() {
         byte[] content = {1, 2, 3, 4};
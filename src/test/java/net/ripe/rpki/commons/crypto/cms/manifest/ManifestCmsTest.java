@@ -28,13 +28,21 @@ import org.joda.time.DateTimeZone;
 import org.joda.time.Duration;
 import org.junit.After;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.mockito.invocation.InvocationOnMock;
 import org.mockito.stubbing.Answer;
 
 import javax.security.auth.x500.X500Principal;
+import java.io.IOException;
 import java.math.BigInteger;
 import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.security.KeyPair;
 import java.util.Collections;
 import java.util.EnumSet;
@@ -79,6 +87,9 @@ public class ManifestCmsTest {
         files.put("filename2.roa", FILE2_CONTENTS);
     }
 
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
     private CrlLocator crlLocator;
     private ManifestCms subject;
     private X509ResourceCertificate rootCertificate;
@@ -399,6 +410,71 @@ public class ManifestCmsTest {
         assertFalse(mft.matchesFiles(wrongFiles));
     }
 
+    @Test
+    public void shouldReportMissingExtraAndMismatchedFiles() {
+        ManifestCms mft = getRootManifestCms();
+        Map<String, byte[]> wrongFiles = new HashMap<String, byte[]>();
+        wrongFiles.put("filename2.roa", FILE1_CONTENTS);
+        wrongFiles.put("newfile.crl", FILE1_CONTENTS);
+
+        ManifestFileVerification verification = mft.verifyFiles(wrongFiles);
+
+        assertFalse(verification.isMatch());
+        assertEquals(Collections.singleton("filename1.cer"), verification.getMissingFiles());
+        assertEquals(Collections.singleton("newfile.crl"), verification.getExtraFiles());
+        assertEquals(Collections.singleton("filename2.roa"), verification.getMismatchedFiles());
+        assertTrue(mft.verifyFiles(files).isMatch());
+    }
+
+    @Test
+    public void shouldVerifyLargeFileSetsFromBuffers() {
+        ManifestCmsBuilder builder = getRootManifestBuilder();
+        Map<String, ByteBuffer> buffers = new HashMap<>();
+        for (int i = 0; i < 200; i++) {
+            byte[] contents = ("content " + i).getBytes(StandardCharsets.US_ASCII);
+            builder.addFile("file" + i + ".roa", contents);
+            ByteBuffer buffer = ByteBuffer.allocateDirect(contents.length);
+            buffer.put(contents).flip();
+            buffers.put("file" + i + ".roa", buffer);
+        }
+        ManifestCms mft = builder.build(MANIFEST_KEY_PAIR.getPrivate());
+
+        assertTrue(mft.verifyFileBuffers(buffers).isMatch());
+
+        buffers.put("file42.roa", ByteBuffer.wrap(FILE1_CONTENTS));
+        assertEquals(Collections.singleton("file42.roa"), mft.verifyFileBuffers(buffers).getMismatchedFiles());
+    }
+
+    @Test
+    public void shouldVerifyFileContentsFromFile() throws IOException {
+        Path file = temporaryFolder.newFile("filename1.cer").toPath();
+        Files.write(file, FILE1_CONTENTS);
+
+        assertTrue(subject.verifyFileContents("filename1.cer", file));
+        assertFalse(subject.verifyFileContents("filename2.roa", file));
+        try (FileChannel channel = FileChannel.open(file)) {
+            assertTrue(subject.getFileContentSpecification("filename1.cer").isSatisfiedBy(channel));
+        }
+        assertTrue(subject.verifyFileContents("filename2.roa", ByteBuffer.wrap(FILE2_CONTENTS)));
+    }
+
+    @Test
+    public void shouldHashEmptyFile() throws IOException {
+        Path file = temporaryFolder.newFile("empty.roa").toPath();
+
+        assertArrayEquals(ManifestCms.hashContents(new byte[0]), ManifestCms.hashContents(file));
+    }
+
+    @Test
+    public void shouldHashBufferWithoutChangingPosition() {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(FILE1_CONTENTS.length);
+        buffer.put(FILE1_CONTENTS).flip();
+
+        assertArrayEquals(ManifestCms.hashContents(FILE1_CONTENTS), ManifestCms.hashContents(buffer));
+        assertArrayEquals(ManifestCms.hashContents(FILE1_CONTENTS), ManifestCms.hashContents(ByteBuffer.wrap(FILE1_CONTENTS).asReadOnlyBuffer()));
+        assertEquals(0, buffer.position());
+    }
+
     @Test
     public void shouldPastValidityTimeForCmsBeTheSameAsTheCertificate() {
         ManifestCms subject = getRootManifestCms();
@@ -0,0 +1,78 @@
+package net.ripe.rpki.commons.crypto.cms.manifest;
+
+import org.apache.commons.lang3.SerializationUtils;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ManifestFileHashesTest {
+
+    private static final byte[] HASH_1 = ManifestCms.hashContents(new byte[]{1});
+    private static final byte[] HASH_2 = ManifestCms.hashContents(new byte[]{2});
+    private static final byte[] HASH_3 = ManifestCms.hashContents(new byte[]{3});
+
+    @Test
+    void shouldLookupEntriesInFileNameOrder() {
+        Map<String, byte[]> files = new LinkedHashMap<>();
+        files.put("c.roa", HASH_3);
+        files.put("a.cer", HASH_1);
+        files.put("b.crl", HASH_2);
+
+        ManifestFileHashes subject = new ManifestFileHashes(files);
+
+        assertThat(subject.size()).isEqualTo(3);
+        assertThat(subject.asMap().keySet()).containsExactly("a.cer", "b.crl", "c.roa");
+        assertThat(subject.getHash("b.crl")).isEqualTo(HASH_2);
+        assertThat(subject.getHash("d.gbr")).isNull();
+        assertThat(subject.contains("a.cer")).isTrue();
+        assertThat(subject.contains("0.cer")).isFalse();
+        assertThat(subject.contains(42)).isFalse();
+        assertThat(subject.hashMatches("c.roa", HASH_3)).isTrue();
+        assertThat(subject.hashMatches("c.roa", HASH_1)).isFalse();
+        assertThat(subject.asMap().entrySet())
+                .extracting(Map.Entry::getValue)
+                .containsExactly(HASH_1, HASH_2, HASH_3);
+    }
+
+    @Test
+    void shouldNotExposeInternalHashes() {
+        ManifestFileHashes subject = new ManifestFileHashes(Map.of("a.cer", HASH_1));
+
+        subject.getHash("a.cer")[0] ^= 1;
+        subject.asMap().get("a.cer")[0] ^= 1;
+
+        assertThat(subject.getHash("a.cer")).isEqualTo(HASH_1);
+    }
+
+    @Test
+    void shouldSupportHashesOfDifferentLength() {
+        Map<String, byte[]> files = Map.of("a.cer", new byte[]{1, 2}, "b.crl", new byte[]{3}, "c.roa", new byte[0]);
+
+        ManifestFileHashes subject = new ManifestFileHashes(files);
+
+        assertThat(subject.getHash("a.cer")).containsExactly(1, 2);
+        assertThat(subject.getHash("b.crl")).containsExactly(3);
+        assertThat(subject.getHash("c.roa")).isEmpty();
+        assertThat(subject.hashMatches("b.crl", new byte[]{3})).isTrue();
+    }
+
+    @Test
+    void shouldBeEmpty() {
+        ManifestFileHashes subject = new ManifestFileHashes(Map.of());
+
+        assertThat(subject.size()).isZero();
+        assertThat(subject.asMap()).isEmpty();
+        assertThat(subject.contains("a.cer")).isFalse();
+    }
+
+    @Test
+    void shouldBeSerializable() {
+        ManifestFileHashes subject = SerializationUtils.roundtrip(new ManifestFileHashes(Map.of("a.cer", HASH_1, "b.crl", HASH_2)));
+
+        assertThat(subject.getHash("b.crl")).isEqualTo(HASH_2);
+        assertThat(subject.asMap()).hasSize(2);
+    }
+}
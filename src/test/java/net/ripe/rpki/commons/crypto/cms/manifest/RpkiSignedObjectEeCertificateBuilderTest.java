@@ -3,6 +3,7 @@ package net.ripe.rpki.commons.crypto.cms.manifest;
 import net.ripe.ipresource.IpResourceSet;
 import net.ripe.ipresource.IpResourceType;
 import net.ripe.rpki.commons.crypto.ValidityPeriod;
+import net.ripe.rpki.commons.crypto.util.CachingContentSignerFactory;
 import net.ripe.rpki.commons.crypto.util.KeyPairFactoryTest;
 import net.ripe.rpki.commons.crypto.x509cert.RpkiSignedObjectEeCertificateBuilder;
 import net.ripe.rpki.commons.crypto.x509cert.X509ResourceCertificate;
@@ -15,6 +16,7 @@ import org.junit.Test;
 import javax.security.auth.x500.X500Principal;
 import java.math.BigInteger;
 import java.net.URI;
+import java.security.GeneralSecurityException;
 import java.util.EnumSet;
 
 import static org.junit.Assert.*;
@@ -74,6 +76,28 @@ public class RpkiSignedObjectEeCertificateBuilderTest {
         assertEquals(publicationUri, certificate.getAuthorityInformationAccess()[0].getLocation());
     }
 
+    @Test
+    public void shouldSignWithContentSignerFactory() throws GeneralSecurityException {
+        // given
+        createValidEeBuilder();
+        subject.withPublicKey(KeyPairFactoryTest.SECOND_TEST_KEY_PAIR.getPublic());
+        subject.withSubjectDN(new X500Principal("CN=subject"));
+        subject.withInheritedResourceTypes(EnumSet.allOf(IpResourceType.class));
+        CachingContentSignerFactory contentSignerFactory = new CachingContentSignerFactory(10);
+        subject.withContentSignerFactory(contentSignerFactory);
+
+        // when
+        X509ResourceCertificate first = subject.build();
+        subject.withSerial(BigInteger.ONE);
+        X509ResourceCertificate second = subject.build();
+
+        // then
+        first.verify(KeyPairFactoryTest.TEST_KEY_PAIR.getPublic());
+        second.verify(KeyPairFactoryTest.TEST_KEY_PAIR.getPublic());
+        assertEquals(1, contentSignerFactory.size());
+        assertEquals(1, contentSignerFactory.stats().hitCount());
+    }
+
     @Test(expected = NullPointerException.class)
     public void shouldNotBuildWithoutSerialNumber() {
         // given
@@ -0,0 +1,105 @@
+package net.ripe.rpki.commons.crypto.crl;
+
+import net.ripe.rpki.commons.crypto.ValidityPeriod;
+import net.ripe.rpki.commons.crypto.util.KeyPairFactoryTest;
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.security.auth.x500.X500Principal;
+import java.math.BigInteger;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.SignatureException;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class IncrementalX509CrlBuilderTest {
+
+    private static final PublicKey PUBLIC_KEY = KeyPairFactoryTest.TEST_KEY_PAIR.getPublic();
+    private static final PrivateKey PRIVATE_KEY = KeyPairFactoryTest.TEST_KEY_PAIR.getPrivate();
+
+    private static final DateTime THIS_UPDATE_TIME = new DateTime(2007, 2, 28, 2, 53, 23, 0, DateTimeZone.UTC);
+    private static final ValidityPeriod FIRST_PERIOD = new ValidityPeriod(THIS_UPDATE_TIME, THIS_UPDATE_TIME.plusDays(1));
+    private static final ValidityPeriod SECOND_PERIOD = new ValidityPeriod(THIS_UPDATE_TIME.plusHours(1), THIS_UPDATE_TIME.plusDays(1).plusHours(1));
+    private static final DateTime REVOCATION_TIME = new DateTime(2007, 2, 25, 19, 23, 44, 0, DateTimeZone.UTC);
+
+    private X509CrlBuilder fullBuilder;
+
+    @BeforeEach
+    void setUp() {
+        fullBuilder = new X509CrlBuilder()
+                .withIssuerDN(new X500Principal("CN=ROOT"))
+                .withValidityPeriod(FIRST_PERIOD)
+                .withNumber(BigInteger.ONE)
+                .withAuthorityKeyIdentifier(PUBLIC_KEY)
+                .addEntry(BigInteger.valueOf(10), REVOCATION_TIME)
+                .addEntry(BigInteger.valueOf(20), REVOCATION_TIME)
+                .addEntry(BigInteger.valueOf(300), REVOCATION_TIME);
+    }
+
+    @Test
+    void shouldBuildSameCrlAsFullBuilder() {
+        IncrementalX509CrlBuilder subject = new IncrementalX509CrlBuilder(fullBuilder.build(PRIVATE_KEY));
+
+        subject.addEntry(BigInteger.valueOf(15), REVOCATION_TIME.plusMinutes(1));
+        assertThat(subject.removeEntry(BigInteger.valueOf(20))).isTrue();
+        assertThat(subject.removeEntry(BigInteger.valueOf(21))).isFalse();
+        X509Crl incremental = subject.withNumber(BigInteger.TWO).withValidityPeriod(SECOND_PERIOD).build(PRIVATE_KEY);
+
+        X509Crl full = new X509CrlBuilder()
+                .withIssuerDN(new X500Principal("CN=ROOT"))
+                .withValidityPeriod(SECOND_PERIOD)
+                .withNumber(BigInteger.TWO)
+                .withAuthorityKeyIdentifier(PUBLIC_KEY)
+                .addEntry(BigInteger.valueOf(10), REVOCATION_TIME)
+                .addEntry(BigInteger.valueOf(15), REVOCATION_TIME.plusMinutes(1))
+                .addEntry(BigInteger.valueOf(300), REVOCATION_TIME)
+                .build(PRIVATE_KEY);
+
+        assertThat(incremental.getEncoded()).isEqualTo(full.getEncoded());
+    }
+
+    @Test
+    void shouldContinueFromLastBuiltCrl() throws SignatureException {
+        IncrementalX509CrlBuilder subject = new IncrementalX509CrlBuilder(fullBuilder.build(PRIVATE_KEY));
+        subject.withNumber(BigInteger.TWO).withValidityPeriod(SECOND_PERIOD).build(PRIVATE_KEY);
+
+        assertThatThrownBy(() -> subject.build(PRIVATE_KEY)).isInstanceOf(NullPointerException.class);
+        assertThatThrownBy(() -> subject.withNumber(BigInteger.TWO)).isInstanceOf(IllegalArgumentException.class);
+
+        subject.removeEntries(Arrays.asList(BigInteger.valueOf(10), BigInteger.valueOf(20), BigInteger.valueOf(300)));
+        X509Crl crl = subject.withNumber(BigInteger.valueOf(3)).build(PRIVATE_KEY);
+
+        crl.verify(PUBLIC_KEY);
+        assertThat(crl.getNumber()).isEqualTo(BigInteger.valueOf(3));
+        assertThat(crl.getIssuer()).isEqualTo(new X500Principal("CN=ROOT"));
+        assertThat(crl.getThisUpdateTime()).isEqualTo(SECOND_PERIOD.getNotValidBefore());
+        assertThat(crl.getRevokedCertificates()).isEmpty();
+        assertThat(subject.getNumberOfEntries()).isZero();
+    }
+
+    @Test
+    void shouldRejectDuplicateEntries() {
+        IncrementalX509CrlBuilder subject = new IncrementalX509CrlBuilder(fullBuilder.build(PRIVATE_KEY));
+
+        assertThat(subject.containsEntry(BigInteger.valueOf(10))).isTrue();
+        assertThatThrownBy(() -> subject.addEntry(BigInteger.valueOf(10), REVOCATION_TIME)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void shouldHandleManyEntries() throws SignatureException {
+        IncrementalX509CrlBuilder subject = new IncrementalX509CrlBuilder(fullBuilder.clearEntries().build(PRIVATE_KEY));
+        for (int i = 1; i <= 5000; ++i) {
+            subject.addEntry(BigInteger.valueOf(i), REVOCATION_TIME);
+        }
+        X509Crl crl = subject.withNumber(BigInteger.TWO).withValidityPeriod(SECOND_PERIOD).build(PRIVATE_KEY);
+
+        crl.verify(PUBLIC_KEY);
+        assertThat(crl.getRevokedCertificates()).hasSize(5000);
+        assertThat(new IncrementalX509CrlBuilder(crl).getNumberOfEntries()).isEqualTo(5000);
+    }
+}
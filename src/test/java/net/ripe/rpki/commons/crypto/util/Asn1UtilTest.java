@@ -6,10 +6,15 @@ import net.ripe.ipresource.IpResourceType;
 import net.ripe.ipresource.Ipv4Address;
 import net.ripe.ipresource.UniqueIpResource;
 import org.bouncycastle.asn1.ASN1Encodable;
+import org.bouncycastle.asn1.ASN1EncodableVector;
 import org.bouncycastle.asn1.ASN1Integer;
 import org.bouncycastle.asn1.DERBitString;
+import org.bouncycastle.asn1.DERSequence;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import static net.ripe.rpki.commons.crypto.rfc3779.ResourceExtensionEncoderTest.*;
 import static net.ripe.rpki.commons.crypto.util.Asn1Util.*;
 import static org.junit.Assert.*;
@@ -103,6 +108,19 @@ public class Asn1UtilTest {
         assertEquals("The ip addresses should not have mutated!", expected + "/16", actual);
     }
 
+    @Test
+    public void shouldEncodeSequenceOfEncodedElements() {
+        for (int count : new int[]{0, 1, 100, 100_000}) {
+            ASN1EncodableVector vector = new ASN1EncodableVector();
+            List<byte[]> encoded = new ArrayList<>();
+            for (int i = 0; i < count; ++i) {
+                vector.add(new ASN1Integer(i));
+                encoded.add(encode(new ASN1Integer(i)));
+            }
+            assertArrayEquals(encode(new DERSequence(vector)), encodeSequence(encoded));
+        }
+    }
+
     public static void assertEncoded(byte[] expected, ASN1Encodable encodable) {
         byte[] actual = encode(encodable);
         assertArrayEquals(expected, actual);
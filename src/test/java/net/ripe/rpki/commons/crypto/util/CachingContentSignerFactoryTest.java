@@ -0,0 +1,106 @@
+package net.ripe.rpki.commons.crypto.util;
+
+import net.ripe.rpki.commons.crypto.x509cert.X509ResourceCertificateTest;
+import org.bouncycastle.operator.ContentSigner;
+import org.bouncycastle.operator.OperatorCreationException;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.Signature;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static net.ripe.rpki.commons.crypto.x509cert.X509CertificateBuilderHelper.DEFAULT_SIGNATURE_ALGORITHM;
+import static net.ripe.rpki.commons.crypto.x509cert.X509CertificateBuilderHelper.DEFAULT_SIGNATURE_PROVIDER;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CachingContentSignerFactoryTest {
+
+    private final CachingContentSignerFactory subject = new CachingContentSignerFactory(10);
+
+    @Test
+    void shouldReuseSignaturesForSameKey() throws Exception {
+        for (int i = 0; i < 3; ++i) {
+            byte[] content = ("content " + i).getBytes(StandardCharsets.UTF_8);
+            byte[] signature = sign(subject.getContentSigner(DEFAULT_SIGNATURE_ALGORITHM, DEFAULT_SIGNATURE_PROVIDER, KeyPairFactoryTest.TEST_KEY_PAIR.getPrivate()), content);
+            assertThat(verify(content, signature)).isTrue();
+        }
+
+        assertThat(subject.size()).isEqualTo(1);
+        assertThat(subject.stats().hitCount()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldOnlyBeUsedByBuildersWhenConfigured() {
+        long sharedRequests = CachingContentSignerFactory.shared().stats().requestCount();
+
+        X509ResourceCertificateTest.createSelfSignedCaResourceCertificate();
+        assertThat(CachingContentSignerFactory.shared().stats().requestCount()).isEqualTo(sharedRequests);
+
+        X509ResourceCertificateTest.createSelfSignedCaResourceCertificateBuilder().withContentSignerFactory(subject).build();
+        assertThat(subject.size()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldProduceSameAlgorithmIdentifierAsJca() throws OperatorCreationException {
+        ContentSigner cached = subject.getContentSigner(DEFAULT_SIGNATURE_ALGORITHM, DEFAULT_SIGNATURE_PROVIDER, KeyPairFactoryTest.TEST_KEY_PAIR.getPrivate());
+        ContentSigner jca = ContentSignerFactory.jca().getContentSigner(DEFAULT_SIGNATURE_ALGORITHM, DEFAULT_SIGNATURE_PROVIDER, KeyPairFactoryTest.TEST_KEY_PAIR.getPrivate());
+
+        assertThat(cached.getAlgorithmIdentifier()).isEqualTo(jca.getAlgorithmIdentifier());
+    }
+
+    @Test
+    void shouldSignConcurrently() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < 32; ++i) {
+                byte[] content = ("content " + i).getBytes(StandardCharsets.UTF_8);
+                results.add(executor.submit(() -> verify(content, sign(subject.getContentSigner(DEFAULT_SIGNATURE_ALGORITHM, DEFAULT_SIGNATURE_PROVIDER, KeyPairFactoryTest.TEST_KEY_PAIR.getPrivate()), content))));
+            }
+            for (Future<Boolean> result : results) {
+                assertThat(result.get()).isTrue();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void shouldRejectUnknownProvider() {
+        assertThatThrownBy(() -> subject.getContentSigner(DEFAULT_SIGNATURE_ALGORITHM, "NoSuchProvider", KeyPairFactoryTest.TEST_KEY_PAIR.getPrivate()))
+                .isInstanceOf(OperatorCreationException.class);
+        assertThat(subject.size()).isZero();
+    }
+
+    @Test
+    void shouldBeUsedByCertificateBuilderHelper() {
+        CachingContentSignerFactory factory = new CachingContentSignerFactory(10);
+        X509ResourceCertificateTest.createSelfSignedCaResourceCertificateBuilder()
+                .withContentSignerFactory(factory)
+                .build();
+
+        assertThat(factory.size()).isEqualTo(1);
+    }
+
+    private static byte[] sign(ContentSigner signer, byte[] content) throws IOException {
+        try (OutputStream out = signer.getOutputStream()) {
+            out.write(content);
+        }
+        return signer.getSignature();
+    }
+
+    private static boolean verify(byte[] content, byte[] signature) throws GeneralSecurityException {
+        Signature verifier = Signature.getInstance(DEFAULT_SIGNATURE_ALGORITHM);
+        verifier.initVerify(KeyPairFactoryTest.TEST_KEY_PAIR.getPublic());
+        verifier.update(content);
+        return verifier.verify(signature);
+    }
+}
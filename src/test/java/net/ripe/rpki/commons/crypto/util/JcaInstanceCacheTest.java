@@ -0,0 +1,109 @@
+package net.ripe.rpki.commons.crypto.util;
+
+import net.ripe.rpki.commons.crypto.x509cert.X509CertificateUtil;
+import net.ripe.rpki.commons.crypto.x509cert.X509ResourceCertificate;
+import net.ripe.rpki.commons.crypto.x509cert.X509ResourceCertificateTest;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.NoSuchProviderException;
+import java.security.Signature;
+import java.security.SignatureException;
+import java.security.spec.RSAKeyGenParameterSpec;
+import java.util.concurrent.CompletableFuture;
+
+import static net.ripe.rpki.commons.crypto.x509cert.X509CertificateBuilderHelper.DEFAULT_SIGNATURE_ALGORITHM;
+import static net.ripe.rpki.commons.crypto.x509cert.X509CertificateBuilderHelper.DEFAULT_SIGNATURE_PROVIDER;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JcaInstanceCacheTest {
+
+    private static final byte[] DATA = "data".getBytes(StandardCharsets.US_ASCII);
+
+    @Test
+    void shouldReuseInstancesPerThread() throws Exception {
+        Signature signature = JcaInstanceCache.getSignature(DEFAULT_SIGNATURE_ALGORITHM, DEFAULT_SIGNATURE_PROVIDER);
+
+        assertThat(JcaInstanceCache.getSignature(DEFAULT_SIGNATURE_ALGORITHM, DEFAULT_SIGNATURE_PROVIDER)).isSameAs(signature);
+        assertThat(JcaInstanceCache.getSignature(DEFAULT_SIGNATURE_ALGORITHM, null)).isNotSameAs(signature);
+        assertThat(CompletableFuture.supplyAsync(() -> {
+            try {
+                return JcaInstanceCache.getSignature(DEFAULT_SIGNATURE_ALGORITHM, DEFAULT_SIGNATURE_PROVIDER);
+            } catch (NoSuchAlgorithmException | NoSuchProviderException e) {
+                throw new IllegalStateException(e);
+            }
+        }).get()).isNotSameAs(signature);
+    }
+
+    @Test
+    void shouldDropInstancesOnClear() throws Exception {
+        Signature signature = JcaInstanceCache.getSignature(DEFAULT_SIGNATURE_ALGORITHM, DEFAULT_SIGNATURE_PROVIDER);
+
+        JcaInstanceCache.clear();
+
+        assertThat(JcaInstanceCache.getSignature(DEFAULT_SIGNATURE_ALGORITHM, DEFAULT_SIGNATURE_PROVIDER)).isNotSameAs(signature);
+    }
+
+    @Test
+    void shouldEvictLeastRecentlyUsedInstances() throws Exception {
+        JcaInstanceCache.clear();
+        MessageDigest first = JcaInstanceCache.getMessageDigest("SHA-256");
+        for (int i = 0; i < JcaInstanceCache.MAX_INSTANCES_PER_THREAD; ++i) {
+            JcaInstanceCache.getKeyPairGenerator("RSA", null, new RSAKeyGenParameterSpec(512 + i, RSAKeyGenParameterSpec.F4));
+        }
+
+        assertThat(JcaInstanceCache.getMessageDigest("SHA-256")).isNotSameAs(first);
+    }
+
+    @Test
+    void shouldUsePreferredProviderForKeyPairGenerator() throws Exception {
+        RSAKeyGenParameterSpec parameters = new RSAKeyGenParameterSpec(1024, RSAKeyGenParameterSpec.F4);
+        KeyPairGenerator generator = JcaInstanceCache.getKeyPairGenerator("RSA", null, parameters);
+
+        assertThat(JcaInstanceCache.getKeyPairGenerator("RSA", null, parameters)).isSameAs(generator);
+        assertThat(generator.getProvider()).isEqualTo(KeyPairGenerator.getInstance("RSA").getProvider());
+    }
+
+    @Test
+    void shouldResetMessageDigest() throws NoSuchAlgorithmException {
+        byte[] expected = JcaInstanceCache.getMessageDigest("SHA-256").digest(DATA);
+
+        JcaInstanceCache.getMessageDigest("SHA-256").update(new byte[]{1, 2, 3});
+
+        assertThat(JcaInstanceCache.getMessageDigest("SHA-256").digest(DATA)).isEqualTo(expected);
+        assertThat(expected).isEqualTo(MessageDigest.getInstance("SHA-256").digest(DATA));
+    }
+
+    @Test
+    void shouldRejectUnknownProviderAndAlgorithm() {
+        assertThatThrownBy(() -> JcaInstanceCache.getProvider("NoSuchProvider")).isInstanceOf(NoSuchProviderException.class);
+        assertThatThrownBy(() -> JcaInstanceCache.getSignature("NoSuchAlgorithm", DEFAULT_SIGNATURE_PROVIDER)).isInstanceOf(NoSuchAlgorithmException.class);
+    }
+
+    @Test
+    void shouldVerifySignatures() throws Exception {
+        KeyPair keyPair = KeyPairFactoryTest.TEST_KEY_PAIR;
+        Signature signer = Signature.getInstance(DEFAULT_SIGNATURE_ALGORITHM);
+        signer.initSign(keyPair.getPrivate());
+        signer.update(DATA);
+        byte[] signature = signer.sign();
+
+        JcaInstanceCache.verify(DEFAULT_SIGNATURE_ALGORITHM, DEFAULT_SIGNATURE_PROVIDER, keyPair.getPublic(), DATA, signature);
+        assertThatThrownBy(() -> JcaInstanceCache.verify(DEFAULT_SIGNATURE_ALGORITHM, DEFAULT_SIGNATURE_PROVIDER, KeyPairFactoryTest.SECOND_TEST_KEY_PAIR.getPublic(), DATA, signature))
+                .isInstanceOf(SignatureException.class);
+    }
+
+    @Test
+    void shouldVerifyCertificateWithCachedSignature() throws Exception {
+        X509ResourceCertificate certificate = X509ResourceCertificateTest.createSelfSignedCaResourceCertificate();
+
+        X509CertificateUtil.verify(certificate.getCertificate(), KeyPairFactoryTest.TEST_KEY_PAIR.getPublic());
+        assertThatThrownBy(() -> X509CertificateUtil.verify(certificate.getCertificate(), KeyPairFactoryTest.SECOND_TEST_KEY_PAIR.getPublic()))
+                .isInstanceOf(SignatureException.class);
+    }
+}
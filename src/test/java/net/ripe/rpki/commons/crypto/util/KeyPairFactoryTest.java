@@ -3,6 +3,7 @@ package net.ripe.rpki.commons.crypto.util;
 import org.junit.Test;
 
 import java.security.KeyPair;
+import java.security.PublicKey;
 import java.security.interfaces.ECPrivateKey;
 import java.security.interfaces.ECPublicKey;
 import java.security.interfaces.RSAPrivateKey;
@@ -11,6 +12,7 @@ import java.util.HashMap;
 import java.util.Map;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 
@@ -76,6 +78,24 @@ public class KeyPairFactoryTest {
         KeyPairFactory.decodePublicKey(new byte[]{0});
     }
 
+    @Test
+    public void shouldReuseDecodedPublicKeys() {
+        byte[] encoded = SECOND_TEST_KEY_PAIR.getPublic().getEncoded();
+        PublicKey decoded = KeyPairFactory.decodePublicKey(encoded);
+
+        assertSame(decoded, KeyPairFactory.decodePublicKey(encoded.clone()));
+        assertSame(decoded, KeyPairFactory.decodePublicKey(new EncodedPublicKey(encoded)));
+        assertEquals(SECOND_TEST_KEY_PAIR.getPublic(), decoded);
+    }
+
+    @Test(expected = KeyPairFactoryException.class)
+    public void shouldNotDecodeRsaPublicKeyAsEcKey() {
+        byte[] encoded = SECOND_TEST_KEY_PAIR.getPublic().getEncoded();
+        KeyPairFactory.decodePublicKey(encoded);
+
+        KeyPairFactory.decodePublicKeyEC(encoded);
+    }
+
     @Test(expected = RuntimeException.class)
     public void shouldDecodePrivateKeyFailOnInvalidInput() {
         KeyPairFactory.decodePrivateKey(new byte[]{0});
@@ -0,0 +1,68 @@
+package net.ripe.rpki.commons.crypto.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.security.KeyPair;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class KeyPairPoolTest {
+
+    @Test
+    void shouldFillPoolInBackground() throws InterruptedException {
+        try (KeyPairPool subject = new KeyPairPool(() -> KeyPairFactoryTest.TEST_KEY_PAIR, 4, 2)) {
+            awaitAvailable(subject, 4);
+
+            assertThat(subject.generate()).isSameAs(KeyPairFactoryTest.TEST_KEY_PAIR);
+            assertThat(subject.getTakenFromPool()).isEqualTo(1);
+            assertThat(subject.getGeneratedOnDemand()).isZero();
+            assertThat(subject.getGeneratedInBackground()).isGreaterThanOrEqualTo(4);
+        }
+    }
+
+    @Test
+    void shouldGenerateOnDemandWhenDepleted() throws InterruptedException {
+        Thread caller = Thread.currentThread();
+        CountDownLatch backgroundBlocked = new CountDownLatch(1);
+        KeyPairFactory.Generator generator = () -> {
+            if (Thread.currentThread() != caller) {
+                try {
+                    backgroundBlocked.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return KeyPairFactoryTest.SECOND_TEST_KEY_PAIR;
+        };
+
+        KeyPairPool subject = new KeyPairPool(generator, 2, 1);
+        try {
+            KeyPair keyPair = subject.generate();
+
+            assertThat(keyPair).isSameAs(KeyPairFactoryTest.SECOND_TEST_KEY_PAIR);
+            assertThat(subject.getTakenFromPool()).isZero();
+            assertThat(subject.getGeneratedOnDemand()).isEqualTo(1);
+        } finally {
+            subject.close();
+            assertThat(subject.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+        }
+        assertThat(subject.isClosed()).isTrue();
+    }
+
+    @Test
+    void shouldRejectInvalidConfiguration() {
+        assertThatThrownBy(() -> KeyPairPool.rsa(0, 1)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> KeyPairPool.rsa(1, 0)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static void awaitAvailable(KeyPairPool pool, int available) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (pool.getAvailable() < available && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(pool.getAvailable()).isEqualTo(available);
+    }
+}
@@ -0,0 +1,90 @@
+package net.ripe.rpki.commons.crypto.x509cert;
+
+import net.ripe.rpki.commons.crypto.crl.X509Crl;
+import net.ripe.rpki.commons.validation.ValidationOptions;
+import net.ripe.rpki.commons.validation.ValidationResult;
+import net.ripe.rpki.commons.validation.objectvalidators.CertificateRepositoryObjectValidationContext;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class X509ResourceCertificateInternPoolTest {
+
+    private static final byte[] ENCODED = X509ResourceCertificateTest.createSelfSignedCaResourceCertificate().getEncoded();
+
+    @Test
+    void shouldShareDecodedCertificateForSameEncoding() {
+        X509ResourceCertificateInternPool subject = new X509ResourceCertificateInternPool(10, X509ResourceCertificateInternPool.References.STRONG);
+
+        X509ResourceCertificate first = subject.parseCertificate(ValidationResult.withLocation("first.cer"), ENCODED);
+        X509ResourceCertificate second = subject.parseCertificate(ValidationResult.withLocation("second.cer"), ENCODED.clone());
+
+        assertThat(second).isEqualTo(first).isNotSameAs(first);
+        assertThat(second.getCertificate()).isSameAs(first.getCertificate());
+        assertThat(second.getResourceExtension()).isSameAs(first.getResourceExtension());
+        assertThat(subject.size()).isEqualTo(1);
+        assertThat(subject.stats().hitCount()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldNotShareRevocationStatus() {
+        X509ResourceCertificateInternPool subject = new X509ResourceCertificateInternPool(10, X509ResourceCertificateInternPool.References.STRONG);
+        X509ResourceCertificate validated = subject.parseCertificate(ValidationResult.withLocation("ta.cer"), ENCODED);
+        X509ResourceCertificate other = subject.parseCertificate(ValidationResult.withLocation("ta.cer"), ENCODED);
+
+        validated.validate("ta.cer", new CertificateRepositoryObjectValidationContext(URI.create("rsync://host/ta.cer"), validated),
+                (X509Crl) null, null, ValidationOptions.strictValidation(), ValidationResult.withLocation("ta.cer"));
+
+        assertThat(validated.isRevoked()).isFalse();
+        assertThatThrownBy(other::isRevoked).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void shouldReplayParseChecksForPooledInstance() {
+        X509ResourceCertificateInternPool subject = new X509ResourceCertificateInternPool(10, X509ResourceCertificateInternPool.References.SOFT);
+        ValidationResult parsed = ValidationResult.withLocation("ca.cer");
+        ValidationResult pooled = ValidationResult.withLocation("ca.cer");
+
+        subject.parseCertificate(parsed, ENCODED);
+        subject.parseCertificate(pooled, ENCODED);
+
+        assertThat(pooled.getAllValidationChecksForCurrentLocation())
+                .isNotEmpty()
+                .containsExactlyInAnyOrderElementsOf(parsed.getAllValidationChecksForCurrentLocation());
+    }
+
+    @Test
+    void shouldNotPoolInvalidCertificates() {
+        X509ResourceCertificateInternPool subject = new X509ResourceCertificateInternPool(10, X509ResourceCertificateInternPool.References.WEAK);
+        ValidationResult result = ValidationResult.withLocation("broken.cer");
+
+        assertThat(subject.parseCertificate(result, new byte[]{0x30, 0x00})).isNull();
+        assertThat(result.hasFailures()).isTrue();
+        assertThat(subject.size()).isZero();
+    }
+
+    @Test
+    void shouldInternCertificates() {
+        X509ResourceCertificateInternPool subject = new X509ResourceCertificateInternPool(10, X509ResourceCertificateInternPool.References.STRONG);
+        X509ResourceCertificate certificate = X509CertificateParser.parseCertificate(ValidationResult.withLocation("ca.cer"), ENCODED);
+        X509ResourceCertificate other = X509CertificateParser.parseCertificate(ValidationResult.withLocation("ca.cer"), ENCODED);
+
+        assertThat(subject.intern(certificate)).isSameAs(certificate);
+        assertThat(subject.intern(other).getCertificate()).isSameAs(certificate.getCertificate());
+        assertThat(subject.parseCertificate(ValidationResult.withLocation("ca.cer"), ENCODED).getCertificate()).isSameAs(certificate.getCertificate());
+    }
+
+    @Test
+    void shouldRespectMaximumSize() {
+        X509ResourceCertificateInternPool subject = new X509ResourceCertificateInternPool(0, X509ResourceCertificateInternPool.References.STRONG);
+
+        X509ResourceCertificate first = subject.parseCertificate(ValidationResult.withLocation("ca.cer"), ENCODED);
+        X509ResourceCertificate second = subject.parseCertificate(ValidationResult.withLocation("ca.cer"), ENCODED);
+
+        assertThat(second).isNotSameAs(first).isEqualTo(first);
+        assertThat(subject.size()).isZero();
+    }
+}
@@ -79,6 +79,21 @@ public class X509ResourceCertificateParserTest {
         assertEquals(certificate, parsed);
     }
 
+    @Test
+    public void shouldParseAlreadyDecodedCertificateWithSameChecks() {
+        X509ResourceCertificate certificate = X509ResourceCertificateTest.createSelfSignedCaResourceCertificateBuilder().build();
+        ValidationResult fromEncoded = ValidationResult.withLocation("certificate");
+        ValidationResult fromDecoded = ValidationResult.withLocation("certificate");
+
+        subject.parse(fromEncoded, certificate.getEncoded());
+        X509ResourceCertificateParser decodedParser = new X509ResourceCertificateParser();
+        decodedParser.parse(fromDecoded, certificate.getCertificate());
+
+        assertEquals(certificate, decodedParser.getCertificate());
+        assertSame(certificate.getCertificate(), decodedParser.getCertificate().getCertificate());
+        assertEquals(fromEncoded.getAllValidationChecksForCurrentLocation(), fromDecoded.getAllValidationChecksForCurrentLocation());
+    }
+
     @Test
     public void shouldAcceptCertificateWithIdCtCps() throws IOException {
         byte[] encoded = Files.toByteArray(new File("src/test/resources/resourcecertificate/apnic-rpki-root-iana-origin-includes-policy-with-cps.cer"));
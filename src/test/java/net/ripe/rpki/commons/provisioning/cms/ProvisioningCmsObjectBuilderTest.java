@@ -31,6 +31,8 @@ import org.junit.Before;
 import org.junit.Test;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.security.NoSuchAlgorithmException;
 import java.security.NoSuchProviderException;
 import java.security.cert.CertStoreException;
@@ -81,6 +83,19 @@ public class ProvisioningCmsObjectBuilderTest {
     }
 
 
+    @Test
+    public void shouldWriteSameEncodingAsBuild() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        DateTimeUtils.setCurrentMillisFixed(signingTime);
+        try {
+            subject.writeTo(ProvisioningCmsCertificateBuilderTest.EE_KEYPAIR.getPrivate(), out);
+        } finally {
+            DateTimeUtils.setCurrentMillisSystem();
+        }
+
+        assertArrayEquals(cmsObject.getEncoded(), out.toByteArray());
+    }
+
     @Test(expected = NullPointerException.class)
     public void shouldForceCertificate() throws CMSException {
         subject.withCmsCertificate(null);
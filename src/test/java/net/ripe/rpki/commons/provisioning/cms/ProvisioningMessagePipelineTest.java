@@ -0,0 +1,125 @@
+package net.ripe.rpki.commons.provisioning.cms;
+
+import net.ripe.rpki.commons.provisioning.ProvisioningObjectMother;
+import net.ripe.rpki.commons.provisioning.payload.PayloadMessageType;
+import net.ripe.rpki.commons.provisioning.x509.ProvisioningIdentityCertificate;
+import net.ripe.rpki.commons.provisioning.x509.ProvisioningIdentityCertificateBuilderTest;
+import org.joda.time.DateTime;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ProvisioningMessagePipelineTest {
+
+    private static final byte[] LIST_QUERY = ProvisioningObjectMother.createResourceClassListQueryProvisioningCmsObject().getEncoded();
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(8);
+
+    private final List<String> handled = Collections.synchronizedList(new ArrayList<>());
+
+    private final ProvisioningMessagePipeline.ChildResolver childResolver = new ProvisioningMessagePipeline.ChildResolver() {
+        @Override
+        public ProvisioningIdentityCertificate getIdentityCertificate(String childId) {
+            return childId.startsWith("child") ? ProvisioningIdentityCertificateBuilderTest.TEST_IDENTITY_CERT : null;
+        }
+
+        @Override
+        public Optional<DateTime> getLastSigningTime(String childId) {
+            return Optional.empty();
+        }
+    };
+
+    private final ProvisioningMessagePipeline<PayloadMessageType> subject = new ProvisioningMessagePipeline<PayloadMessageType>(childResolver, (childId, request) -> {
+        sleepRandomly();
+        handled.add(childId);
+        return request.getPayload().getType();
+    }).withExecutor(executor);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void shouldProcessValidMessage() throws Exception {
+        ProvisioningMessageResult<PayloadMessageType> result = subject.submit("child-1", LIST_QUERY).get();
+
+        assertThat(result.isValid()).isTrue();
+        assertThat(result.getChildId()).isEqualTo("child-1");
+        assertThat(result.getRequest().getEncoded()).isEqualTo(LIST_QUERY);
+        assertThat(result.getResponse()).isEqualTo(PayloadMessageType.list);
+    }
+
+    @Test
+    void shouldNotHandleInvalidMessage() throws Exception {
+        ProvisioningMessageResult<PayloadMessageType> result = subject.submit("child-1", new byte[]{0}).get();
+
+        assertThat(result.isValid()).isFalse();
+        assertThat(result.getRequest()).isNull();
+        assertThat(result.getResponse()).isNull();
+        assertThat(handled).isEmpty();
+    }
+
+    @Test
+    void shouldFailForUnknownChildWithoutBlockingLaterMessages() throws Exception {
+        CompletableFuture<ProvisioningMessageResult<PayloadMessageType>> unknown = subject.submit("unknown", LIST_QUERY);
+
+        assertThatThrownBy(unknown::get).isInstanceOf(ExecutionException.class).hasCauseInstanceOf(IllegalArgumentException.class);
+        assertThat(subject.submit("child-1", LIST_QUERY).get().isValid()).isTrue();
+    }
+
+    @Test
+    void shouldPreservePerChildOrdering() {
+        Map<String, AtomicInteger> handledPerChild = new ConcurrentHashMap<>();
+        Set<String> inFlight = ConcurrentHashMap.newKeySet();
+        ProvisioningMessagePipeline<Integer> ordered = new ProvisioningMessagePipeline<Integer>(childResolver, (childId, request) -> {
+            assertThat(inFlight.add(childId)).isTrue();
+            sleepRandomly();
+            inFlight.remove(childId);
+            return handledPerChild.computeIfAbsent(childId, id -> new AtomicInteger()).getAndIncrement();
+        }).withExecutor(executor);
+
+        Queue<ProvisioningMessagePipeline.IncomingMessage> queue = new ArrayDeque<>();
+        for (int i = 0; i < 10; ++i) {
+            queue.add(new ProvisioningMessagePipeline.IncomingMessage("child-a", LIST_QUERY));
+            queue.add(new ProvisioningMessagePipeline.IncomingMessage("child-b", LIST_QUERY));
+        }
+        List<ProvisioningMessageResult<Integer>> results = ordered.submitAll(queue).stream()
+                .map(CompletableFuture::join)
+                .collect(Collectors.toList());
+
+        assertThat(queue).isEmpty();
+        assertThat(results).allMatch(ProvisioningMessageResult::isValid);
+        assertThat(results.stream().filter(r -> r.getChildId().equals("child-a")).map(ProvisioningMessageResult::getResponse))
+                .containsExactly(0, 1, 2, 3, 4, 5, 6, 7, 8, 9);
+        assertThat(results.stream().filter(r -> r.getChildId().equals("child-b")).map(ProvisioningMessageResult::getResponse))
+                .containsExactly(0, 1, 2, 3, 4, 5, 6, 7, 8, 9);
+    }
+
+    private static void sleepRandomly() {
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextInt(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
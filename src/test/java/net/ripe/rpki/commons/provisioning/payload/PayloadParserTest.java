@@ -2,12 +2,19 @@ package net.ripe.rpki.commons.provisioning.payload;
 
 import net.ripe.rpki.commons.provisioning.payload.issue.response.CertificateIssuanceResponsePayload;
 import net.ripe.rpki.commons.provisioning.payload.list.request.ResourceClassListQueryPayload;
+import net.ripe.rpki.commons.util.XML;
 import net.ripe.rpki.commons.validation.ValidationCheck;
 import net.ripe.rpki.commons.validation.ValidationResult;
 import net.ripe.rpki.commons.validation.ValidationString;
 import org.junit.Ignore;
 import org.junit.Test;
 
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.StringReader;
+import java.util.Optional;
+
 import static org.junit.Assert.*;
 
 public class PayloadParserTest {
@@ -79,6 +86,36 @@ public class PayloadParserTest {
         assertNull(wrapper);
     }
 
+    @Test
+    public void shouldOnlyReadTypeOfRootMessageElement() {
+        String message = "<?xml version=\"1.0\" encoding=\"UTF-8\"?><envelope><message xmlns=\"http://www.apnic.net/specs/rescerts/up-down/\" version=\"1\" sender=\"sender\" recipient=\"recipient\" type=\"list\" /></envelope>";
+
+        ValidationResult result = ValidationResult.withLocation("a");
+        AbstractProvisioningPayload wrapper = PayloadParser.parse(message, result);
+
+        assertEquals(ValidationString.FOUND_PAYLOAD_TYPE, result.getFailuresForCurrentLocation().iterator().next().getKey());
+        assertNull(wrapper);
+    }
+
+    @Test
+    public void shouldNotParseMalformedMessage() {
+        ValidationResult result = ValidationResult.withLocation("a");
+        AbstractProvisioningPayload wrapper = PayloadParser.parse("<message type=\"list\"", result);
+
+        assertEquals(ValidationString.FOUND_PAYLOAD_TYPE, result.getFailuresForCurrentLocation().iterator().next().getKey());
+        assertNull(wrapper);
+    }
+
+    @Test
+    public void shouldLeaveReaderAtRootElement() throws XMLStreamException {
+        XMLStreamReader reader = XML.newXMLStreamReader(new StringReader(createIssueResponseMessage(1)));
+
+        assertEquals(Optional.of("issue_response"), PayloadParser.readMessageType(reader));
+        assertEquals(XMLStreamConstants.START_ELEMENT, reader.getEventType());
+        assertEquals("1", reader.getAttributeValue(null, "version"));
+        assertEquals("class", reader.nextTag() == XMLStreamConstants.START_ELEMENT ? reader.getLocalName() : null);
+    }
+
     private String createIssueResponseMessage(int version) {
         String message = "<?xml version=\"1.0\" encoding=\"UTF-8\"?><message xmlns=\"http://www.apnic.net/specs/rescerts/up-down/\" version=\"" + version + "\" sender=\"sender\" recipient=\"recipient\" type=\"issue_response\">\n" +
                 "  <class class_name=\"a classname\" cert_url=\"rsync://localhost/some/where,http://some/other\" resource_set_as=\"1234,456\" resource_set_ipv4=\"192.168.0.0/24\" resource_set_ipv6=\"2001:0DB8::/48,2001:0DB8:002::-2001:0DB8:005::\" resource_set_notafter=\"2011-01-01T22:58:23.012Z\">\n" +
@@ -0,0 +1,115 @@
+package net.ripe.rpki.commons.provisioning.payload;
+
+import net.ripe.rpki.commons.provisioning.payload.error.RequestNotPerformedResponsePayloadSerializer;
+import net.ripe.rpki.commons.provisioning.payload.error.RequestNotPerformedResponsePayloadSerializerTest;
+import net.ripe.rpki.commons.provisioning.payload.issue.request.CertificateIssuanceRequestPayloadSerializer;
+import net.ripe.rpki.commons.provisioning.payload.issue.request.CertificateIssuanceRequestPayloadSerializerTest;
+import net.ripe.rpki.commons.provisioning.payload.issue.response.CertificateIssuanceResponsePayloadSerializer;
+import net.ripe.rpki.commons.provisioning.payload.issue.response.CertificateIssuanceResponsePayloadSerializerTest;
+import net.ripe.rpki.commons.provisioning.payload.list.request.ResourceClassListQueryPayloadSerializer;
+import net.ripe.rpki.commons.provisioning.payload.list.request.ResourceClassListQueryPayloadSerializerTest;
+import net.ripe.rpki.commons.provisioning.payload.list.response.ResourceClassListResponsePayloadSerializer;
+import net.ripe.rpki.commons.provisioning.payload.list.response.ResourceClassListResponsePayloadSerializerTest;
+import net.ripe.rpki.commons.provisioning.payload.revocation.request.CertificateRevocationRequestPayloadSerializer;
+import net.ripe.rpki.commons.provisioning.payload.revocation.request.CertificateRevocationRequestPayloadSerializerTest;
+import net.ripe.rpki.commons.provisioning.payload.revocation.response.CertificateRevocationResponsePayloadBuilderSerializerTest;
+import net.ripe.rpki.commons.provisioning.payload.revocation.response.CertificateRevocationResponsePayloadSerializer;
+import net.ripe.rpki.commons.xml.DomXmlSerializerException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class StaxProvisioningPayloadSerializerTest {
+
+    private final StaxProvisioningPayloadSerializer subject = new StaxProvisioningPayloadSerializer();
+
+    static Stream<AbstractProvisioningPayload> payloads() {
+        return Stream.of(
+                ResourceClassListQueryPayloadSerializerTest.TEST_RESOURCE_CLASS_LIST_QUERY_PAYLOAD,
+                ResourceClassListResponsePayloadSerializerTest.TEST_RESOURCE_CLASS_LIST_RESPONSE_PAYLOAD,
+                CertificateIssuanceRequestPayloadSerializerTest.TEST_CERTIFICATE_ISSUANCE_REQUEST_PAYLOAD,
+                CertificateIssuanceResponsePayloadSerializerTest.TEST_CERTIFICATE_ISSUANCE_RESPONSE_PAYLOAD,
+                CertificateRevocationRequestPayloadSerializerTest.TEST_CERTIFICATE_REVOCATION_REQUEST_PAYLOAD,
+                CertificateRevocationResponsePayloadBuilderSerializerTest.TEST_CERTIFICATE_REVOCATION_RESPONSE_PAYLOAD,
+                RequestNotPerformedResponsePayloadSerializerTest.NOT_PERFORMED_PAYLOAD
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource("payloads")
+    void shouldDeserializeDomSerializedPayload(AbstractProvisioningPayload payload) {
+        String xml = PayloadParser.serialize(payload);
+
+        assertThat(subject.deserialize(xml)).isEqualTo(deserializeWithDom(xml));
+    }
+
+    @ParameterizedTest
+    @MethodSource("payloads")
+    void shouldSerializeSchemaValidXmlReadableByDom(AbstractProvisioningPayload payload) throws Exception {
+        String xml = subject.serialize(payload);
+
+        assertThat(RelaxNgSchemaValidator.validateAgainstRelaxNg(xml)).isTrue();
+        assertThat(deserializeWithDom(xml)).isEqualTo(deserializeWithDom(PayloadParser.serialize(payload)));
+        assertThat(subject.deserialize(xml)).isEqualTo(deserializeWithDom(xml));
+    }
+
+    @Test
+    void shouldAcceptLineBreaksAndIgnoreForeignElements() {
+        String xml = PayloadParser.serialize(CertificateIssuanceRequestPayloadSerializerTest.TEST_CERTIFICATE_ISSUANCE_REQUEST_PAYLOAD);
+        String base64 = xml.substring(xml.indexOf('>', xml.indexOf("<request")) + 1, xml.indexOf("</request>"));
+        String wrapped = xml
+                .replace(base64, base64.replaceAll("(.{64})", "$1\n"))
+                .replace("<request", "<foo:bar xmlns:foo=\"urn:foo\"><request/></foo:bar><request");
+
+        assertThat(subject.deserialize(wrapped)).isEqualTo(subject.deserialize(xml));
+    }
+
+    @Test
+    void shouldRejectInvalidMessages() {
+        String revoke = PayloadParser.serialize(CertificateRevocationRequestPayloadSerializerTest.TEST_CERTIFICATE_REVOCATION_REQUEST_PAYLOAD);
+        String error = PayloadParser.serialize(RequestNotPerformedResponsePayloadSerializerTest.NOT_PERFORMED_PAYLOAD);
+        String issue = PayloadParser.serialize(CertificateIssuanceRequestPayloadSerializerTest.TEST_CERTIFICATE_ISSUANCE_REQUEST_PAYLOAD);
+
+        assertThatThrownBy(() -> subject.deserialize(revoke.replace("version=\"1\"", "version=\"2\"")))
+                .isInstanceOf(DomXmlSerializerException.class).hasMessage("version attribute is not '1': 2");
+        assertThatThrownBy(() -> subject.deserialize(revoke.replace(" sender=\"sender\"", "")))
+                .isInstanceOf(DomXmlSerializerException.class).hasMessage("attribute 'sender' not found");
+        assertThatThrownBy(() -> subject.deserialize(revoke.replace("up-down/", "other/")))
+                .isInstanceOf(DomXmlSerializerException.class).hasMessage("message element not found");
+        assertThatThrownBy(() -> subject.deserialize(revoke.replace("</message>", "<key class_name=\"a\" ski=\"b\"/></message>")))
+                .isInstanceOf(DomXmlSerializerException.class).hasMessage("multiple elements 'key' present, single element expected");
+        assertThatThrownBy(() -> subject.deserialize(error.replaceAll("<status>\\d+</status>", "<status>9999</status>")))
+                .isInstanceOf(DomXmlSerializerException.class).hasMessage("Illegal status code");
+        assertThatThrownBy(() -> subject.deserialize(issue.replace("</request>", "AAAA</request>")))
+                .isInstanceOf(DomXmlSerializerException.class);
+        assertThatThrownBy(() -> subject.deserialize(revoke.replace("</message>", "")))
+                .isInstanceOf(DomXmlSerializerException.class);
+    }
+
+    private static AbstractProvisioningPayload deserializeWithDom(String xml) {
+        PayloadMessageType type = PayloadMessageType.valueOf(xml.replaceAll("(?s).*type=\"(\\w+)\".*", "$1"));
+        switch (type) {
+            case list:
+                return new ResourceClassListQueryPayloadSerializer().deserialize(xml);
+            case list_response:
+                return new ResourceClassListResponsePayloadSerializer().deserialize(xml);
+            case issue:
+                return new CertificateIssuanceRequestPayloadSerializer().deserialize(xml);
+            case issue_response:
+                return new CertificateIssuanceResponsePayloadSerializer().deserialize(xml);
+            case revoke:
+                return new CertificateRevocationRequestPayloadSerializer().deserialize(xml);
+            case revoke_response:
+                return new CertificateRevocationResponsePayloadSerializer().deserialize(xml);
+            case error_response:
+                return new RequestNotPerformedResponsePayloadSerializer().deserialize(xml);
+            default:
+                throw new IllegalArgumentException(type.toString());
+        }
+    }
+}
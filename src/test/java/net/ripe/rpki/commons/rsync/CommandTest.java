@@ -2,7 +2,15 @@ package net.ripe.rpki.commons.rsync;
 
 import org.junit.Test;
 
+import java.time.Duration;
 import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import static org.junit.Assert.*;
 
@@ -75,4 +83,74 @@ public class CommandTest {
         assertNotNull(cmd.getOutputLines());
         assertTrue(cmd.getOutputs().size() == 0);
     }
+
+    @Test
+    public void shouldStreamLinesToListeners() throws Exception {
+        List<String> output = new CopyOnWriteArrayList<>();
+        List<String> errors = new CopyOnWriteArrayList<>();
+        Command cmd = new Command(Arrays.asList("sh", "-c", "echo one; echo two; echo failure >&2; exit 3"));
+
+        int exitStatus = cmd.executeAsync(output::add, errors::add, Duration.ofSeconds(30)).get(30, TimeUnit.SECONDS);
+
+        assertEquals(3, exitStatus);
+        assertEquals(3, cmd.getExitStatus());
+        assertTrue(cmd.wasStarted());
+        assertTrue(cmd.isCompleted());
+        assertNull(cmd.getException());
+        assertEquals(Arrays.asList("one", "two"), output);
+        assertEquals(Arrays.asList("failure"), errors);
+        assertNull(cmd.getOutputs());
+    }
+
+    @Test
+    public void shouldDrainLargeOutputWithoutBuffering() throws Exception {
+        int[] count = new int[1];
+        Command cmd = new Command(Arrays.asList("sh", "-c", "i=0; while [ $i -lt 20000 ]; do echo line $i; echo error $i >&2; i=$((i+1)); done"));
+
+        int exitStatus = cmd.executeAsync(line -> count[0]++, null, Duration.ofSeconds(60)).get(60, TimeUnit.SECONDS);
+
+        assertEquals(0, exitStatus);
+        assertEquals(20000, count[0]);
+    }
+
+    @Test
+    public void shouldDestroyProcessOnTimeout() throws Exception {
+        Command cmd = new Command(Arrays.asList("sleep", "30"));
+        long start = System.nanoTime();
+
+        CompletableFuture<Integer> result = cmd.executeAsync(null, null, Duration.ofMillis(200));
+        try {
+            result.get(10, TimeUnit.SECONDS);
+            fail("expected timeout");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof TimeoutException);
+        }
+
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(10));
+        assertEquals(Command.COMMAND_FAILED, cmd.getExitStatus());
+        assertTrue(cmd.getException() instanceof TimeoutException);
+    }
+
+    @Test
+    public void shouldDestroyProcessOnCancel() {
+        Command cmd = new Command(Arrays.asList("sleep", "30"));
+
+        CompletableFuture<Integer> result = cmd.executeAsync(null, null, null);
+        assertTrue(result.cancel(true));
+
+        assertTrue(result.isCancelled());
+        assertEquals(Command.COMMAND_FAILED, cmd.getExitStatus());
+        assertTrue(cmd.getException() instanceof CancellationException);
+    }
+
+    @Test
+    public void shouldFailAsyncOnInvalidCommand() {
+        Command cmd = new Command("invalid_command", null, "/");
+
+        CompletableFuture<Integer> result = cmd.executeAsync(null, null, null);
+
+        assertTrue(result.isCompletedExceptionally());
+        assertEquals(Command.COMMAND_FAILED, cmd.getExitStatus());
+        assertNotNull(cmd.getException());
+    }
 }
@@ -0,0 +1,112 @@
+package net.ripe.rpki.commons.rsync;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RsyncOutputParserTest {
+
+    private static final List<String> OUTPUT = Arrays.asList(
+            "receiving incremental file list",
+            "*deleting   repository/old.roa",
+            ".d..t...... repository/",
+            "cd+++++++++ repository/child/",
+            ">f+++++++++ repository/child/new.cer",
+            ">f.st...... repository/ta.crl",
+            ">f..t...... repository/ta.mft",
+            ".f...p..... repository/unchanged.roa",
+            "cL+++++++++ repository/link -> ta.crl",
+            "",
+            "Number of files: 1,203 (reg: 1,180, dir: 23)",
+            "Number of created files: 3 (reg: 1, dir: 1, link: 1)",
+            "Number of deleted files: 1 (reg: 1)",
+            "Number of regular files transferred: 3",
+            "Total file size: 4,567,890 bytes",
+            "Total transferred file size: 12,345 bytes",
+            "Literal data: 2,345 bytes",
+            "Matched data: 10,000 bytes",
+            "File list size: 0",
+            "Total bytes sent: 1,234",
+            "Total bytes received: 5,678",
+            "",
+            "sent 1,234 bytes  received 5,678 bytes  4,608.00 bytes/sec",
+            "total size is 4,567,890  speedup is 660.86"
+    );
+
+    @Test
+    void shouldReportChangedFiles() {
+        List<RsyncChange> changes = new ArrayList<>();
+        RsyncOutputParser subject = new RsyncOutputParser(changes::add);
+
+        OUTPUT.forEach(subject);
+
+        assertThat(changes).containsExactly(
+                new RsyncChange(RsyncChange.Type.DELETED, "repository/old.roa", false),
+                new RsyncChange(RsyncChange.Type.ADDED, "repository/child/", true),
+                new RsyncChange(RsyncChange.Type.ADDED, "repository/child/new.cer", false),
+                new RsyncChange(RsyncChange.Type.CHANGED, "repository/ta.crl", false),
+                new RsyncChange(RsyncChange.Type.CHANGED, "repository/ta.mft", false),
+                new RsyncChange(RsyncChange.Type.ADDED, "repository/link", false)
+        );
+    }
+
+    @Test
+    void shouldParseStatistics() {
+        RsyncOutputParser subject = new RsyncOutputParser(change -> {});
+
+        OUTPUT.forEach(subject);
+
+        assertThat(subject.getStatistics()).isEqualTo(new RsyncStatistics(1203, 3, 1, 3, 4567890, 12345, 1234, 5678, 660.86));
+    }
+
+    @Test
+    void shouldParseStatisticsOfOlderRsync() {
+        RsyncOutputParser subject = new RsyncOutputParser(change -> {});
+
+        subject.accept("Number of files: 12");
+        subject.accept("Number of files transferred: 2");
+        subject.accept("total size is 1,000  speedup is 1.50");
+
+        RsyncStatistics statistics = subject.getStatistics();
+        assertThat(statistics.getNumberOfFiles()).isEqualTo(12);
+        assertThat(statistics.getNumberOfTransferredFiles()).isEqualTo(2);
+        assertThat(statistics.getNumberOfCreatedFiles()).isZero();
+        assertThat(statistics.getSpeedup()).isEqualTo(1.5);
+    }
+
+    @Test
+    void shouldParseOutputWhileRsyncRuns(@TempDir Path tempDir) throws Exception {
+        Path arguments = tempDir.resolve("arguments");
+        Path executable = tempDir.resolve("rsync");
+        StringBuilder script = new StringBuilder("#!/bin/sh\necho \"$@\" > '" + arguments + "'\n");
+        for (String line : OUTPUT) {
+            script.append("echo '").append(line).append("'\n");
+        }
+        Files.write(executable, script.toString().getBytes(StandardCharsets.UTF_8));
+        assertThat(executable.toFile().setExecutable(true)).isTrue();
+
+        List<RsyncChange> changes = new ArrayList<>();
+        RsyncOutputParser parser = new RsyncOutputParser(changes::add);
+        Rsync rsync = new Rsync("rsync://localhost/repository/", tempDir.resolve("destination").toString());
+        rsync.setExecutable(executable.toString());
+        rsync.addOptions("-rt", "--stats");
+
+        int exitStatus = rsync.execute(parser);
+
+        assertThat(exitStatus).isZero();
+        assertThat(rsync.isCompleted()).isTrue();
+        assertThat(changes).hasSize(6);
+        assertThat(parser.getStatistics().getNumberOfFiles()).isEqualTo(1203);
+        assertThat(new String(Files.readAllBytes(arguments), StandardCharsets.UTF_8).trim())
+                .isEqualTo("--timeout=300 -rt --stats --itemize-changes rsync://localhost/repository/ " + tempDir.resolve("destination"));
+        assertThat(rsync.containsOption("--itemize-changes")).isFalse();
+    }
+}
@@ -0,0 +1,207 @@
+package net.ripe.rpki.commons.rsync;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RsyncSchedulerTest {
+
+    /**
+     * Stands in for rsync: fails for sources containing "fail", fails the first attempt for sources containing
+     * "flaky", and otherwise takes a while to "fetch", longer for destinations containing "slow".
+     */
+    private static final String RSYNC_STAND_IN = "#!/bin/sh\n" +
+            "for arg; do source=$destination; destination=$arg; done\n" +
+            "case \"$source\" in\n" +
+            "  *fail*) exit 23 ;;\n" +
+            "  *flaky*) if [ ! -e \"$destination\" ]; then touch \"$destination\"; exit 10; fi ;;\n" +
+            "esac\n" +
+            "case \"$destination\" in\n" +
+            "  *slow*) sleep 1 ;;\n" +
+            "esac\n" +
+            "sleep 0.2\n";
+
+    @TempDir
+    Path tempDir;
+
+    private Path executable;
+
+    private final AtomicInteger running = new AtomicInteger();
+    private final AtomicInteger maxRunning = new AtomicInteger();
+    private final Map<String, AtomicInteger> runningPerHost = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> maxRunningPerHost = new ConcurrentHashMap<>();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        executable = tempDir.resolve("rsync");
+        Files.write(executable, RSYNC_STAND_IN.getBytes(StandardCharsets.US_ASCII));
+        assertThat(executable.toFile().setExecutable(true)).isTrue();
+    }
+
+    @Test
+    void shouldLimitConcurrencyGloballyAndPerHost() {
+        RsyncScheduler subject = scheduler().withGlobalConcurrency(3).withPerHostConcurrency(2);
+        List<RsyncScheduler.Job> jobs = new ArrayList<>();
+        for (int i = 0; i < 6; ++i) {
+            jobs.add(job("rsync://host-a/repo-" + i + "/"));
+            jobs.add(job("rsync://host-b/repo-" + i + "/"));
+        }
+
+        List<RsyncScheduler.JobResult> results = subject.fetchAll(jobs);
+
+        assertThat(results).extracting(RsyncScheduler.JobResult::getJob).containsExactlyElementsOf(jobs);
+        assertThat(results).allSatisfy(result -> {
+            assertThat(result.getStatus()).isEqualTo(RsyncScheduler.Status.SUCCEEDED);
+            assertThat(result.getExitStatus()).isZero();
+            assertThat(result.getAttempts()).isEqualTo(1);
+            assertThat(result.getElapsedTime()).isGreaterThanOrEqualTo(200);
+        });
+        assertThat(maxRunning.get()).isEqualTo(3);
+        assertThat(maxRunningPerHost.get("host-a").get()).isLessThanOrEqualTo(2);
+        assertThat(maxRunningPerHost.get("host-b").get()).isLessThanOrEqualTo(2);
+    }
+
+    @Test
+    void shouldSkipNestedModules() {
+        RsyncScheduler.Job child = nestedJob("rsync://host-a/repo/ta/", "repo/ta");
+        RsyncScheduler.Job parent = nestedJob("rsync://host-a/repo", "repo");
+        RsyncScheduler.Job sibling = job("rsync://host-a/repository/");
+        RsyncScheduler.Job otherHost = job("rsync://host-b/repo/ta/");
+
+        List<RsyncScheduler.JobResult> results = scheduler().fetchAll(Arrays.asList(child, parent, sibling, otherHost));
+
+        assertThat(results.get(0).getStatus()).isEqualTo(RsyncScheduler.Status.SKIPPED);
+        assertThat(results.get(0).getCoveredBy()).isEqualTo(parent.getSource());
+        assertThat(results.get(0).getAttempts()).isZero();
+        assertThat(results.subList(1, 4)).allSatisfy(result -> assertThat(result.getStatus()).isEqualTo(RsyncScheduler.Status.SUCCEEDED));
+    }
+
+    @Test
+    void shouldFetchNestedModuleWithOtherDestination() {
+        RsyncScheduler.Job parent = nestedJob("rsync://host-a/repo/", "repo");
+        RsyncScheduler.Job child = nestedJob("rsync://host-a/repo/ta/", "elsewhere/ta");
+
+        List<RsyncScheduler.JobResult> results = scheduler().fetchAll(Arrays.asList(parent, child));
+
+        assertThat(results).extracting(RsyncScheduler.JobResult::getStatus)
+                .containsExactly(RsyncScheduler.Status.SUCCEEDED, RsyncScheduler.Status.SUCCEEDED);
+        assertThat(results.get(1).getAttempts()).isEqualTo(1);
+        assertThat(results.get(1).getCoveredBy()).isNull();
+    }
+
+    @Test
+    void shouldKeepSkippingNestedModulesOfRunningJobWhenJobWithSameSourceFinishes() {
+        RsyncScheduler subject = scheduler();
+        RsyncScheduler.Job fast = nestedJob("rsync://host-a/repo/", "fast");
+        RsyncScheduler.Job slow = nestedJob("rsync://host-a/repo/", "slow");
+        CompletableFuture<RsyncScheduler.JobResult> slowResult = subject.submit(slow);
+
+        assertThat(subject.submit(fast).join().getStatus()).isEqualTo(RsyncScheduler.Status.SUCCEEDED);
+        assertThat(slowResult).isNotDone();
+        RsyncScheduler.JobResult child = subject.submit(nestedJob("rsync://host-a/repo/ta/", "slow/ta")).join();
+
+        assertThat(child.getStatus()).isEqualTo(RsyncScheduler.Status.SKIPPED);
+        assertThat(child.getCoveredBy()).isEqualTo(slow.getSource());
+        assertThat(slowResult.join().getStatus()).isEqualTo(RsyncScheduler.Status.SUCCEEDED);
+    }
+
+    @Test
+    void shouldFailNestedModuleWhenParentFails() {
+        RsyncScheduler subject = scheduler().withMaxAttempts(1);
+        RsyncScheduler.Job parent = nestedJob("rsync://host-a/fail/", "fail");
+        RsyncScheduler.Job child = nestedJob("rsync://host-a/fail/ta/", "fail/ta");
+
+        List<RsyncScheduler.JobResult> results = subject.fetchAll(Arrays.asList(parent, child));
+
+        assertThat(results.get(1).getStatus()).isEqualTo(RsyncScheduler.Status.FAILED);
+        assertThat(results.get(1).getExitStatus()).isEqualTo(23);
+        assertThat(results.get(1).getAttempts()).isZero();
+        assertThat(results.get(1).getCoveredBy()).isEqualTo(parent.getSource());
+    }
+
+    @Test
+    void shouldRetryFailedFetchesWithBackoff() {
+        RsyncScheduler subject = scheduler().withMaxAttempts(3).withBackoff(Duration.ofMillis(10), Duration.ofMillis(50));
+
+        List<RsyncScheduler.JobResult> results = subject.fetchAll(Arrays.asList(job("rsync://host-a/flaky/"), job("rsync://host-a/fail/")));
+
+        assertThat(results.get(0).getStatus()).isEqualTo(RsyncScheduler.Status.SUCCEEDED);
+        assertThat(results.get(0).getAttempts()).isEqualTo(2);
+        assertThat(results.get(1).getStatus()).isEqualTo(RsyncScheduler.Status.FAILED);
+        assertThat(results.get(1).getExitStatus()).isEqualTo(23);
+        assertThat(results.get(1).getAttempts()).isEqualTo(3);
+    }
+
+    @Test
+    void shouldDoubleBackoffUpToMaximum() {
+        RsyncScheduler subject = new RsyncScheduler().withBackoff(Duration.ofSeconds(1), Duration.ofSeconds(5));
+
+        assertThat(subject.backoff(1)).isEqualTo(Duration.ofSeconds(1));
+        assertThat(subject.backoff(2)).isEqualTo(Duration.ofSeconds(2));
+        assertThat(subject.backoff(3)).isEqualTo(Duration.ofSeconds(4));
+        assertThat(subject.backoff(4)).isEqualTo(Duration.ofSeconds(5));
+        assertThat(subject.backoff(100)).isEqualTo(Duration.ofSeconds(5));
+    }
+
+    @Test
+    void shouldDetermineCoveredModules() {
+        assertThat(RsyncScheduler.covers(URI.create("rsync://host/repo/"), URI.create("rsync://HOST/repo/ta/ta.cer"))).isTrue();
+        assertThat(RsyncScheduler.covers(URI.create("rsync://host/repo"), URI.create("rsync://host/repo/"))).isTrue();
+        assertThat(RsyncScheduler.covers(URI.create("rsync://host/repo/"), URI.create("rsync://host/repository/"))).isFalse();
+        assertThat(RsyncScheduler.covers(URI.create("rsync://host/repo/"), URI.create("rsync://host:8873/repo/"))).isFalse();
+        assertThat(RsyncScheduler.covers(URI.create("rsync://host/repo/ta/"), URI.create("rsync://host/repo/"))).isFalse();
+
+        RsyncScheduler.Job parent = new RsyncScheduler.Job(URI.create("rsync://host/repo/"), "/tmp/rsync/repo");
+        assertThat(RsyncScheduler.covers(parent, new RsyncScheduler.Job(URI.create("rsync://host/repo/ta/"), "/tmp/rsync/repo/ta/"))).isTrue();
+        assertThat(RsyncScheduler.covers(parent, new RsyncScheduler.Job(URI.create("rsync://host/repo/ta/"), "/tmp/rsync/ta"))).isFalse();
+    }
+
+    private RsyncScheduler scheduler() {
+        return new RsyncScheduler().withRsyncFactory(CountingRsync::new);
+    }
+
+    private RsyncScheduler.Job job(String source) {
+        return new RsyncScheduler.Job(URI.create(source), tempDir.resolve(source.replaceAll("[^a-z0-9]", "_")).toString());
+    }
+
+    private RsyncScheduler.Job nestedJob(String source, String destination) {
+        return new RsyncScheduler.Job(URI.create(source), tempDir.resolve("nested").resolve(destination).toString());
+    }
+
+    private class CountingRsync extends Rsync {
+        CountingRsync() {
+            setExecutable(executable.toString());
+        }
+
+        @Override
+        public int execute() {
+            String host = URI.create(getSource()).getHost();
+            AtomicInteger hostRunning = runningPerHost.computeIfAbsent(host, h -> new AtomicInteger());
+            AtomicInteger hostMax = maxRunningPerHost.computeIfAbsent(host, h -> new AtomicInteger());
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            hostMax.accumulateAndGet(hostRunning.incrementAndGet(), Math::max);
+            try {
+                return super.execute();
+            } finally {
+                hostRunning.decrementAndGet();
+                running.decrementAndGet();
+            }
+        }
+    }
+}
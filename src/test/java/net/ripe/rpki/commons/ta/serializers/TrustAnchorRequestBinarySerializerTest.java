@@ -0,0 +1,35 @@
+package net.ripe.rpki.commons.ta.serializers;
+
+import net.ripe.rpki.commons.ta.domain.request.TrustAnchorRequest;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TrustAnchorRequestBinarySerializerTest {
+
+    private final TrustAnchorRequestSerializer xmlSerializer = new TrustAnchorRequestSerializer();
+    private final TrustAnchorRequestBinarySerializer subject = new TrustAnchorRequestBinarySerializer();
+
+    @ParameterizedTest
+    @ValueSource(strings = {"ta-request.xml", "ta-request-without-ta-publication-uri.xml", "legacy-ta-request.xml"})
+    void shouldRoundTripThroughXml(String file) throws IOException {
+        String xml = new String(Files.readAllBytes(Paths.get("src/test/resources/ta", file)), StandardCharsets.UTF_8);
+        TrustAnchorRequest request = xmlSerializer.deserialize(xml);
+
+        byte[] encoded = subject.fromXml(xml);
+        TrustAnchorRequest decoded = subject.deserialize(encoded);
+
+        assertThat(decoded.getCreationTimestamp()).isEqualTo(request.getCreationTimestamp());
+        assertThat(decoded.getTaCertificatePublicationUri()).isEqualTo(request.getTaCertificatePublicationUri());
+        assertThat(decoded.getTaRequests()).isEqualTo(request.getTaRequests());
+        assertThat(decoded.getSiaDescriptors()).isEqualTo(request.getSiaDescriptors());
+        assertThat(subject.toXml(encoded)).isEqualTo(xmlSerializer.serialize(request));
+        assertThat(subject.serialize(decoded)).isEqualTo(encoded);
+    }
+}
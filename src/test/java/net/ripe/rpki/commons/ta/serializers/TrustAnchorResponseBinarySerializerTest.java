@@ -0,0 +1,107 @@
+package net.ripe.rpki.commons.ta.serializers;
+
+import net.ripe.rpki.commons.ta.domain.response.TrustAnchorResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TrustAnchorResponseBinarySerializerTest {
+
+    private static final URI CRL_URI = URI.create("rsync://rpki.ripe.net/repository/ripe-ncc-ta.crl");
+
+    private final TrustAnchorResponseSerializer xmlSerializer = new TrustAnchorResponseSerializer();
+    private final TrustAnchorResponseBinarySerializer subject = new TrustAnchorResponseBinarySerializer();
+
+    private String xml;
+    private TrustAnchorResponse response;
+
+    @BeforeEach
+    void loadResponse() throws IOException {
+        xml = new String(Files.readAllBytes(Paths.get("src/test/resources/ta/ta-response.xml")), StandardCharsets.UTF_8);
+        response = xmlSerializer.deserialize(xml);
+    }
+
+    @Test
+    void shouldRoundTrip() {
+        byte[] encoded = subject.serialize(response);
+
+        assertThat(subject.deserialize(encoded)).isEqualTo(response);
+        assertThat(encoded.length).isLessThan(xml.getBytes(StandardCharsets.UTF_8).length);
+    }
+
+    @Test
+    void shouldConvertToAndFromXml() {
+        byte[] encoded = subject.fromXml(xml);
+
+        assertThat(encoded).isEqualTo(subject.serialize(response));
+        assertThat(subject.toXml(encoded)).isEqualTo(xmlSerializer.serialize(response));
+    }
+
+    @Test
+    void shouldReadConsecutiveMessagesFromStream() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        subject.write(response, out);
+        subject.write(response, out);
+
+        ByteArrayInputStream in = new ByteArrayInputStream(out.toByteArray());
+        assertThat(subject.read(in)).isEqualTo(response);
+        assertThat(subject.read(in)).isEqualTo(response);
+        assertThat(in.read()).isEqualTo(-1);
+    }
+
+    @Test
+    void shouldRejectInvalidInput() {
+        byte[] encoded = subject.serialize(response);
+
+        assertThatThrownBy(() -> subject.deserialize(new TrustAnchorRequestBinarySerializer().fromXml(
+                new String(Files.readAllBytes(Paths.get("src/test/resources/ta/ta-request.xml")), StandardCharsets.UTF_8))))
+                .isInstanceOf(UncheckedIOException.class)
+                .hasMessageContaining("not a binary TrustAnchorResponse");
+        assertThatThrownBy(() -> subject.deserialize(Arrays.copyOf(encoded, encoded.length - 1)))
+                .isInstanceOf(UncheckedIOException.class);
+    }
+
+    @Test
+    void shouldRejectCorruptPublishedObject() {
+        byte[] encoded = subject.serialize(response);
+        int offset = indexOf(encoded, response.getPublishedObjects().get(CRL_URI).getEncoded());
+        encoded[offset] = 0;
+
+        assertThatThrownBy(() -> subject.deserialize(encoded))
+                .isInstanceOf(UncheckedIOException.class)
+                .hasMessageContaining("cannot parse published object " + CRL_URI);
+    }
+
+    @Test
+    void shouldRejectPublishedObjectOfOtherType() {
+        byte[] encoded = subject.serialize(response);
+        // The type byte precedes the length of the encoded object
+        int offset = indexOf(encoded, response.getPublishedObjects().get(CRL_URI).getEncoded()) - Integer.BYTES - 1;
+        encoded[offset] = 4;
+
+        assertThatThrownBy(() -> subject.deserialize(encoded))
+                .isInstanceOf(UncheckedIOException.class)
+                .hasMessageContaining("published object " + CRL_URI + " is not a RoaCms");
+    }
+
+    private static int indexOf(byte[] bytes, byte[] part) {
+        for (int i = 0; i + part.length <= bytes.length; ++i) {
+            if (Arrays.equals(bytes, i, i + part.length, part, 0, part.length)) {
+                return i;
+            }
+        }
+        throw new AssertionError("not found");
+    }
+}
@@ -0,0 +1,86 @@
+package net.ripe.rpki.commons.ta.serializers;
+
+import net.ripe.rpki.commons.ta.domain.response.TrustAnchorResponse;
+import net.ripe.rpki.commons.xml.DomXmlSerializerException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TrustAnchorResponseReaderTest {
+
+    private String xml;
+    private TrustAnchorResponse expected;
+
+    @BeforeEach
+    void loadResponse() throws IOException {
+        xml = new String(Files.readAllBytes(Paths.get("src/test/resources/ta/ta-response.xml")), StandardCharsets.UTF_8);
+        expected = new TrustAnchorResponseSerializer().deserialize(xml);
+    }
+
+    @Test
+    void shouldReadSameResponseAsSerializer() {
+        try (TrustAnchorResponseReader subject = new TrustAnchorResponseReader(new StringReader(xml))) {
+            assertThat(subject.getRequestCreationTimestamp()).isEqualTo(expected.getRequestCreationTimestamp());
+            assertThat(subject.getTaResponses()).isEqualTo(expected.getTaResponses());
+            assertThat(subject.readAll()).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    void shouldYieldPublishedObjectsLazily() {
+        try (TrustAnchorResponseReader subject = new TrustAnchorResponseReader(new StringReader(xml))) {
+            List<TrustAnchorResponseReader.PublishedObject> objects = new ArrayList<>();
+            subject.publishedObjects().forEachRemaining(objects::add);
+
+            assertThat(objects).extracting(TrustAnchorResponseReader.PublishedObject::getUri)
+                    .containsExactlyElementsOf(expected.getPublishedObjects().keySet());
+            for (TrustAnchorResponseReader.PublishedObject object : objects) {
+                assertThat(object.getEncoded()).isEqualTo(expected.getPublishedObjects().get(object.getUri()).getEncoded());
+                assertThat(object.parse()).isEqualTo(expected.getPublishedObjects().get(object.getUri()));
+            }
+            assertThatThrownBy(subject::publishedObjects).isInstanceOf(IllegalStateException.class);
+        }
+    }
+
+    @Test
+    void shouldReportErrorsWhenReachingInvalidEntry() {
+        String invalid = xml.replaceFirst("<uri>[^<]*</uri>", "");
+        try (TrustAnchorResponseReader subject = new TrustAnchorResponseReader(new StringReader(invalid))) {
+            Iterator<TrustAnchorResponseReader.PublishedObject> objects = subject.publishedObjects();
+            assertThatThrownBy(objects::hasNext)
+                    .isInstanceOf(DomXmlSerializerException.class)
+                    .hasMessage("<uri> is not found inside of an entry");
+        }
+    }
+
+    @Test
+    void shouldRejectCorruptPublishedObject() {
+        String corrupt = xml.replaceFirst("<encoded>MIIB5jCBzwIBATAN", "<encoded>AAAB5jCBzwIBATAN");
+        try (TrustAnchorResponseReader subject = new TrustAnchorResponseReader(new StringReader(corrupt))) {
+            assertThatThrownBy(subject::readAll)
+                    .isInstanceOf(DomXmlSerializerException.class)
+                    .hasMessage("Object rsync://rpki.ripe.net/repository/ripe-ncc-ta.crl cannot be parsed");
+        }
+    }
+
+    @Test
+    void shouldRequireHeaderBeforePublishedObjects() {
+        assertThatThrownBy(() -> new TrustAnchorResponseReader(new StringReader("<TrustAnchorResponse><publishedObjects/></TrustAnchorResponse>")))
+                .isInstanceOf(DomXmlSerializerException.class)
+                .hasMessage("single element 'requestCreationTimestamp' not found");
+        assertThatThrownBy(() -> new TrustAnchorResponseReader(new StringReader("<TrustAnchorRequest/>")))
+                .isInstanceOf(DomXmlSerializerException.class)
+                .hasMessage("TrustAnchorResponse element not found");
+    }
+}
@@ -4,10 +4,16 @@ import org.junit.Test;
 import org.xml.sax.SAXException;
 import org.xml.sax.SAXParseException;
 
+import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.transform.OutputKeys;
+import javax.xml.transform.Transformer;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.StringReader;
 import java.nio.charset.StandardCharsets;
 
 import static org.junit.Assert.*;
@@ -38,6 +44,40 @@ public class XMLTest {
         assertThrows(SAXParseException.class, () -> XML.newNamespaceAwareDocumentBuilder().parse(inputStreamFrom(EXTERNAL_ENTITY_TEST)));
     }
 
+    @Test
+    public void streamReaderDoesNotResolveEntities() {
+        assertThrows(XMLStreamException.class, () -> readAll(XML.newXMLStreamReader(new StringReader(INTERNAL_ENTITY_TEST))));
+        assertThrows(XMLStreamException.class, () -> readAll(XML.newXMLStreamReader(new StringReader(EXTERNAL_ENTITY_TEST))));
+    }
+
+    private static void readAll(XMLStreamReader reader) throws XMLStreamException {
+        while (reader.hasNext()) {
+            reader.next();
+        }
+    }
+
+    @Test
+    public void reusesDocumentBuilderPerThread() throws Exception {
+        DocumentBuilder builder = XML.getNamespaceAwareDocumentBuilder();
+        builder.parse(inputStreamFrom("<data/>"));
+
+        assertSame(builder, XML.getNamespaceAwareDocumentBuilder());
+        assertTrue(builder.isNamespaceAware());
+        assertThrows(SAXParseException.class, () -> XML.getNamespaceAwareDocumentBuilder().parse(inputStreamFrom(INTERNAL_ENTITY_TEST)));
+        assertThrows(SAXParseException.class, () -> XML.getNamespaceAwareDocumentBuilder().parse(inputStreamFrom(EXTERNAL_ENTITY_TEST)));
+    }
+
+    @Test
+    public void resetsTransformerPerUse() throws Exception {
+        Transformer transformer = XML.getTransformer();
+        transformer.setOutputProperty(OutputKeys.INDENT, "no");
+        transformer.setOutputProperty(OutputKeys.OMIT_XML_DECLARATION, "yes");
+
+        assertSame(transformer, XML.getTransformer());
+        assertEquals("yes", transformer.getOutputProperty(OutputKeys.INDENT));
+        assertEquals("no", transformer.getOutputProperty(OutputKeys.OMIT_XML_DECLARATION));
+    }
+
     @Test
     public void isNamespaceAware() throws ParserConfigurationException {
         assertTrue(XML.newNamespaceAwareDocumentBuilder().isNamespaceAware());
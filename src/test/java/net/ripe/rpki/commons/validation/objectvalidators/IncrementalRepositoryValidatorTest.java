@@ -0,0 +1,160 @@
+package net.ripe.rpki.commons.validation.objectvalidators;
+
+import net.ripe.ipresource.IpResourceSet;
+import net.ripe.rpki.commons.crypto.cms.roa.RoaCms;
+import net.ripe.rpki.commons.validation.ValidationLocation;
+import net.ripe.rpki.commons.validation.ValidationOptions;
+import net.ripe.rpki.commons.validation.ValidationString;
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.util.Collections;
+import java.util.Set;
+
+import static net.ripe.rpki.commons.validation.objectvalidators.RepositoryFixture.CHILD_LOCATION;
+import static net.ripe.rpki.commons.validation.objectvalidators.RepositoryFixture.CHILD_REPOSITORY;
+import static net.ripe.rpki.commons.validation.objectvalidators.RepositoryFixture.TA_LOCATION;
+import static net.ripe.rpki.commons.validation.objectvalidators.RepositoryFixture.TA_REPOSITORY;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IncrementalRepositoryValidatorTest {
+
+    private RepositoryFixture repository;
+    private IncrementalRepositoryValidator subject;
+    private RepositoryValidationRun initial;
+
+    @BeforeEach
+    void setUp() {
+        repository = new RepositoryFixture();
+        subject = new IncrementalRepositoryValidator(repository, ValidationOptions.strictValidation());
+        initial = subject.validate(TA_LOCATION, repository.getTrustAnchor());
+    }
+
+    @Test
+    void shouldValidateWholeTreeOnInitialRun() {
+        assertThat(initial.getValidationResult().getFailuresForAllLocations()).isEmpty();
+        assertThat(initial.getRevalidatedPublicationPoints()).isEqualTo(2);
+        assertThat(initial.getPublicationPoints()).containsOnlyKeys(TA_LOCATION, CHILD_LOCATION);
+        assertThat(initial.getObjects()).containsOnlyKeys(
+                TA_LOCATION,
+                TA_REPOSITORY.resolve("ca.mft"), TA_REPOSITORY.resolve("ca.crl"), TA_REPOSITORY.resolve("child.cer"), TA_REPOSITORY.resolve("ta.roa"),
+                CHILD_REPOSITORY.resolve("ca.mft"), CHILD_REPOSITORY.resolve("ca.crl"), CHILD_REPOSITORY.resolve("child.roa"));
+        assertThat(initial.getObjects().values()).allMatch(ValidatedObject::isValid);
+        assertThat(initial.getObjects().get(CHILD_REPOSITORY.resolve("child.roa")).getObject()).isInstanceOf(RoaCms.class);
+    }
+
+    @Test
+    void shouldReuseEverythingWhenNothingChanged() {
+        RepositoryValidationRun run = subject.validate(TA_LOCATION, repository.getTrustAnchor(), initial, Collections.emptySet());
+
+        assertThat(run.getRevalidatedPublicationPoints()).isZero();
+        assertThat(run.getPublicationPoint(TA_LOCATION)).isSameAs(initial.getPublicationPoint(TA_LOCATION));
+        assertThat(run.getPublicationPoint(CHILD_LOCATION)).isSameAs(initial.getPublicationPoint(CHILD_LOCATION));
+        assertThat(run.getObjects()).isEqualTo(initial.getObjects());
+    }
+
+    @Test
+    void shouldOnlyRevalidateChangedPublicationPoint() {
+        Set<URI> changed = repository.publishChild(
+                repository.roa("child.roa", "AS64500", "10.1.0.0/24"),
+                repository.roa("new.roa", "AS64500", "10.1.1.0/24"));
+
+        RepositoryValidationRun run = subject.validate(TA_LOCATION, repository.getTrustAnchor(), initial, changed);
+
+        assertThat(run.getRevalidatedPublicationPoints()).isEqualTo(1);
+        assertThat(run.getPublicationPoint(TA_LOCATION)).isSameAs(initial.getPublicationPoint(TA_LOCATION));
+        assertThat(run.getPublicationPoint(CHILD_LOCATION)).isNotSameAs(initial.getPublicationPoint(CHILD_LOCATION));
+        assertThat(run.getObjects().get(CHILD_REPOSITORY.resolve("new.roa")).isValid()).isTrue();
+        assertThat(run.getValidationResult().getFailuresForAllLocations()).isEmpty();
+    }
+
+    @Test
+    void shouldReuseChildWhenOnlyParentPublicationPointChanged() {
+        Set<URI> changed = repository.publishTrustAnchor(repository.roa("other.roa", "AS64497", "10.2.0.0/16"));
+
+        RepositoryValidationRun run = subject.validate(TA_LOCATION, repository.getTrustAnchor(), initial, changed);
+
+        assertThat(run.getRevalidatedPublicationPoints()).isEqualTo(1);
+        assertThat(run.getPublicationPoint(CHILD_LOCATION)).isSameAs(initial.getPublicationPoint(CHILD_LOCATION));
+        assertThat(run.getObjects()).containsKey(TA_REPOSITORY.resolve("other.roa")).doesNotContainKey(TA_REPOSITORY.resolve("ta.roa"));
+    }
+
+    @Test
+    void shouldReportRemovedManifestEntry() {
+        URI roa = CHILD_REPOSITORY.resolve("child.roa");
+        repository.remove(roa);
+
+        RepositoryValidationRun run = subject.validate(TA_LOCATION, repository.getTrustAnchor(), initial, Collections.singleton(roa));
+
+        assertThat(run.getRevalidatedPublicationPoints()).isEqualTo(1);
+        assertThat(run.getObjects().get(roa).isValid()).isFalse();
+        assertThat(run.getValidationResult().getFailures(new ValidationLocation(roa)))
+                .extracting(check -> check.getKey())
+                .containsExactly(ValidationString.VALIDATOR_MANIFEST_ENTRY_FOUND);
+    }
+
+    @Test
+    void shouldDropSubtreeOfRemovedCa() {
+        URI childCertificate = TA_REPOSITORY.resolve("child.cer");
+        repository.remove(childCertificate);
+
+        RepositoryValidationRun run = subject.validate(TA_LOCATION, repository.getTrustAnchor(), initial, Collections.singleton(childCertificate));
+
+        assertThat(run.getPublicationPoints()).containsOnlyKeys(TA_LOCATION);
+        assertThat(run.getObjects().get(childCertificate).isValid()).isFalse();
+    }
+
+    @Test
+    void shouldDropSubtreeOfRevokedCa() {
+        Set<URI> changed = repository.revokeChild();
+
+        RepositoryValidationRun run = subject.validate(TA_LOCATION, repository.getTrustAnchor(), initial, changed);
+
+        assertThat(run.getRevalidatedPublicationPoints()).isEqualTo(1);
+        assertThat(run.getPublicationPoints()).containsOnlyKeys(TA_LOCATION);
+        assertThat(run.getObjects().get(CHILD_LOCATION).isValid()).isFalse();
+        assertThat(run.getValidationResult().getFailures(new ValidationLocation(CHILD_LOCATION)))
+                .extracting(check -> check.getKey())
+                .contains(ValidationString.CERT_NOT_REVOKED);
+    }
+
+    @Test
+    void shouldRevalidateChildWhenCertificateIsReissued() {
+        Set<URI> changed = repository.reissueChild("AS64500, 10.1.0.0/16, 10.2.0.0/16");
+
+        RepositoryValidationRun run = subject.validate(TA_LOCATION, repository.getTrustAnchor(), initial, changed);
+
+        assertThat(changed).doesNotContain(CHILD_REPOSITORY.resolve("ca.mft"), CHILD_REPOSITORY.resolve("child.roa"));
+        assertThat(run.getRevalidatedPublicationPoints()).isEqualTo(2);
+        assertThat(run.getPublicationPoint(CHILD_LOCATION)).isNotSameAs(initial.getPublicationPoint(CHILD_LOCATION));
+        assertThat(run.getPublicationPoint(CHILD_LOCATION).getContext().getResources()).isEqualTo(IpResourceSet.parse("AS64500, 10.1.0.0/16, 10.2.0.0/16"));
+        assertThat(run.getValidationResult().getFailuresForAllLocations()).isEmpty();
+    }
+
+    @Test
+    void shouldRevalidateExpiredPublicationPoints() {
+        DateTime validUntil = initial.getPublicationPoint(CHILD_LOCATION).getValidUntil();
+        assertThat(validUntil).isNotNull();
+
+        DateTimeUtils.setCurrentMillisFixed(validUntil.getMillis());
+        try {
+            RepositoryValidationRun run = subject.validate(TA_LOCATION, repository.getTrustAnchor(), initial, Collections.emptySet());
+
+            assertThat(run.getPublicationPoint(CHILD_LOCATION)).isNotSameAs(initial.getPublicationPoint(CHILD_LOCATION));
+        } finally {
+            DateTimeUtils.setCurrentMillisSystem();
+        }
+    }
+
+    @Test
+    void shouldOnlyReusePublicationPointBeforeValidUntil() {
+        PublicationPoint publicationPoint = initial.getPublicationPoint(CHILD_LOCATION);
+        DateTime validUntil = publicationPoint.getValidUntil();
+
+        assertThat(IncrementalRepositoryValidator.isReusable(publicationPoint, publicationPoint.getContext(), Collections.emptySet(), validUntil.minusMillis(1))).isTrue();
+        assertThat(IncrementalRepositoryValidator.isReusable(publicationPoint, publicationPoint.getContext(), Collections.emptySet(), validUntil)).isFalse();
+    }
+}
@@ -0,0 +1,282 @@
+package net.ripe.rpki.commons.validation.objectvalidators;
+
+import net.ripe.ipresource.Asn;
+import net.ripe.ipresource.IpRange;
+import net.ripe.ipresource.IpResourceSet;
+import net.ripe.ipresource.IpResourceType;
+import net.ripe.rpki.commons.crypto.ValidityPeriod;
+import net.ripe.rpki.commons.crypto.cms.RpkiSignedObjectBatchIssuer;
+import net.ripe.rpki.commons.crypto.cms.SignedObjectBatch;
+import net.ripe.rpki.commons.crypto.cms.SignedObjectSpecification;
+import net.ripe.rpki.commons.crypto.cms.aspa.AspaCmsBuilder;
+import net.ripe.rpki.commons.crypto.cms.manifest.ManifestCms;
+import net.ripe.rpki.commons.crypto.cms.roa.RoaPrefix;
+import net.ripe.rpki.commons.crypto.crl.X509CrlBuilder;
+import net.ripe.rpki.commons.crypto.util.KeyPairFactoryTest;
+import net.ripe.rpki.commons.crypto.x509cert.X509CertificateInformationAccessDescriptor;
+import net.ripe.rpki.commons.crypto.x509cert.X509ResourceCertificate;
+import net.ripe.rpki.commons.crypto.x509cert.X509ResourceCertificateBuilder;
+import net.ripe.rpki.commons.crypto.x509cert.X509RouterCertificate;
+import net.ripe.rpki.commons.crypto.x509cert.X509RouterCertificateBuilder;
+import net.ripe.rpki.commons.util.UTC;
+import org.bouncycastle.asn1.x509.KeyUsage;
+import org.joda.time.DateTime;
+
+import javax.security.auth.x500.X500Principal;
+import java.math.BigInteger;
+import java.net.URI;
+import java.security.KeyPair;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * In memory repository with a trust anchor and one child CA, both publishing a ROA. Objects can be republished, and
+ * the child CA certificate reissued or revoked, to simulate changes between validation runs. Copies of the child CA
+ * certificate and a grandchild CA can be added to build wider trees in which several CAs list the same location.
+ */
+class RepositoryFixture implements RepositoryObjectLocator {
+
+    static final URI TA_LOCATION = URI.create("rsync://rpki.example.org/ta/ta.cer");
+    static final URI TA_REPOSITORY = URI.create("rsync://rpki.example.org/repository/");
+    static final URI CHILD_LOCATION = TA_REPOSITORY.resolve("child.cer");
+    static final URI CHILD_REPOSITORY = TA_REPOSITORY.resolve("child/");
+    static final URI GRANDCHILD_LOCATION = CHILD_REPOSITORY.resolve("grandchild.cer");
+    static final URI GRANDCHILD_REPOSITORY = CHILD_REPOSITORY.resolve("grandchild/");
+
+    private static final X500Principal TA_SUBJECT = new X500Principal("CN=fixture-ta");
+    private static final X500Principal CHILD_SUBJECT = new X500Principal("CN=fixture-child");
+    private static final X500Principal GRANDCHILD_SUBJECT = new X500Principal("CN=fixture-grandchild");
+
+    private final KeyPair taKeyPair = KeyPairFactoryTest.getKeyPair("fixture-ta");
+    private final KeyPair childKeyPair = KeyPairFactoryTest.getKeyPair("fixture-child");
+    private final KeyPair grandchildKeyPair = KeyPairFactoryTest.getKeyPair("fixture-grandchild");
+    private final KeyPair eeKeyPair = KeyPairFactoryTest.getKeyPair("fixture-ee");
+    private final ValidityPeriod validityPeriod;
+    private final AtomicLong serial = new AtomicLong(100);
+    private final Map<URI, byte[]> objects = new ConcurrentHashMap<>();
+    private final X509ResourceCertificate trustAnchor;
+    private final Set<BigInteger> revokedByTrustAnchor = new HashSet<>();
+    private List<SignedObjectSpecification> trustAnchorObjects = Collections.emptyList();
+    private final Map<String, X509ResourceCertificate> childCopies = new TreeMap<>();
+    private X509ResourceCertificate child;
+
+    RepositoryFixture() {
+        DateTime now = UTC.dateTime();
+        validityPeriod = new ValidityPeriod(now.minusMinutes(1), now.plusDays(1));
+        trustAnchor = caCertificate(TA_SUBJECT, TA_SUBJECT, taKeyPair, taKeyPair, IpResourceSet.parse("AS64496-AS64511, 10.0.0.0/8, 2001:db8::/32"), TA_REPOSITORY)
+                .build();
+        child = childCertificate(IpResourceSet.parse("AS64500-AS64510, 10.1.0.0/16"));
+        publishTrustAnchor(roa("ta.roa", "AS64496", "10.0.0.0/16"));
+        publishChild(roa("child.roa", "AS64500", "10.1.0.0/24"));
+    }
+
+    X509ResourceCertificate getTrustAnchor() {
+        return trustAnchor;
+    }
+
+    @Override
+    public byte[] getObject(URI uri) {
+        return objects.get(uri);
+    }
+
+    void remove(URI uri) {
+        objects.remove(uri);
+    }
+
+    /**
+     * Publishes the child CA certificate, its copies and the signed objects in the publication point of the trust
+     * anchor.
+     *
+     * @return the locations of the published objects.
+     */
+    Set<URI> publishTrustAnchor(SignedObjectSpecification... signedObjects) {
+        trustAnchorObjects = Arrays.asList(signedObjects);
+        Map<String, byte[]> files = new TreeMap<>();
+        files.put("child.cer", child.getEncoded());
+        childCopies.forEach((fileName, copy) -> files.put(fileName, copy.getEncoded()));
+        return publish(trustAnchor, taKeyPair, TA_LOCATION, TA_REPOSITORY, files, revokedByTrustAnchor, trustAnchorObjects);
+    }
+
+    /**
+     * Issues another certificate for the child CA with the resources, sharing the key and publication point of the
+     * child CA, and republishes the publication point of the trust anchor.
+     *
+     * @return the locations of the published objects.
+     */
+    Set<URI> addChildCopy(String fileName, String resources) {
+        childCopies.put(fileName, childCertificate(IpResourceSet.parse(resources)));
+        return publishTrustAnchor(trustAnchorObjects.toArray(new SignedObjectSpecification[0]));
+    }
+
+    /**
+     * Reissues the child CA certificate with the resources and republishes the publication point of the trust anchor.
+     *
+     * @return the locations of the published objects.
+     */
+    Set<URI> reissueChild(String resources) {
+        child = childCertificate(IpResourceSet.parse(resources));
+        return publishTrustAnchor(trustAnchorObjects.toArray(new SignedObjectSpecification[0]));
+    }
+
+    /**
+     * Revokes the child CA certificate on the CRL of the trust anchor, without removing it from the manifest.
+     *
+     * @return the locations of the published objects.
+     */
+    Set<URI> revokeChild() {
+        revokedByTrustAnchor.add(child.getSerialNumber());
+        return publishTrustAnchor(trustAnchorObjects.toArray(new SignedObjectSpecification[0]));
+    }
+
+    /**
+     * Publishes the signed objects in the publication point of the child CA.
+     *
+     * @return the locations of the published objects.
+     */
+    Set<URI> publishChild(SignedObjectSpecification... signedObjects) {
+        return publishChild(Collections.emptyMap(), signedObjects);
+    }
+
+    /**
+     * Publishes the files, for example router certificates, and the signed objects in the publication point of the
+     * child CA.
+     *
+     * @return the locations of the published objects.
+     */
+    Set<URI> publishChild(Map<String, byte[]> files, SignedObjectSpecification... signedObjects) {
+        return publish(child, childKeyPair, CHILD_LOCATION, CHILD_REPOSITORY, files, Collections.emptySet(), Arrays.asList(signedObjects));
+    }
+
+    /**
+     * Publishes a grandchild CA certificate inheriting all resources in the publication point of the child CA, next
+     * to the signed objects, and an empty publication point for the grandchild CA.
+     *
+     * @return the locations of the published objects.
+     */
+    Set<URI> publishGrandchild(SignedObjectSpecification... signedObjects) {
+        X509ResourceCertificate grandchild = caCertificate(GRANDCHILD_SUBJECT, CHILD_SUBJECT, grandchildKeyPair, childKeyPair, new IpResourceSet(), GRANDCHILD_REPOSITORY)
+                .withInheritedResourceTypes(EnumSet.allOf(IpResourceType.class))
+                .withCrlDistributionPoints(crlUri(CHILD_REPOSITORY))
+                .withAuthorityInformationAccess(new X509CertificateInformationAccessDescriptor(X509CertificateInformationAccessDescriptor.ID_CA_CA_ISSUERS, CHILD_LOCATION))
+                .build();
+        Set<URI> published = publishChild(Collections.singletonMap("grandchild.cer", grandchild.getEncoded()), signedObjects);
+        published.addAll(publish(grandchild, grandchildKeyPair, GRANDCHILD_LOCATION, GRANDCHILD_REPOSITORY, Collections.emptyMap(), Collections.emptySet(), Collections.emptyList()));
+        return published;
+    }
+
+    /**
+     * @return a BGPsec router certificate issued by the child CA.
+     */
+    X509RouterCertificate routerCertificate(KeyPair routerKeyPair, int... asns) {
+        return new X509RouterCertificateBuilder()
+                .withSubjectDN(new X500Principal("CN=fixture-router"))
+                .withIssuerDN(CHILD_SUBJECT)
+                .withSerial(nextSerial())
+                .withValidityPeriod(validityPeriod)
+                .withPublicKey(routerKeyPair.getPublic())
+                .withSigningKeyPair(childKeyPair)
+                .withAuthorityKeyIdentifier(true)
+                .withCa(false)
+                .withKeyUsage(KeyUsage.digitalSignature)
+                .withAsns(asns)
+                .withCrlDistributionPoints(crlUri(CHILD_REPOSITORY))
+                .withAuthorityInformationAccess(new X509CertificateInformationAccessDescriptor(X509CertificateInformationAccessDescriptor.ID_CA_CA_ISSUERS, CHILD_LOCATION))
+                .build();
+    }
+
+    SignedObjectSpecification aspa(String fileName, String customerAsn, String... providerAsns) {
+        Asn customer = Asn.parse(customerAsn);
+        List<Asn> providers = Arrays.stream(providerAsns).map(Asn::parse).collect(Collectors.toList());
+        return new SignedObjectSpecification(fileName, nextSerial(), IpResourceSet.parse(customerAsn), EnumSet.noneOf(IpResourceType.class),
+                (eeCertificate, eePrivateKey, signatureProvider) -> new AspaCmsBuilder()
+                        .withCertificate(eeCertificate)
+                        .withCustomerAsn(customer)
+                        .withProviderASSet(providers)
+                        .withSignatureProvider(signatureProvider)
+                        .build(eePrivateKey));
+    }
+
+    SignedObjectSpecification roa(String fileName, String asn, String prefix) {
+        return SignedObjectSpecification.roa(fileName, nextSerial(), Asn.parse(asn), Collections.singletonList(new RoaPrefix(IpRange.parse(prefix))));
+    }
+
+    private Set<URI> publish(X509ResourceCertificate ca, KeyPair caKeyPair, URI caLocation, URI repository, Map<String, byte[]> files, Set<BigInteger> revoked, List<SignedObjectSpecification> signedObjects) {
+        RpkiSignedObjectBatchIssuer issuer = new RpkiSignedObjectBatchIssuer()
+                .withIssuerCertificate(ca)
+                .withIssuerKeyPair(caKeyPair)
+                .withIssuerCertificatePublicationUri(caLocation)
+                .withCrlUri(crlUri(repository))
+                .withPublicationDirectory(repository)
+                .withValidityPeriod(validityPeriod)
+                .withKeyPairGenerator(() -> eeKeyPair);
+
+        X509CrlBuilder crlBuilder = new X509CrlBuilder()
+                .withIssuerDN(ca.getSubject())
+                .withValidityPeriod(validityPeriod)
+                .withNumber(nextSerial())
+                .withAuthorityKeyIdentifier(caKeyPair.getPublic());
+        revoked.forEach(serial -> crlBuilder.addEntry(serial, validityPeriod.getNotValidBefore()));
+        byte[] crl = crlBuilder.build(caKeyPair.getPrivate()).getEncoded();
+
+        SignedObjectBatch batch = issuer.issue(signedObjects);
+        SortedMap<String, byte[]> entries = batch.getManifestEntries();
+        entries.put("ca.crl", ManifestCms.hashContents(crl));
+        files.forEach((fileName, encoded) -> entries.put(fileName, ManifestCms.hashContents(encoded)));
+        SignedObjectBatch manifest = issuer.issue(Collections.singletonList(
+                SignedObjectSpecification.manifest("ca.mft", nextSerial(), nextSerial(), entries)));
+
+        Set<URI> published = new HashSet<>();
+        published.add(put(crlUri(repository), crl));
+        published.add(put(repository.resolve("ca.mft"), manifest.getEncoded("ca.mft")));
+        files.forEach((fileName, encoded) -> published.add(put(repository.resolve(fileName), encoded)));
+        batch.getObjects().keySet().forEach(fileName -> published.add(put(repository.resolve(fileName), batch.getEncoded(fileName))));
+        return published;
+    }
+
+    private URI put(URI uri, byte[] encoded) {
+        objects.put(uri, encoded);
+        return uri;
+    }
+
+    private BigInteger nextSerial() {
+        return BigInteger.valueOf(serial.incrementAndGet());
+    }
+
+    private X509ResourceCertificate childCertificate(IpResourceSet resources) {
+        return caCertificate(CHILD_SUBJECT, TA_SUBJECT, childKeyPair, taKeyPair, resources, CHILD_REPOSITORY)
+                .withCrlDistributionPoints(crlUri(TA_REPOSITORY))
+                .withAuthorityInformationAccess(new X509CertificateInformationAccessDescriptor(X509CertificateInformationAccessDescriptor.ID_CA_CA_ISSUERS, TA_LOCATION))
+                .build();
+    }
+
+    private X509ResourceCertificateBuilder caCertificate(X500Principal subject, X500Principal issuer, KeyPair keyPair, KeyPair signingKeyPair, IpResourceSet resources, URI repository) {
+        return new X509ResourceCertificateBuilder()
+                .withSubjectDN(subject)
+                .withIssuerDN(issuer)
+                .withSerial(nextSerial())
+                .withValidityPeriod(validityPeriod)
+                .withPublicKey(keyPair.getPublic())
+                .withSigningKeyPair(signingKeyPair)
+                .withAuthorityKeyIdentifier(true)
+                .withCa(true)
+                .withKeyUsage(KeyUsage.keyCertSign | KeyUsage.cRLSign)
+                .withResources(resources)
+                .withSubjectInformationAccess(
+                        new X509CertificateInformationAccessDescriptor(X509CertificateInformationAccessDescriptor.ID_AD_CA_REPOSITORY, repository),
+                        new X509CertificateInformationAccessDescriptor(X509CertificateInformationAccessDescriptor.ID_AD_RPKI_MANIFEST, repository.resolve("ca.mft")));
+    }
+
+    private static URI crlUri(URI repository) {
+        return repository.resolve("ca.crl");
+    }
+}
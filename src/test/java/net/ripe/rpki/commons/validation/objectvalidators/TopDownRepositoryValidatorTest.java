@@ -0,0 +1,227 @@
+package net.ripe.rpki.commons.validation.objectvalidators;
+
+import com.google.common.collect.ImmutableSortedSet;
+import net.ripe.ipresource.Asn;
+import net.ripe.ipresource.IpResourceRange;
+import net.ripe.ipresource.IpRange;
+import net.ripe.ipresource.IpResourceSet;
+import net.ripe.rpki.commons.crypto.cms.manifest.ManifestCms;
+import net.ripe.rpki.commons.crypto.cms.manifest.ManifestCmsParser;
+import net.ripe.rpki.commons.crypto.util.KeyPairFactoryTest;
+import net.ripe.rpki.commons.crypto.x509cert.X509RouterCertificate;
+import net.ripe.rpki.commons.validation.ValidationLocation;
+import net.ripe.rpki.commons.validation.ValidationOptions;
+import net.ripe.rpki.commons.validation.ValidationString;
+import net.ripe.rpki.commons.validation.roa.AllowedRoute;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+import static net.ripe.rpki.commons.validation.objectvalidators.RepositoryFixture.CHILD_LOCATION;
+import static net.ripe.rpki.commons.validation.objectvalidators.RepositoryFixture.CHILD_REPOSITORY;
+import static net.ripe.rpki.commons.validation.objectvalidators.RepositoryFixture.GRANDCHILD_LOCATION;
+import static net.ripe.rpki.commons.validation.objectvalidators.RepositoryFixture.TA_LOCATION;
+import static net.ripe.rpki.commons.validation.objectvalidators.RepositoryFixture.TA_REPOSITORY;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TopDownRepositoryValidatorTest {
+
+    private RepositoryFixture repository;
+    private ForkJoinPool pool;
+    private TopDownRepositoryValidator subject;
+
+    @BeforeEach
+    void setUp() {
+        repository = new RepositoryFixture();
+        pool = new ForkJoinPool(4);
+        subject = new TopDownRepositoryValidator(repository, ValidationOptions.strictValidation(), pool);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdown();
+    }
+
+    @Test
+    void shouldValidateWholeTree() {
+        RepositoryValidationRun run = subject.validate(TA_LOCATION, repository.getTrustAnchor());
+
+        assertThat(run.getValidationResult().getFailuresForAllLocations()).isEmpty();
+        assertThat(run.getRevalidatedPublicationPoints()).isEqualTo(2);
+        assertThat(run.getPublicationPoints()).containsOnlyKeys(TA_LOCATION, CHILD_LOCATION);
+        assertThat(run.getObjects().values()).allMatch(ValidatedObject::isValid);
+    }
+
+    @Test
+    void shouldProduceSameObjectsInSameOrderAsSequentialValidation() {
+        RepositoryValidationRun run = subject.validate(TA_LOCATION, repository.getTrustAnchor());
+        RepositoryValidationRun sequential = new IncrementalRepositoryValidator(repository, ValidationOptions.strictValidation())
+                .validate(TA_LOCATION, repository.getTrustAnchor());
+
+        assertThat(run.getPublicationPoints().keySet()).containsExactlyElementsOf(sequential.getPublicationPoints().keySet());
+        assertThat(run.getObjects().keySet()).containsExactlyElementsOf(sequential.getObjects().keySet());
+    }
+
+    @Test
+    void shouldCollectValidatedRoaPayloads() {
+        RepositoryValidationRun run = subject.validate(TA_LOCATION, repository.getTrustAnchor());
+
+        assertThat(run.getValidatedRoaPrefixes()).containsExactlyInAnyOrder(
+                new AllowedRoute(Asn.parse("AS64496"), IpRange.parse("10.0.0.0/16"), 16),
+                new AllowedRoute(Asn.parse("AS64500"), IpRange.parse("10.1.0.0/24"), 24));
+        assertThat(run.getValidatedAspaPayloads()).isEmpty();
+        assertThat(run.getRouterKeys()).isEmpty();
+    }
+
+    @Test
+    void shouldCollectRouterKeysAndAspaPayloads() {
+        X509RouterCertificate routerCertificate = repository.routerCertificate(KeyPairFactoryTest.TEST_EC_KEY_PAIR, 64500, 64501, 64502);
+        repository.publishChild(Collections.singletonMap("router.cer", routerCertificate.getEncoded()),
+                repository.roa("child.roa", "AS64500", "10.1.0.0/24"),
+                repository.aspa("child.asa", "AS64500", "AS64496", "AS64497"));
+
+        RepositoryValidationRun run = subject.validate(TA_LOCATION, repository.getTrustAnchor());
+
+        assertThat(run.getValidationResult().getFailuresForAllLocations()).isEmpty();
+        assertThat(run.getRouterKeys()).singleElement().satisfies(routerKey -> {
+            assertThat(routerKey.getAsns()).isEqualTo(IpResourceRange.parse("AS64500-AS64502"));
+            assertThat(routerKey.getSubjectKeyIdentifier()).isEqualTo(routerCertificate.getSubjectKeyIdentifier());
+            assertThat(routerKey.getSubjectPublicKeyInfo()).isEqualTo(KeyPairFactoryTest.TEST_EC_KEY_PAIR.getPublic().getEncoded());
+        });
+        assertThat(run.getValidatedAspaPayloads()).containsExactly(
+                new ValidatedAspaPayload(Asn.parse("AS64500"), ImmutableSortedSet.of(Asn.parse("AS64496"), Asn.parse("AS64497"))));
+    }
+
+    @Test
+    void shouldValidateLocationListedByMultipleCasOnceInTreeOrder() {
+        repository.addChildCopy("a-copy.cer", "AS64500-AS64502");
+        repository.addChildCopy("z-copy.cer", "AS64503-AS64510");
+        repository.publishGrandchild();
+
+        for (int i = 0; i < 20; ++i) {
+            RepositoryValidationRun run = subject.validate(TA_LOCATION, repository.getTrustAnchor());
+            RepositoryValidationRun sequential = new IncrementalRepositoryValidator(repository, ValidationOptions.strictValidation())
+                    .validate(TA_LOCATION, repository.getTrustAnchor());
+
+            assertThat(run.getValidationResult().getFailuresForAllLocations()).isEmpty();
+            assertThat(run.getPublicationPoints().keySet()).containsExactly(
+                    TA_LOCATION, TA_REPOSITORY.resolve("a-copy.cer"), GRANDCHILD_LOCATION, CHILD_LOCATION, TA_REPOSITORY.resolve("z-copy.cer"));
+            assertThat(run.getPublicationPoints().values()).extracting(PublicationPoint::getContext)
+                    .containsExactlyElementsOf(sequential.getPublicationPoints().values().stream().map(PublicationPoint::getContext).collect(Collectors.toList()));
+            // The grandchild inherits its resources from the first CA in tree order listing it
+            assertThat(run.getPublicationPoints().get(GRANDCHILD_LOCATION).getContext().getResources())
+                    .isEqualTo(IpResourceSet.parse("AS64500-AS64502"));
+        }
+    }
+
+    @Test
+    void shouldNotDelayUnrelatedSubtreeBehindSlowPublicationPoint() {
+        URI slowCa = TA_REPOSITORY.resolve("a-copy.cer");
+        repository.addChildCopy("a-copy.cer", "AS64500-AS64502");
+        repository.publishGrandchild();
+        CountDownLatch grandchildLocated = new CountDownLatch(1);
+        AtomicBoolean slowCaWaitedForGrandchild = new AtomicBoolean();
+        subject.withManifestLocator((uri, context, result) -> {
+            if (context.getLocation().equals(GRANDCHILD_LOCATION)) {
+                grandchildLocated.countDown();
+            } else if (context.getLocation().equals(slowCa)) {
+                slowCaWaitedForGrandchild.set(await(grandchildLocated));
+            }
+            return locateManifest(uri);
+        });
+
+        RepositoryValidationRun run = subject.validate(TA_LOCATION, repository.getTrustAnchor());
+        RepositoryValidationRun sequential = new IncrementalRepositoryValidator(repository, ValidationOptions.strictValidation())
+                .validate(TA_LOCATION, repository.getTrustAnchor());
+
+        // The grandchild below child.cer is validated while a-copy.cer is still waiting for its manifest
+        assertThat(slowCaWaitedForGrandchild).isTrue();
+        // The grandchild is claimed through child.cer, but a-copy.cer comes first in tree order
+        assertThat(run.getPublicationPoints().get(GRANDCHILD_LOCATION).getContext().getResources())
+                .isEqualTo(IpResourceSet.parse("AS64500-AS64502"));
+        assertThat(run.getPublicationPoints().values()).extracting(PublicationPoint::getContext)
+                .containsExactlyElementsOf(sequential.getPublicationPoints().values().stream().map(PublicationPoint::getContext).collect(Collectors.toList()));
+    }
+
+    @Test
+    void shouldNotCollectPayloadsOfInvalidObjects() {
+        URI roa = CHILD_REPOSITORY.resolve("child.roa");
+        repository.remove(roa);
+
+        RepositoryValidationRun run = subject.validate(TA_LOCATION, repository.getTrustAnchor());
+
+        assertThat(run.getObjects().get(roa).isValid()).isFalse();
+        assertThat(run.getValidatedRoaPrefixes()).containsExactly(
+                new AllowedRoute(Asn.parse("AS64496"), IpRange.parse("10.0.0.0/16"), 16));
+    }
+
+    @Test
+    void shouldUseManifestLocator() {
+        Set<URI> located = ConcurrentHashMap.newKeySet();
+        subject.withManifestLocator((uri, context, result) -> {
+            located.add(uri);
+            ManifestCmsParser parser = new ManifestCmsParser();
+            parser.parse(result, repository.getObject(uri));
+            return parser.isSuccess() ? parser.getManifestCms() : null;
+        });
+
+        RepositoryValidationRun run = subject.validate(TA_LOCATION, repository.getTrustAnchor());
+
+        assertThat(located).containsExactlyInAnyOrder(TA_REPOSITORY.resolve("ca.mft"), CHILD_REPOSITORY.resolve("ca.mft"));
+        assertThat(run.getValidationResult().getFailuresForAllLocations()).isEmpty();
+    }
+
+    @Test
+    void shouldReportManifestThatCannotBeLocated() {
+        subject.withManifestLocator((uri, context, result) -> uri.equals(CHILD_REPOSITORY.resolve("ca.mft")) ? null : locateManifest(uri));
+
+        RepositoryValidationRun run = subject.validate(TA_LOCATION, repository.getTrustAnchor());
+
+        assertThat(run.getPublicationPoints()).containsOnlyKeys(TA_LOCATION, CHILD_LOCATION);
+        assertThat(run.getObjects()).doesNotContainKey(CHILD_REPOSITORY.resolve("child.roa"));
+        assertThat(run.getValidationResult().getFailures(new ValidationLocation(CHILD_REPOSITORY.resolve("ca.mft"))))
+                .extracting(check -> check.getKey())
+                .containsExactly(ValidationString.VALIDATOR_CA_SHOULD_HAVE_MANIFEST);
+        assertThat(run.getValidatedRoaPrefixes()).extracting(AllowedRoute::getAsn).containsExactly(Asn.parse("AS64496"));
+    }
+
+    @Test
+    void shouldRunOnGivenPool() {
+        Set<Thread> threads = ConcurrentHashMap.newKeySet();
+        subject.withManifestLocator((uri, context, result) -> {
+            threads.add(Thread.currentThread());
+            return locateManifest(uri);
+        });
+
+        RepositoryValidationRun run = subject.validate(TA_LOCATION, repository.getTrustAnchor());
+
+        assertThat(run.getPublicationPoints()).containsOnlyKeys(TA_LOCATION, CHILD_LOCATION);
+        assertThat(threads).isNotEmpty().allMatch(thread -> thread instanceof ForkJoinWorkerThread && ((ForkJoinWorkerThread) thread).getPool() == pool);
+    }
+
+    private static boolean await(CountDownLatch latch) {
+        try {
+            return latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private ManifestCms locateManifest(URI uri) {
+        ManifestCmsParser parser = new ManifestCmsParser();
+        parser.parse(uri.toString(), repository.getObject(uri));
+        return parser.getManifestCms();
+    }
+}
@@ -0,0 +1,67 @@
+package net.ripe.rpki.commons.xml;
+
+import net.ripe.ipresource.IpResourceSet;
+import net.ripe.rpki.commons.crypto.ValidityPeriod;
+import net.ripe.rpki.commons.crypto.x509cert.X509ResourceCertificate;
+import net.ripe.rpki.commons.crypto.x509cert.X509ResourceCertificateTest;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class XStreamXmlSerializerRegistryTest {
+
+    private final XStreamXmlSerializerRegistry subject = new XStreamXmlSerializerRegistry();
+
+    @Test
+    void shouldReuseSerializerPerTypeAndStrictness() {
+        XStreamXmlSerializer<IpResourceSet> strict = subject.getStrictSerializer(IpResourceSet.class);
+
+        assertThat(subject.getStrictSerializer(IpResourceSet.class)).isSameAs(strict);
+        assertThat(subject.getForgivingSerializer(IpResourceSet.class)).isNotSameAs(strict);
+        assertThat(subject.getStrictSerializer(ValidityPeriod.class)).isNotSameAs(strict);
+        assertThat(subject.size()).isEqualTo(3);
+    }
+
+    @Test
+    void shouldApplyCustomisationOncePerName() {
+        XStreamXmlSerializer<ValidityPeriod> aliased = subject.getSerializer(ValidityPeriod.class, false, "period", builder -> builder.withAliasType("period", ValidityPeriod.class));
+
+        assertThat(subject.getSerializer(ValidityPeriod.class, false, "period", builder -> builder.withAliasType("other", ValidityPeriod.class))).isSameAs(aliased);
+        assertThat(aliased.serialize(new ValidityPeriod())).isEqualTo("<period/>");
+        assertThat(subject.getForgivingSerializer(ValidityPeriod.class).serialize(new ValidityPeriod())).isEqualTo("<ValidityPeriod/>");
+    }
+
+    @Test
+    void shouldAllowCustomiserToUseRegistry() {
+        XStreamXmlSerializer<ValidityPeriod> serializer = subject.getSerializer(ValidityPeriod.class, false, "nested", builder -> {
+            subject.getStrictSerializer(IpResourceSet.class);
+            builder.withAliasType("period", ValidityPeriod.class);
+        });
+
+        assertThat(serializer.serialize(new ValidityPeriod())).isEqualTo("<period/>");
+        assertThat(subject.size()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldShareSerializerBetweenThreads() {
+        X509ResourceCertificate certificate = X509ResourceCertificateTest.createSelfSignedCaResourceCertificate();
+        subject.warmUp(X509ResourceCertificate.class);
+        assertThat(subject.size()).isEqualTo(2);
+
+        XStreamXmlSerializer<X509ResourceCertificate> serializer = subject.getStrictSerializer(X509ResourceCertificate.class);
+        List<X509ResourceCertificate> results = IntStream.range(0, 16)
+                .mapToObj(i -> CompletableFuture.supplyAsync(() -> serializer.deserialize(serializer.serialize(certificate))))
+                .collect(Collectors.toList())
+                .stream()
+                .map(CompletableFuture::join)
+                .collect(Collectors.toList());
+
+        assertThat(results).allMatch(certificate::equals);
+        assertThat(subject.size()).isEqualTo(2);
+    }
+}